@@ -21,6 +21,8 @@ import de.edgelord.saltyengine.core.event.CollisionEvent;
 import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
 import de.edgelord.saltyengine.core.stereotypes.ComponentContainer;
 import de.edgelord.saltyengine.gameobject.Components;
+import de.edgelord.saltyengine.scene.Scene;
+import de.edgelord.saltyengine.scene.TimerWheel;
 
 import java.util.function.BooleanSupplier;
 
@@ -28,6 +30,9 @@ import java.util.function.BooleanSupplier;
  * Activates a cooldown for what happens in {@link #run()}.
  * Whenever the cooldown is done after {@link #cooldownTime} ticks, {@link #shouldRun} is tested and if it returns true,
  * {@link #run()} is called and the cooldown restarts.
+ * <p>
+ * While the parent is part of a {@link Scene}, the end of the cooldown is scheduled with the {@link Scene#getTimerWheel()}
+ * instead of counting ticks, so that cooling down costs nothing per tick.
  */
 public abstract class CooldownComponent extends Component implements Runnable {
 
@@ -37,6 +42,14 @@ public abstract class CooldownComponent extends Component implements Runnable {
 
     private BooleanSupplier shouldRun;
 
+    private TimerWheel wheel = null;
+    private TimerWheel.Timer cooldownTimer = null;
+    private final Runnable endCooldown = () -> {
+        coolingDown = false;
+        ticks = 0;
+        cooldownTimer = null;
+    };
+
     /**
      * The default constructor.
      *
@@ -57,9 +70,51 @@ public abstract class CooldownComponent extends Component implements Runnable {
 
     }
 
+    @Override
+    public void onAddedToScene(Scene scene) {
+        wheel = scene.getTimerWheel();
+
+        if (coolingDown) {
+            cooldownTimer = wheel.schedule(Math.max(1, cooldownTime - ticks), endCooldown);
+        }
+    }
+
+    @Override
+    public void onRemovedFromScene(Scene scene) {
+        if (cooldownTimer != null) {
+            ticks = (int) Math.max(0, cooldownTime - cooldownTimer.getRemainingTicks());
+            cooldownTimer.cancel();
+            cooldownTimer = null;
+        }
+        wheel = null;
+    }
+
+    @Override
+    public void onActivate() {
+        if (cooldownTimer != null) {
+            cooldownTimer.resume();
+        }
+    }
+
+    @Override
+    public void onDeactivate() {
+        if (cooldownTimer != null) {
+            cooldownTimer.pause();
+        }
+    }
+
     @Override
     public void onFixedTick() {
 
+        if (wheel != null) {
+            if (!coolingDown && shouldRun.getAsBoolean()) {
+                run();
+                coolingDown = true;
+                cooldownTimer = wheel.schedule(cooldownTime, endCooldown);
+            }
+            return;
+        }
+
         if (coolingDown) {
             ticks++;
         }
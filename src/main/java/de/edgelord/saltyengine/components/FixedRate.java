@@ -21,7 +21,15 @@ import de.edgelord.saltyengine.core.event.CollisionEvent;
 import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
 import de.edgelord.saltyengine.core.stereotypes.ComponentContainer;
 import de.edgelord.saltyengine.gameobject.Components;
+import de.edgelord.saltyengine.scene.Scene;
+import de.edgelord.saltyengine.scene.TimerWheel;
 
+/**
+ * {@link #now()} returns true on every <code>gate + 1</code>th fixed tick.
+ * <p>
+ * While the parent is part of a {@link Scene}, this is driven by the {@link Scene#getTimerWheel()},
+ * so that this component doesn't do anything on the ticks in between. Otherwise, it counts the ticks itself.
+ */
 public class FixedRate extends Component {
 
     private int gate;
@@ -29,18 +37,64 @@ public class FixedRate extends Component {
 
     private boolean now = false;
 
+    private TimerWheel wheel = null;
+    private TimerWheel.Timer timer = null;
+    private long lastTick = -1;
+    private final Runnable fire = () -> {
+        if (isEnabled()) {
+            lastTick = wheel.getCurrentTick();
+        }
+    };
+
     public FixedRate(ComponentContainer parent, String name, int gate) {
         super(parent, name, Components.TIMING_COMPONENT);
         this.gate = gate;
     }
 
     public boolean now() {
+        if (timer != null) {
+            return lastTick == wheel.getCurrentTick();
+        }
+
         return now;
     }
 
+    @Override
+    public void onAddedToScene(Scene scene) {
+        wheel = scene.getTimerWheel();
+        timer = wheel.scheduleAtFixedRate(gate + 1, fire);
+    }
+
+    @Override
+    public void onRemovedFromScene(Scene scene) {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        wheel = null;
+    }
+
+    @Override
+    public void onActivate() {
+        if (timer != null) {
+            timer.resume();
+        }
+    }
+
+    @Override
+    public void onDeactivate() {
+        if (timer != null) {
+            timer.pause();
+        }
+    }
+
     @Override
     public void onFixedTick() {
 
+        if (timer != null) {
+            return;
+        }
+
         if (ticks == gate) {
             now = true;
             ticks = 0;
@@ -66,5 +120,15 @@ public class FixedRate extends Component {
 
     public void setGate(int gate) {
         this.gate = gate;
+
+        if (timer != null) {
+            boolean paused = timer.isPaused();
+            timer.cancel();
+            timer = wheel.scheduleAtFixedRate(gate + 1, fire);
+
+            if (paused) {
+                timer.pause();
+            }
+        }
     }
 }
@@ -22,10 +22,13 @@ import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
 import de.edgelord.saltyengine.core.stereotypes.ComponentContainer;
 import de.edgelord.saltyengine.effect.SpritesheetAnimation;
 import de.edgelord.saltyengine.gameobject.Components;
+import de.edgelord.saltyengine.scene.Scene;
+import de.edgelord.saltyengine.scene.TimerWheel;
 
 /**
  * A {@link de.edgelord.saltyengine.core.Component} that renders an {@link SpritesheetAnimation}.
  * After each {@link #ticksPerFrame} amount of fixed ticks, the next frame of the spritesheetAnimation will be drawn.
+ * While the parent is part of a {@link Scene}, the frames are advanced by the {@link Scene#getTimerWheel()}.
  */
 @DefaultPlacement(method = DefaultPlacement.Method.PARENT)
 public class AnimationRender extends RenderComponent {
@@ -45,6 +48,14 @@ public class AnimationRender extends RenderComponent {
      */
     private int ticks = 0;
 
+    private TimerWheel wheel = null;
+    private TimerWheel.Timer frameTimer = null;
+    private final Runnable nextFrame = () -> {
+        if (isEnabled() && spritesheetAnimation != null) {
+            spritesheetAnimation.nextFrame();
+        }
+    };
+
     /**
      * The default super constructor for gameObjectComponent, which takes in the parent GameObject and the
      * name, used as an id, for fishing specific components out of a list
@@ -89,10 +100,15 @@ public class AnimationRender extends RenderComponent {
 
     /**
      * On every fixed tick, {@link #ticks} is incremented; when it reaches {@link #ticksPerFrame},
-     * the next frame of {@link #spritesheetAnimation} is triggered and ticks will be reset to 0
+     * the next frame of {@link #spritesheetAnimation} is triggered and ticks will be reset to 0.
+     * This only happens if the parent isn't part of a {@link Scene}, otherwise the {@link Scene#getTimerWheel()} does it.
      */
     @Override
     public void onFixedTick() {
+        if (frameTimer != null) {
+            return;
+        }
+
         if (ticks == ticksPerFrame) {
             if (spritesheetAnimation != null) {
                 spritesheetAnimation.nextFrame();
@@ -103,6 +119,35 @@ public class AnimationRender extends RenderComponent {
         }
     }
 
+    @Override
+    public void onAddedToScene(Scene scene) {
+        wheel = scene.getTimerWheel();
+        frameTimer = wheel.scheduleAtFixedRate(ticksPerFrame + 1, nextFrame);
+    }
+
+    @Override
+    public void onRemovedFromScene(Scene scene) {
+        if (frameTimer != null) {
+            frameTimer.cancel();
+            frameTimer = null;
+        }
+        wheel = null;
+    }
+
+    @Override
+    public void onActivate() {
+        if (frameTimer != null) {
+            frameTimer.resume();
+        }
+    }
+
+    @Override
+    public void onDeactivate() {
+        if (frameTimer != null) {
+            frameTimer.pause();
+        }
+    }
+
     /**
      * @return the spritesheetAnimation that this component renders.
      */
@@ -134,5 +179,15 @@ public class AnimationRender extends RenderComponent {
     public void setTicksPerFrame(int ticksPerFrame) {
         this.ticksPerFrame = ticksPerFrame;
         ticks = 0;
+
+        if (frameTimer != null) {
+            boolean paused = frameTimer.isPaused();
+            frameTimer.cancel();
+            frameTimer = wheel.scheduleAtFixedRate(ticksPerFrame + 1, nextFrame);
+
+            if (paused) {
+                frameTimer.pause();
+            }
+        }
     }
 }
@@ -18,9 +18,15 @@ package de.edgelord.saltyengine.components.gfx;
 
 import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
 import de.edgelord.saltyengine.core.stereotypes.ComponentContainer;
+import de.edgelord.saltyengine.scene.Scene;
+import de.edgelord.saltyengine.scene.TimerWheel;
 
 import java.util.Random;
 
+/**
+ * Changes the size of its parent every {@link #pause} + 1 fixed ticks.
+ * While the parent is part of a {@link Scene}, that is scheduled with the {@link Scene#getTimerWheel()}.
+ */
 public class WobblingEffect extends GFXComponent {
 
     private int maxHeightDelta;
@@ -40,6 +46,14 @@ public class WobblingEffect extends GFXComponent {
 
     private Mode mode = Mode.linear;
 
+    private TimerWheel wheel = null;
+    private TimerWheel.Timer wobbleTimer = null;
+    private final Runnable wobble = () -> {
+        if (isEnabled()) {
+            wobble();
+        }
+    };
+
     public enum Mode {
         random,
         linear
@@ -72,69 +86,105 @@ public class WobblingEffect extends GFXComponent {
         initRun = true;
     }
 
+    @Override
+    public void onAddedToScene(Scene scene) {
+        wheel = scene.getTimerWheel();
+        wobbleTimer = wheel.scheduleAtFixedRate(pause + 1, wobble);
+    }
+
+    @Override
+    public void onRemovedFromScene(Scene scene) {
+        if (wobbleTimer != null) {
+            wobbleTimer.cancel();
+            wobbleTimer = null;
+        }
+        wheel = null;
+    }
+
+    @Override
+    public void onActivate() {
+        if (wobbleTimer != null) {
+            wobbleTimer.resume();
+        }
+    }
+
+    @Override
+    public void onDeactivate() {
+        if (wobbleTimer != null) {
+            wobbleTimer.pause();
+        }
+    }
+
     @Override
     public void onFixedTick() {
 
+        if (wobbleTimer != null) {
+            return;
+        }
+
         if (ticks == pause) {
-            int currentHeightDelta = 0;
-            int currentWidthDelta = 0;
+            wobble();
+            ticks = 0;
+        } else {
+            ticks++;
+        }
+    }
 
-            if (initRun && mode == Mode.linear) {
-                currentHeightDelta = minHeightDelta;
-                currentWidthDelta = minWidthDelta;
+    private void wobble() {
+        int currentHeightDelta = 0;
+        int currentWidthDelta = 0;
 
-                initRun = false;
-            }
+        if (initRun && mode == Mode.linear) {
+            currentHeightDelta = minHeightDelta;
+            currentWidthDelta = minWidthDelta;
 
-            switch (mode) {
+            initRun = false;
+        }
 
-                case random:
-                    currentHeightDelta = random.nextInt(maxHeightDelta - minHeightDelta) + minHeightDelta;
-                    currentWidthDelta = random.nextInt(maxWidthDelta - minWidthDelta) + minWidthDelta;
-                    break;
-                case linear:
-                    currentHeightDelta = heightDeltaPerTick;
+        switch (mode) {
+
+            case random:
+                currentHeightDelta = random.nextInt(maxHeightDelta - minHeightDelta) + minHeightDelta;
+                currentWidthDelta = random.nextInt(maxWidthDelta - minWidthDelta) + minWidthDelta;
+                break;
+            case linear:
+                currentHeightDelta = heightDeltaPerTick;
+                currentWidthDelta = widthDeltaPerTick;
+                if (shrinkingWidth) {
+                    widthDelta -= currentWidthDelta;
+                    currentWidthDelta = (widthDeltaPerTick * (-1));
+                } else {
+                    widthDelta += currentWidthDelta;
                     currentWidthDelta = widthDeltaPerTick;
-                    if (shrinkingWidth) {
-                        widthDelta -= currentWidthDelta;
-                        currentWidthDelta = (widthDeltaPerTick * (-1));
-                    } else {
-                        widthDelta += currentWidthDelta;
-                        currentWidthDelta = widthDeltaPerTick;
-                    }
-
-                    if (shrinkingHeight) {
-                        heightDelta -= currentHeightDelta;
-                        currentHeightDelta = (heightDeltaPerTick * (-1));
-                    } else {
-                        heightDelta += currentHeightDelta;
-                        currentHeightDelta = heightDeltaPerTick;
-                    }
-
-                    if (!shrinkingWidth && widthDelta >= maxWidthDelta) {
-                        shrinkingWidth = true;
-                    } else if (shrinkingWidth && widthDelta <= minWidthDelta) {
-                        shrinkingWidth = false;
-                    }
-
-                    if (!shrinkingHeight && (heightDelta >= maxHeightDelta)) {
-                        shrinkingHeight = true;
-                    } else if (shrinkingHeight && (heightDelta <= minHeightDelta)) {
-                        shrinkingHeight = false;
-                    }
-                    break;
-            }
+                }
 
-            getParent().setHeight(getParent().getHeight() + currentHeightDelta);
-            getParent().setY(getParent().getY() + ((float) (currentHeightDelta / 2)) * (-1));
+                if (shrinkingHeight) {
+                    heightDelta -= currentHeightDelta;
+                    currentHeightDelta = (heightDeltaPerTick * (-1));
+                } else {
+                    heightDelta += currentHeightDelta;
+                    currentHeightDelta = heightDeltaPerTick;
+                }
+
+                if (!shrinkingWidth && widthDelta >= maxWidthDelta) {
+                    shrinkingWidth = true;
+                } else if (shrinkingWidth && widthDelta <= minWidthDelta) {
+                    shrinkingWidth = false;
+                }
+
+                if (!shrinkingHeight && (heightDelta >= maxHeightDelta)) {
+                    shrinkingHeight = true;
+                } else if (shrinkingHeight && (heightDelta <= minHeightDelta)) {
+                    shrinkingHeight = false;
+                }
+                break;
+        }
 
-            getParent().setWidth(getParent().getWidth() + currentWidthDelta);
-            getParent().setX(getParent().getX() + ((float) (currentWidthDelta / 2)) * (-1));
+        getParent().setHeight(getParent().getHeight() + currentHeightDelta);
+        getParent().setY(getParent().getY() + ((float) (currentHeightDelta / 2)) * (-1));
 
-            ticks = 0;
-        } else {
-            ticks++;
-        }
+        getParent().setWidth(getParent().getWidth() + currentWidthDelta);
+        getParent().setX(getParent().getX() + ((float) (currentWidthDelta / 2)) * (-1));
     }
 
     @Override
@@ -173,5 +223,15 @@ public class WobblingEffect extends GFXComponent {
 
     public void setPause(int pause) {
         this.pause = pause;
+
+        if (wobbleTimer != null) {
+            boolean paused = wobbleTimer.isPaused();
+            wobbleTimer.cancel();
+            wobbleTimer = wheel.scheduleAtFixedRate(pause + 1, wobble);
+
+            if (paused) {
+                wobbleTimer.pause();
+            }
+        }
     }
 }
@@ -23,6 +23,7 @@ import de.edgelord.saltyengine.core.interfaces.Drawable;
 import de.edgelord.saltyengine.core.interfaces.FixedTickRoutine;
 import de.edgelord.saltyengine.core.interfaces.InitializeAble;
 import de.edgelord.saltyengine.core.stereotypes.ComponentContainer;
+import de.edgelord.saltyengine.scene.Scene;
 
 import java.util.List;
 
@@ -65,6 +66,48 @@ public abstract class Component<T extends ComponentContainer> implements Drawabl
 
     }
 
+    /**
+     * Called when the parent of this component is added to a {@link Scene} or when this component
+     * is added to a parent that is already part of a {@link Scene}. Use this e.g. to register callbacks
+     * with the {@link Scene#getTimerWheel()} instead of counting ticks within {@link #onFixedTick()}.
+     *
+     * @param scene the {@link Scene} the parent is now part of
+     */
+    public void onAddedToScene(Scene scene) {
+
+    }
+
+    /**
+     * Called when the parent of this component is removed from its {@link Scene} or when this component
+     * is removed from a parent that is part of a {@link Scene}. Cancel everything registered in
+     * {@link #onAddedToScene(Scene)} here.
+     *
+     * @param scene the {@link Scene} the parent was part of
+     */
+    public void onRemovedFromScene(Scene scene) {
+
+    }
+
+    /**
+     * Called when the {@link de.edgelord.saltyengine.scene.SimulationPolicy} of the {@link Scene} starts simulating
+     * the parent {@link de.edgelord.saltyengine.gameobject.GameObject} again after it was dormant.
+     * Resume everything paused in {@link #onDeactivate()} here.
+     */
+    public void onActivate() {
+
+    }
+
+    /**
+     * Called when the {@link de.edgelord.saltyengine.scene.SimulationPolicy} of the {@link Scene} stops simulating
+     * the parent {@link de.edgelord.saltyengine.gameobject.GameObject}, and right after {@link #onAddedToScene(Scene)}
+     * if the parent is dormant at that time. This component isn't ticked until {@link #onActivate()} is called, so
+     * callbacks of the {@link Scene#getTimerWheel()} should be {@link de.edgelord.saltyengine.scene.TimerWheel.Timer#pause() paused}
+     * here.
+     */
+    public void onDeactivate() {
+
+    }
+
     public void remove() {
         getParent().removeComponent(this);
     }
@@ -16,6 +16,7 @@
 
 package de.edgelord.saltyengine.core;
 
+import de.edgelord.saltyengine.core.graphics.RenderCommandBuffer;
 import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
 import de.edgelord.saltyengine.scene.SceneManager;
 import de.edgelord.saltyengine.utils.SaltySystem;
@@ -31,6 +32,15 @@ public class Engine {
     private Timer repaintTimer = new Timer();
     private boolean isCloseRequested = false;
 
+    /**
+     * Whether the scene is drawn into a {@link RenderCommandBuffer} after every fixed tick, which is then replayed by
+     * {@link #render(SaltyGraphics)}, instead of being drawn by the render thread directly.
+     */
+    private volatile boolean recordedRendering = false;
+    private RenderCommandBuffer recordingBuffer = new RenderCommandBuffer();
+    private RenderCommandBuffer presentedBuffer = new RenderCommandBuffer();
+    private final Object bufferLock = new Object();
+
     public Engine(long fixedTickMillis) {
         this.fixedTickMillis = fixedTickMillis;
     }
@@ -52,9 +62,67 @@ public class Engine {
         startRepainting();
     }
 
+    /**
+     * Draws the current scene, or replays the last recorded frame if {@link #isRecordedRendering()}, to the given
+     * graphics. The view of the {@link Game#getCamera() camera} is applied by this method.
+     *
+     * @param saltyGraphics the graphics to draw the frame to
+     */
     public void render(SaltyGraphics saltyGraphics) {
 
-        SceneManager.getCurrentScene().draw(saltyGraphics);
+        if (recordedRendering) {
+            synchronized (bufferLock) {
+                presentedBuffer.replay(saltyGraphics.getGraphics2D());
+            }
+        } else {
+            Game.getCamera().setViewToGraphics(saltyGraphics.getGraphics2D());
+            SceneManager.getCurrentScene().draw(saltyGraphics);
+        }
+    }
+
+    /**
+     * Draws the current scene into the recording buffer and then swaps it with the one that is replayed by
+     * {@link #render(SaltyGraphics)}.
+     */
+    private void recordFrame() {
+        recordingBuffer.reset();
+
+        // the view is recorded as well, so that the buffer knows the transformation to the screen
+        Game.getCamera().setViewToGraphics(recordingBuffer.getGraphics2D());
+        SceneManager.getCurrentScene().draw(recordingBuffer);
+
+        synchronized (bufferLock) {
+            RenderCommandBuffer recorded = recordingBuffer;
+            recordingBuffer = presentedBuffer;
+            presentedBuffer = recorded;
+        }
+    }
+
+    public boolean isRecordedRendering() {
+        return recordedRendering;
+    }
+
+    /**
+     * Sets whether the scene should be drawn on the thread of the fixed ticks right after each tick, recording a
+     * {@link RenderCommandBuffer} that the render thread only replays. That way, the render thread never has to
+     * wait for the lock of the scene, but frames are only updated once per fixed tick.
+     *
+     * @param recordedRendering whether to record the frames on the thread of the fixed ticks
+     */
+    public void setRecordedRendering(boolean recordedRendering) {
+        this.recordedRendering = recordedRendering;
+    }
+
+    /**
+     * Returns the last completely recorded frame if {@link #isRecordedRendering()}, e.g. to read its statistics.
+     * The buffer is reused for recording two fixed ticks later, so it should be read right away and not be modified.
+     *
+     * @return the last recorded frame
+     */
+    public RenderCommandBuffer getLastRecordedFrame() {
+        synchronized (bufferLock) {
+            return presentedBuffer;
+        }
     }
 
     public void startFixedTicks() {
@@ -67,6 +135,10 @@ public class Engine {
                 if (!Game.isPaused()) {
                     SceneManager.getCurrentScene().onFixedTick();
                 }
+
+                if (recordedRendering) {
+                    recordFrame();
+                }
             }
         }, 0, fixedTickMillis);
     }
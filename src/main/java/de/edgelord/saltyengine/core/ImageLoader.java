@@ -20,7 +20,9 @@ import de.edgelord.saltyengine.factory.ImageFactory;
 import de.edgelord.saltyengine.utils.SaltySystem;
 
 import java.awt.image.BufferedImage;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Set;
 
 public class ImageLoader {
 
@@ -122,6 +124,16 @@ public class ImageLoader {
         return images.getOrDefault(name, defaultImage);
     }
 
+    /**
+     * Returns the names of all loaded images, e.g. to pack them into a
+     * {@link de.edgelord.saltyengine.effect.TextureAtlas}.
+     *
+     * @return an unmodifiable view of the names of all loaded images
+     */
+    public static Set<String> getLoadedImageNames() {
+        return Collections.unmodifiableSet(images.keySet());
+    }
+
     /**
      * Removes the image with the given id-name from the list.
      *
@@ -59,7 +59,7 @@ public class PaneledGameHost extends Host {
     @Override
     public void repaint() {
 
-        stage.repaint();
+        stage.renderFrame();
     }
 
     @Override
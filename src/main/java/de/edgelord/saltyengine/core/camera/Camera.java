@@ -26,6 +26,7 @@ import de.edgelord.saltyengine.utils.Directions;
 
 import java.awt.*;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 
 /**
  * Class which controls how entities are rendered onto the screen.
@@ -78,7 +79,10 @@ public class Camera {
         }
 
         graphics.translate(lastPosition.getX() + position.getX(), lastPosition.getY() + position.getY());
-        graphics.rotate(Math.toRadians(rotation), Game.getGameWidth() / 2, Game.getGameHeight() / 2);
+
+        if (rotation != 0f) {
+            graphics.rotate(Math.toRadians(rotation), Game.getGameWidth() / 2, Game.getGameHeight() / 2);
+        }
     }
 
     /**
@@ -89,8 +93,7 @@ public class Camera {
      * @param graphics the {@link Graphics2D} to reset
      */
     public void tmpResetViewToGraphics(SaltyGraphics graphics) {
-        graphics.getGraphics2D().rotate(0);
-        graphics.getGraphics2D().translate(getX() * -1, getY() * -1);
+        graphics.translate(getX() * -1, getY() * -1);
     }
 
     /**
@@ -221,4 +224,83 @@ public class Camera {
     public float getRotation() {
         return rotation;
     }
+
+    /**
+     * Returns the x position of the visible area of the scene in user-space.
+     * Because the whole scene is translated by the position of this camera, that is {@code -getX()}.
+     *
+     * @return the left edge of the area of the scene that is currently visible
+     */
+    public float getViewportX() {
+        return -getX();
+    }
+
+    /**
+     * Returns the y position of the visible area of the scene in user-space.
+     * Because the whole scene is translated by the position of this camera, that is {@code -getY()}.
+     *
+     * @return the top edge of the area of the scene that is currently visible
+     */
+    public float getViewportY() {
+        return -getY();
+    }
+
+    /**
+     * Returns the centre of the visible area of the scene on the x axis in user-space.
+     *
+     * @return the x position of the centre of the area of the scene that is currently visible
+     */
+    public float getViewportCentreX() {
+        return getViewportX() + Game.getGameWidth() / 2f;
+    }
+
+    /**
+     * Returns the centre of the visible area of the scene on the y axis in user-space.
+     *
+     * @return the y position of the centre of the area of the scene that is currently visible
+     */
+    public float getViewportCentreY() {
+        return getViewportY() + Game.getGameHeight() / 2f;
+    }
+
+    /**
+     * Returns the area of the scene that is currently visible as a new {@link Transform}.
+     * The rotation of the camera is not considered.
+     *
+     * @return the visible area of the scene in user-space
+     */
+    public Transform getViewport() {
+        return new Transform(getViewportX(), getViewportY(), Game.getGameWidth(), Game.getGameHeight());
+    }
+
+    /**
+     * Writes the area of the scene that might currently be visible into the given rectangle.
+     * Unlike {@link #getViewport()}, this considers the rotation of the camera: because the view is rotated around the
+     * centre of the game, a rotated camera might show everything within the distance from there to the farthest corner
+     * of the viewport.
+     *
+     * @param margin the distance by which the area is expanded on every side
+     * @param result the rectangle to write the area into
+     * @return the given rectangle
+     */
+    public Rectangle2D.Float getVisibleArea(float margin, Rectangle2D.Float result) {
+        float viewportX = getViewportX() - margin;
+        float viewportY = getViewportY() - margin;
+        float viewportWidth = Game.getGameWidth() + margin * 2f;
+        float viewportHeight = Game.getGameHeight() + margin * 2f;
+
+        if (rotation != 0f) {
+            float centreX = Game.getGameWidth() / 2f;
+            float centreY = Game.getGameHeight() / 2f;
+            float radiusX = Math.max(Math.abs(centreX - viewportX), Math.abs(viewportX + viewportWidth - centreX));
+            float radiusY = Math.max(Math.abs(centreY - viewportY), Math.abs(viewportY + viewportHeight - centreY));
+            float radius = (float) Math.hypot(radiusX, radiusY);
+
+            result.setRect(centreX - radius, centreY - radius, radius * 2f, radius * 2f);
+        } else {
+            result.setRect(viewportX, viewportY, viewportWidth, viewportHeight);
+        }
+
+        return result;
+    }
 }
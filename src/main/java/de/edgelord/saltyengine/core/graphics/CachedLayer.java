@@ -0,0 +1,236 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.core.graphics;
+
+import de.edgelord.saltyengine.core.Game;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * An off-screen image that caches the rendering of content which rarely changes, e.g. a static background or a HUD,
+ * so that it is drawn with a single blit most of the frames.
+ * <p>
+ * The image has the size of the game and is rendered with the transformation of the graphics it is drawn to.
+ * It is re-rendered when it was {@link #invalidate() invalidated}, when that transformation changed (e.g. because the
+ * camera moved) and, if there is a {@link #getRefreshRate() refresh rate}, whenever it is older than one refresh period.
+ * <p>
+ * When the layer is drawn to a {@link RenderCommandBuffer}, the image is recorded by reference and therefore
+ * rendered into a new image the next time, so that the recorded frame isn't changed. The transformation of the
+ * buffer is the one relative to the graphics it is replayed onto, so a view like the one of the camera has to be
+ * recorded into the buffer as well, as {@link de.edgelord.saltyengine.core.Engine} does.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * if (layer.isOutdated(graphics)) {
+ *     SaltyGraphics layerGraphics = layer.startRendering(graphics);
+ *     // draw the content to layerGraphics
+ *     layer.finishRendering();
+ * }
+ * layer.drawTo(graphics);
+ * }</pre>
+ * <p>
+ * A {@link de.edgelord.saltyengine.scene.Scene} can cache its render layers, drawing routines and UI this way.
+ */
+public class CachedLayer {
+
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    private float refreshRate;
+    private long refreshPeriodNanos;
+
+    private final int width;
+    private final int height;
+
+    private BufferedImage image = null;
+    private Graphics2D imageGraphics = null;
+
+    /**
+     * Whether {@link #image} was drawn to a {@link RenderCommandBuffer}, which might still draw it later on.
+     */
+    private boolean imageRecorded = false;
+
+    private boolean valid = false;
+    private long lastRenderNanos = 0;
+    private final AffineTransform renderedTransform = new AffineTransform();
+
+    private int renderCount = 0;
+
+    /**
+     * Creates a new layer that is only re-rendered when it is invalidated or the view changes.
+     */
+    public CachedLayer() {
+        this(0f);
+    }
+
+    /**
+     * Creates a new layer that is additionally re-rendered with the given rate, e.g. 20 for a HUD.
+     *
+     * @param refreshRate how often the layer is re-rendered per second or 0 to only re-render it when it is invalidated
+     */
+    public CachedLayer(float refreshRate) {
+        this(0, 0, refreshRate);
+    }
+
+    /**
+     * Creates a new layer with an image of the given size instead of the size of the game, e.g. for graphics that
+     * don't belong to the stage.
+     *
+     * @param width       the width of the image or 0 for the width of the game
+     * @param height      the height of the image or 0 for the height of the game
+     * @param refreshRate how often the layer is re-rendered per second or 0 to only re-render it when it is invalidated
+     */
+    public CachedLayer(int width, int height, float refreshRate) {
+        this.width = width;
+        this.height = height;
+        setRefreshRate(refreshRate);
+    }
+
+    /**
+     * Returns whether the cached image has to be re-rendered before it is drawn to the given graphics.
+     *
+     * @param target the graphics the layer is drawn to
+     * @return whether the layer has to be re-rendered
+     */
+    public boolean isOutdated(SaltyGraphics target) {
+        if (!valid || image == null || image.getWidth() != imageWidth() || image.getHeight() != imageHeight()) {
+            return true;
+        }
+
+        if (refreshPeriodNanos > 0 && System.nanoTime() - lastRenderNanos >= refreshPeriodNanos) {
+            return true;
+        }
+
+        return !renderedTransform.equals(target.getTransform());
+    }
+
+    /**
+     * Clears the cached image and returns a graphics to render the content of the layer with.
+     * It has the same transformation, rendering hints, color and font as the given one.
+     * {@link #finishRendering()} has to be called afterwards.
+     *
+     * @param target the graphics the layer is drawn to
+     * @return the graphics to render the content of the layer to
+     */
+    public SaltyGraphics startRendering(SaltyGraphics target) {
+        int width = imageWidth();
+        int height = imageHeight();
+
+        if (image == null || imageRecorded || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            imageRecorded = false;
+            imageGraphics = image.createGraphics();
+        } else {
+            imageGraphics = image.createGraphics();
+            imageGraphics.setComposite(AlphaComposite.Clear);
+            imageGraphics.fillRect(0, 0, width, height);
+            imageGraphics.setComposite(AlphaComposite.SrcOver);
+        }
+
+        Graphics2D targetGraphics = target.getGraphics2D();
+
+        imageGraphics.setRenderingHints(targetGraphics.getRenderingHints());
+        imageGraphics.setColor(targetGraphics.getColor());
+        imageGraphics.setFont(targetGraphics.getFont());
+        imageGraphics.setTransform(targetGraphics.getTransform());
+        renderedTransform.setTransform(imageGraphics.getTransform());
+
+        return new SaltyGraphics(imageGraphics);
+    }
+
+    /**
+     * Finishes the rendering started with {@link #startRendering(SaltyGraphics)}.
+     */
+    public void finishRendering() {
+        imageGraphics.dispose();
+        imageGraphics = null;
+
+        valid = true;
+        lastRenderNanos = System.nanoTime();
+        renderCount++;
+    }
+
+    /**
+     * Draws the cached image to the given graphics with a single blit.
+     *
+     * @param target the graphics to draw the layer to
+     */
+    public void drawTo(SaltyGraphics target) {
+        if (image == null) {
+            return;
+        }
+
+        AffineTransform before = target.getTransform();
+
+        target.setTransform(IDENTITY);
+        target.drawImage(image, 0, 0);
+        target.setTransform(before);
+
+        if (target instanceof RenderCommandBuffer) {
+            imageRecorded = true;
+        }
+    }
+
+    /**
+     * Marks the cached image as outdated, so that it is re-rendered before it is drawn the next time.
+     * Call this whenever the content of the layer changed.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Releases the cached image. It is recreated the next time the layer is rendered.
+     */
+    public void flush() {
+        if (image != null) {
+            image.flush();
+            image = null;
+        }
+        valid = false;
+    }
+
+    public float getRefreshRate() {
+        return refreshRate;
+    }
+
+    /**
+     * Sets how often the layer is re-rendered per second even if it wasn't invalidated.
+     *
+     * @param refreshRate the refresh rate in Hz or 0 to only re-render the layer when it is invalidated
+     */
+    public void setRefreshRate(float refreshRate) {
+        this.refreshRate = refreshRate;
+        this.refreshPeriodNanos = refreshRate > 0f ? (long) (1_000_000_000L / refreshRate) : 0;
+    }
+
+    /**
+     * @return how often the cached image was rendered so far
+     */
+    public int getRenderCount() {
+        return renderCount;
+    }
+
+    private int imageWidth() {
+        return width > 0 ? width : Math.max(1, Math.round(Game.getGameWidth()));
+    }
+
+    private int imageHeight() {
+        return height > 0 ? height : Math.max(1, Math.round(Game.getGameHeight()));
+    }
+}
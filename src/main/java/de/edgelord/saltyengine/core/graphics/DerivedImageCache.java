@@ -0,0 +1,481 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.core.graphics;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of images derived from other images by scaling, rotating and tinting them,
+ * so that drawing the same image with the same parameters every frame only blits the cached result.
+ * <p>
+ * Images are derived with the {@link RenderingHints#KEY_INTERPOLATION interpolation} of the graphics they are drawn
+ * to, so that e.g. pixel art stays sharp when the {@link de.edgelord.saltyengine.displaymanager.stage.Stage} isn't
+ * set to high quality. Source images are identified by identity and only referenced weakly, so an image that changes
+ * after it was drawn has to be {@link #invalidate(BufferedImage) invalidated}, and the images derived from an image that
+ * isn't used anymore are dropped.
+ * <p>
+ * {@link SaltyGraphics#drawImage(BufferedImage, float, float, float, float, float, Color)} always uses the
+ * {@link #getDefault() default} cache. {@link SaltyGraphics#drawImage(BufferedImage, float, float, float, float)} only
+ * uses it if {@link #setCachingScaledDraws(boolean) enabled}, because the images drawn that way might change at any
+ * time. Then an image is only scaled and cached the second time it is drawn with the same size, so images that are
+ * drawn with a different size every frame don't fill the cache.
+ * <p>
+ * The cache holds at most {@link #getMemoryBudget()} bytes of derived images, the least recently used ones are
+ * dropped first. Rotations are quantized to {@link #ROTATION_STEPS} steps per turn.
+ */
+public class DerivedImageCache {
+
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    /**
+     * The number of distinct rotations per full turn.
+     */
+    public static final int ROTATION_STEPS = 256;
+
+    /**
+     * The maximum number of sizes that are remembered as requested once without being cached yet.
+     */
+    private static final int MAX_PENDING = 1024;
+
+    private static final DerivedImageCache defaultCache = new DerivedImageCache(DEFAULT_MEMORY_BUDGET);
+
+    private final Map<Key, BufferedImage> images = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Key, Boolean> pending = new LinkedHashMap<Key, Boolean>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+            return size() > MAX_PENDING;
+        }
+    };
+
+    // the references to the sources of the keys above, which are enqueued once a source was garbage collected
+    private final ReferenceQueue<BufferedImage> collectedSources = new ReferenceQueue<>();
+
+    // reused for lookups, so that a hit doesn't allocate anything
+    private final LookupKey lookupKey = new LookupKey();
+
+    private long memoryBudget;
+    private long memoryUsage = 0;
+    private boolean enabled = true;
+    private boolean cachingScaledDraws = false;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates a new cache with the given memory budget.
+     *
+     * @param memoryBudget the maximum size of all cached images in bytes
+     */
+    public DerivedImageCache(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * @return the cache used by {@link SaltyGraphics}
+     */
+    public static DerivedImageCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Draws the given image with the given size to the given graphics. If {@link #isCachingScaledDraws() enabled},
+     * a {@link #getScaled(BufferedImage, int, int, Object) scaled} copy of the image is drawn, which is a plain blit.
+     *
+     * @param graphics the graphics to draw to, whose interpolation is used for scaling
+     * @param image    the image to draw
+     * @param x        the x position of the image
+     * @param y        the y position of the image
+     * @param width    the width to draw the image with
+     * @param height   the height to draw the image with
+     */
+    public void drawScaled(Graphics2D graphics, BufferedImage image, int x, int y, int width, int height) {
+        if (isCachingScaledDraws()) {
+            image = getScaled(image, width, height, graphics.getRenderingHint(RenderingHints.KEY_INTERPOLATION));
+        }
+
+        graphics.drawImage(image, x, y, width, height, null);
+    }
+
+    /**
+     * Returns the given image scaled to the given size if it was requested with that size before, otherwise it returns
+     * the given image and remembers the request. The returned image has to be drawn with the given size, which is
+     * a plain blit for a scaled image.
+     *
+     * @param source        the image to scale
+     * @param width         the width to draw the image with
+     * @param height        the height to draw the image with
+     * @param interpolation the {@link RenderingHints#KEY_INTERPOLATION interpolation} to scale the image with,
+     *                      usually the one of the graphics it is drawn to; <code>null</code> for nearest neighbour
+     * @return the scaled image or the given one
+     */
+    public synchronized BufferedImage getScaled(BufferedImage source, int width, int height, Object interpolation) {
+        if (!enabled || (source.getWidth() == width && source.getHeight() == height) || width <= 0 || height <= 0
+                || bytes(width, height) > memoryBudget / 4) {
+            return source;
+        }
+
+        expungeCollectedSources();
+
+        lookupKey.set(source, width, height, 0, null, interpolation);
+
+        try {
+            BufferedImage image = images.get(lookupKey);
+
+            if (image != null) {
+                hits++;
+                return image;
+            }
+
+            misses++;
+
+            if (pending.remove(lookupKey) == null) {
+                pending.put(lookupKey.store(collectedSources), Boolean.TRUE);
+                return source;
+            }
+
+            return put(lookupKey.store(collectedSources), derive(source, width, height, 0, null, lookupKey.interpolation));
+        } finally {
+            lookupKey.release();
+        }
+    }
+
+    /**
+     * Returns the given image scaled to the given size, rotated around its centre by the given degrees and tinted with
+     * the given color. The returned image has the size of the bounding box of the rotated image and has to be drawn
+     * centred at the centre of the original bounds.
+     *
+     * @param source          the image to derive from
+     * @param width           the width to scale the image to
+     * @param height          the height to scale the image to
+     * @param rotationDegrees the rotation in degrees, which is quantized to {@link #ROTATION_STEPS} steps per turn
+     * @param tint            the color to tint the image with, its alpha is the strength of the tint, or <code>null</code>
+     * @param interpolation   the {@link RenderingHints#KEY_INTERPOLATION interpolation} to scale and rotate the image
+     *                        with, usually the one of the graphics it is drawn to; <code>null</code> for nearest neighbour
+     * @return the derived image
+     */
+    public synchronized BufferedImage getDerived(BufferedImage source, int width, int height, float rotationDegrees, Color tint, Object interpolation) {
+        int rotationStep = Math.floorMod(Math.round(rotationDegrees / 360f * ROTATION_STEPS), ROTATION_STEPS);
+
+        if (!enabled || bytes(width, height) * 2 > memoryBudget / 4) {
+            return derive(source, width, height, rotationStep, tint, interpolation);
+        }
+
+        expungeCollectedSources();
+
+        lookupKey.set(source, width, height, rotationStep, tint, interpolation);
+
+        try {
+            BufferedImage image = images.get(lookupKey);
+
+            if (image != null) {
+                hits++;
+                return image;
+            }
+
+            misses++;
+
+            return put(lookupKey.store(collectedSources), derive(source, width, height, rotationStep, tint, lookupKey.interpolation));
+        } finally {
+            lookupKey.release();
+        }
+    }
+
+    /**
+     * Removes all cached images.
+     */
+    public synchronized void clear() {
+        images.clear();
+        pending.clear();
+        memoryUsage = 0;
+    }
+
+    /**
+     * Removes all images derived from the given one, e.g. because it was changed.
+     *
+     * @param source the image whose derived images to remove
+     */
+    public synchronized void invalidate(BufferedImage source) {
+        Iterator<Map.Entry<Key, BufferedImage>> iterator = images.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = iterator.next();
+
+            if (entry.getKey().getSource() == source) {
+                memoryUsage -= bytes(entry.getValue().getWidth(), entry.getValue().getHeight());
+                iterator.remove();
+            }
+        }
+
+        pending.keySet().removeIf(key -> key.getSource() == source);
+    }
+
+    /**
+     * @return the ratio of requests that were answered from the cache, between 0 and 1
+     */
+    public synchronized float getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0f : (float) hits / requests;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the size of all cached images in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    public synchronized int getSize() {
+        return images.size();
+    }
+
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the maximum size of all cached images in bytes and drops the least recently used ones if necessary.
+     *
+     * @param memoryBudget the new budget in bytes
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        evict();
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the cache. A disabled cache returns the source images for scaling and derives
+     * images for every call of {@link #getDerived(BufferedImage, int, int, float, Color, Object)}.
+     *
+     * @param enabled whether the cache is enabled
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    public synchronized boolean isCachingScaledDraws() {
+        return cachingScaledDraws;
+    }
+
+    /**
+     * Sets whether {@link #drawScaled(Graphics2D, BufferedImage, int, int, int, int)} and therefore
+     * {@link SaltyGraphics#drawImage(BufferedImage, float, float, float, float)} draw cached scaled copies of images
+     * that are drawn with a size other than their own, which is disabled by default. Only enable it if the images drawn
+     * that way don't change, or are {@link #invalidate(BufferedImage) invalidated} when they do.
+     *
+     * @param cachingScaledDraws whether to cache the images scaled by drawing them
+     */
+    public synchronized void setCachingScaledDraws(boolean cachingScaledDraws) {
+        this.cachingScaledDraws = cachingScaledDraws;
+    }
+
+    private BufferedImage put(Key key, BufferedImage image) {
+        images.put(key, image);
+        memoryUsage += bytes(image.getWidth(), image.getHeight());
+        evict();
+
+        return image;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, BufferedImage>> iterator = images.entrySet().iterator();
+
+        while (memoryUsage > memoryBudget && iterator.hasNext()) {
+            BufferedImage image = iterator.next().getValue();
+
+            memoryUsage -= bytes(image.getWidth(), image.getHeight());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes the images derived from sources that were garbage collected.
+     */
+    private void expungeCollectedSources() {
+        SourceReference reference;
+
+        while ((reference = (SourceReference) collectedSources.poll()) != null) {
+            BufferedImage image = images.remove(reference.key);
+
+            if (image != null) {
+                memoryUsage -= bytes(image.getWidth(), image.getHeight());
+            }
+            pending.remove(reference.key);
+        }
+    }
+
+    private static BufferedImage derive(BufferedImage source, int width, int height, int rotationStep, Color tint, Object interpolation) {
+        double radians = rotationStep * 2 * Math.PI / ROTATION_STEPS;
+        double sin = Math.abs(Math.sin(radians));
+        double cos = Math.abs(Math.cos(radians));
+        int imageWidth = Math.max(1, (int) Math.ceil(width * cos + height * sin));
+        int imageHeight = Math.max(1, (int) Math.ceil(width * sin + height * cos));
+
+        // keeping the type of the source lets Java2D use the same loops for the derived image as for the source
+        int type = source.getType() == BufferedImage.TYPE_INT_ARGB ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_ARGB_PRE;
+        BufferedImage image = new BufferedImage(imageWidth, imageHeight, type);
+        Graphics2D graphics = image.createGraphics();
+        if (interpolation != null && interpolation != RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR) {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+
+        if (rotationStep != 0) {
+            graphics.rotate(radians, imageWidth / 2.0, imageHeight / 2.0);
+        }
+        graphics.drawImage(source, (imageWidth - width) / 2, (imageHeight - height) / 2, width, height, null);
+
+        if (tint != null) {
+            graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_ATOP, tint.getAlpha() / 255f));
+            graphics.setColor(new Color(tint.getRed(), tint.getGreen(), tint.getBlue()));
+            graphics.fillRect((imageWidth - width) / 2, (imageHeight - height) / 2, width, height);
+        }
+
+        graphics.dispose();
+
+        return image;
+    }
+
+    private static long bytes(int width, int height) {
+        return (long) width * height * 4;
+    }
+
+    /**
+     * The parameters an image was derived with. The keys within the cache reference their source weakly,
+     * see {@link StoredKey}, while the one used for lookups references it strongly, see {@link LookupKey}.
+     */
+    private abstract static class Key {
+        int width, height, rotationStep;
+        Color tint;
+        Object interpolation;
+        int hash;
+
+        abstract BufferedImage getSource();
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            BufferedImage source = getSource();
+            return source != null && source == key.getSource() && width == key.width && height == key.height
+                    && rotationStep == key.rotationStep && interpolation == key.interpolation
+                    && (tint == null ? key.tint == null : tint.equals(key.tint));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class LookupKey extends Key {
+        private BufferedImage source;
+
+        private void set(BufferedImage source, int width, int height, int rotationStep, Color tint, Object interpolation) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+            this.rotationStep = rotationStep;
+            this.tint = tint;
+            // Java2D uses nearest neighbour interpolation if none is set
+            this.interpolation = interpolation == null ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR : interpolation;
+
+            int result = System.identityHashCode(source);
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + rotationStep;
+            result = 31 * result + (tint == null ? 0 : tint.getRGB());
+            result = 31 * result + this.interpolation.hashCode();
+            hash = result;
+        }
+
+        /**
+         * Forgets the source after a lookup, so that this key doesn't keep it from being garbage collected.
+         */
+        private void release() {
+            source = null;
+        }
+
+        /**
+         * @return a key with the same parameters that only references the source weakly
+         */
+        private StoredKey store(ReferenceQueue<BufferedImage> queue) {
+            StoredKey key = new StoredKey();
+            key.source = new SourceReference(source, key, queue);
+            key.width = width;
+            key.height = height;
+            key.rotationStep = rotationStep;
+            key.tint = tint;
+            key.interpolation = interpolation;
+            key.hash = hash;
+
+            return key;
+        }
+
+        @Override
+        BufferedImage getSource() {
+            return source;
+        }
+    }
+
+    private static final class StoredKey extends Key {
+        private SourceReference source;
+
+        @Override
+        BufferedImage getSource() {
+            return source.get();
+        }
+    }
+
+    private static final class SourceReference extends WeakReference<BufferedImage> {
+        private final StoredKey key;
+
+        private SourceReference(BufferedImage source, StoredKey key, ReferenceQueue<BufferedImage> queue) {
+            super(source, queue);
+            this.key = key;
+        }
+    }
+}
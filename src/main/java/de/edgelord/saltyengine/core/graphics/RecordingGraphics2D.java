@@ -0,0 +1,519 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.core.graphics;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.util.Map;
+
+/**
+ * The {@link Graphics2D} returned by {@link RenderCommandBuffer#getGraphics2D()}, which records everything drawn with
+ * it into the buffer, so that code written against plain Java2D works with a recorded frame, too.
+ * <p>
+ * The state of the graphics (transformation, clip, color, font etc.) is tracked by {@link #state}, a graphics of a
+ * 1x1 image that is never drawn to, so that all getters return the recorded state. Shapes are copied when they are
+ * recorded, as Java2D code commonly reuses them; images are recorded by reference like everywhere in the buffer.
+ * <p>
+ * A graphics returned by {@link #create()} records into the same buffer and has to be disposed before its parent is
+ * used again. {@link #copyArea(int, int, int, int, int, int)} and the XOR mode are recorded like everything else and
+ * work on the pixels of the graphics the buffer is replayed onto, so they copy and combine with what was drawn
+ * there before.
+ */
+final class RecordingGraphics2D extends Graphics2D {
+
+    private final RenderCommandBuffer buffer;
+    private final Graphics2D state;
+    private final boolean root;
+
+    // reused for the transformations that aren't recorded as a translation
+    private final AffineTransform matrix = new AffineTransform();
+
+    RecordingGraphics2D(RenderCommandBuffer buffer, Graphics2D state, boolean root) {
+        this.buffer = buffer;
+        this.state = state;
+        this.root = root;
+    }
+
+    /*
+    Drawing
+     */
+
+    @Override
+    public void draw(Shape shape) {
+        buffer.recordShape(copy(shape), false);
+    }
+
+    @Override
+    public void fill(Shape shape) {
+        buffer.recordShape(copy(shape), true);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        buffer.drawLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height) {
+        buffer.drawRect(x, y, width, height);
+    }
+
+    @Override
+    public void clearRect(int x, int y, int width, int height) {
+        buffer.clear(x, y, width, height);
+    }
+
+    @Override
+    public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+        buffer.outlineRoundRect(x, y, width, height, arcWidth, arcHeight);
+    }
+
+    @Override
+    public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+        buffer.drawRoundRect(x, y, width, height, arcWidth, arcHeight);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        buffer.outlineOval(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        buffer.drawOval(x, y, width, height);
+    }
+
+    @Override
+    public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+        buffer.recordShape(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN), false);
+    }
+
+    @Override
+    public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+        buffer.recordShape(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.PIE), true);
+    }
+
+    @Override
+    public void drawPolyline(int[] xPoints, int[] yPoints, int points) {
+        if (points < 2) {
+            return;
+        }
+
+        Path2D.Float path = new Path2D.Float(Path2D.WIND_EVEN_ODD, points);
+        path.moveTo(xPoints[0], yPoints[0]);
+        for (int i = 1; i < points; i++) {
+            path.lineTo(xPoints[i], yPoints[i]);
+        }
+
+        buffer.recordShape(path, false);
+    }
+
+    @Override
+    public void drawPolygon(int[] xPoints, int[] yPoints, int points) {
+        buffer.recordShape(new Polygon(xPoints, yPoints, points), false);
+    }
+
+    @Override
+    public void fillPolygon(int[] xPoints, int[] yPoints, int points) {
+        buffer.recordShape(new Polygon(xPoints, yPoints, points), true);
+    }
+
+    @Override
+    public void drawString(String text, int x, int y) {
+        buffer.recordText(text, x, y);
+    }
+
+    @Override
+    public void drawString(String text, float x, float y) {
+        buffer.recordText(text, x, y);
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+        drawString(iterator, (float) x, (float) y);
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+        TextLayout layout = new TextLayout(iterator, getFontRenderContext());
+        buffer.recordShape(layout.getOutline(AffineTransform.getTranslateInstance(x, y)), true);
+    }
+
+    @Override
+    public void drawGlyphVector(GlyphVector glyphs, float x, float y) {
+        buffer.recordShape(glyphs.getOutline(x, y), true);
+    }
+
+    /*
+    Images
+     */
+
+    @Override
+    public boolean drawImage(Image image, int x, int y, ImageObserver observer) {
+        buffer.recordImage(image, x, y);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int x, int y, int width, int height, ImageObserver observer) {
+        buffer.recordImage(image, x, y, width, height);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int x, int y, Color background, ImageObserver observer) {
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+
+        if (width < 0 || height < 0) {
+            return drawImage(image, x, y, observer);
+        }
+
+        return drawImage(image, x, y, width, height, background, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image image, int x, int y, int width, int height, Color background, ImageObserver observer) {
+        fillBackground(background, x, y, width, height);
+        buffer.recordImage(image, x, y, width, height);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2, ImageObserver observer) {
+        buffer.recordImageRegion(image, dx1, dy1, dx2 - dx1, dy2 - dy1, sx1, sy1, sx2 - sx1, sy2 - sy1);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image image, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2, Color background, ImageObserver observer) {
+        fillBackground(background, Math.min(dx1, dx2), Math.min(dy1, dy2), Math.abs(dx2 - dx1), Math.abs(dy2 - dy1));
+        return drawImage(image, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image image, AffineTransform transform, ImageObserver observer) {
+        buffer.recordImage(image, transform == null ? new AffineTransform() : transform);
+        return true;
+    }
+
+    @Override
+    public void drawImage(BufferedImage image, BufferedImageOp operation, int x, int y) {
+        buffer.recordImage(operation == null ? image : operation.filter(image, null), x, y);
+    }
+
+    @Override
+    public void drawRenderedImage(RenderedImage image, AffineTransform transform) {
+        if (image instanceof BufferedImage) {
+            drawImage((BufferedImage) image, transform, null);
+            return;
+        }
+
+        WritableRaster raster = image.getColorModel().createCompatibleWritableRaster(image.getWidth(), image.getHeight());
+        image.copyData(raster.createWritableTranslatedChild(image.getMinX(), image.getMinY()));
+        drawImage(new BufferedImage(image.getColorModel(), raster, image.getColorModel().isAlphaPremultiplied(), null), transform, null);
+    }
+
+    @Override
+    public void drawRenderableImage(RenderableImage image, AffineTransform transform) {
+        drawRenderedImage(image.createDefaultRendering(), transform);
+    }
+
+    private void fillBackground(Color background, int x, int y, int width, int height) {
+        if (background == null) {
+            return;
+        }
+
+        Paint paint = getPaint();
+        buffer.recordPaint(background);
+        buffer.drawRect(x, y, width, height);
+        buffer.recordPaint(paint);
+    }
+
+    @Override
+    public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+        buffer.recordCopyArea(x, y, width, height, dx, dy);
+    }
+
+    /*
+    State
+     */
+
+    @Override
+    public Graphics create() {
+        buffer.recordPush();
+        return new RecordingGraphics2D(buffer, (Graphics2D) state.create(), false);
+    }
+
+    /**
+     * Disposes a graphics returned by {@link #create()}. Disposing the graphics of the buffer itself does nothing.
+     */
+    @Override
+    public void dispose() {
+        if (!root) {
+            buffer.recordPop();
+            state.dispose();
+        }
+    }
+
+    @Override
+    public Color getColor() {
+        return state.getColor();
+    }
+
+    @Override
+    public void setColor(Color color) {
+        if (color != null) {
+            state.setColor(color);
+            buffer.recordPaint(color);
+        }
+    }
+
+    @Override
+    public Paint getPaint() {
+        return state.getPaint();
+    }
+
+    @Override
+    public void setPaint(Paint paint) {
+        if (paint != null) {
+            state.setPaint(paint);
+            buffer.recordPaint(paint);
+        }
+    }
+
+    @Override
+    public Font getFont() {
+        return state.getFont();
+    }
+
+    @Override
+    public void setFont(Font font) {
+        if (font != null) {
+            state.setFont(font);
+            buffer.recordFont(font);
+        }
+    }
+
+    @Override
+    public FontMetrics getFontMetrics(Font font) {
+        return state.getFontMetrics(font);
+    }
+
+    @Override
+    public FontRenderContext getFontRenderContext() {
+        return state.getFontRenderContext();
+    }
+
+    @Override
+    public Stroke getStroke() {
+        return state.getStroke();
+    }
+
+    @Override
+    public void setStroke(Stroke stroke) {
+        state.setStroke(stroke);
+        buffer.recordStroke(stroke);
+    }
+
+    @Override
+    public Composite getComposite() {
+        return state.getComposite();
+    }
+
+    @Override
+    public void setComposite(Composite composite) {
+        state.setComposite(composite);
+        buffer.recordComposite(composite);
+    }
+
+    @Override
+    public Color getBackground() {
+        return state.getBackground();
+    }
+
+    @Override
+    public void setBackground(Color color) {
+        state.setBackground(color);
+        buffer.recordBackground(color);
+    }
+
+    @Override
+    public void setPaintMode() {
+        state.setPaintMode();
+        buffer.recordPaintMode();
+    }
+
+    @Override
+    public void setXORMode(Color color) {
+        state.setXORMode(color);
+        buffer.recordXORMode(color);
+    }
+
+    @Override
+    public Object getRenderingHint(RenderingHints.Key key) {
+        return state.getRenderingHint(key);
+    }
+
+    @Override
+    public void setRenderingHint(RenderingHints.Key key, Object value) {
+        state.setRenderingHint(key, value);
+        buffer.recordHints(new RenderingHints(key, value), false);
+    }
+
+    @Override
+    public RenderingHints getRenderingHints() {
+        return state.getRenderingHints();
+    }
+
+    @Override
+    public void setRenderingHints(Map<?, ?> hints) {
+        state.setRenderingHints(hints);
+        buffer.recordHints(new RenderingHints(castHints(hints)), true);
+    }
+
+    @Override
+    public void addRenderingHints(Map<?, ?> hints) {
+        state.addRenderingHints(hints);
+        buffer.recordHints(new RenderingHints(castHints(hints)), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<RenderingHints.Key, ?> castHints(Map<?, ?> hints) {
+        return (Map<RenderingHints.Key, ?>) hints;
+    }
+
+    /*
+    Clip
+     */
+
+    @Override
+    public Shape getClip() {
+        return state.getClip();
+    }
+
+    @Override
+    public Rectangle getClipBounds() {
+        return state.getClipBounds();
+    }
+
+    @Override
+    public void setClip(Shape clip) {
+        state.setClip(clip);
+        buffer.recordClip(state.getClip());
+    }
+
+    @Override
+    public void setClip(int x, int y, int width, int height) {
+        setClip(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void clip(Shape shape) {
+        state.clip(shape);
+        buffer.recordClip(state.getClip());
+    }
+
+    @Override
+    public void clipRect(int x, int y, int width, int height) {
+        clip(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public boolean hit(Rectangle rect, Shape shape, boolean onStroke) {
+        return state.hit(rect, shape, onStroke);
+    }
+
+    @Override
+    public GraphicsConfiguration getDeviceConfiguration() {
+        return state.getDeviceConfiguration();
+    }
+
+    /*
+    Transformation
+     */
+
+    @Override
+    public AffineTransform getTransform() {
+        return state.getTransform();
+    }
+
+    @Override
+    public void setTransform(AffineTransform transform) {
+        state.setTransform(transform);
+        buffer.recordSetTransform(transform);
+    }
+
+    @Override
+    public void transform(AffineTransform transform) {
+        state.transform(transform);
+        buffer.recordTransform(transform);
+    }
+
+    @Override
+    public void translate(int x, int y) {
+        translate((double) x, (double) y);
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        state.translate(x, y);
+        buffer.recordTranslate((float) x, (float) y);
+    }
+
+    @Override
+    public void rotate(double theta) {
+        matrix.setToRotation(theta);
+        transform(matrix);
+    }
+
+    @Override
+    public void rotate(double theta, double x, double y) {
+        matrix.setToRotation(theta, x, y);
+        transform(matrix);
+    }
+
+    @Override
+    public void scale(double scaleX, double scaleY) {
+        matrix.setToScale(scaleX, scaleY);
+        transform(matrix);
+    }
+
+    @Override
+    public void shear(double shearX, double shearY) {
+        matrix.setToShear(shearX, shearY);
+        transform(matrix);
+    }
+
+    private static Shape copy(Shape shape) {
+        if (shape instanceof RectangularShape) {
+            return (Shape) ((RectangularShape) shape).clone();
+        }
+
+        return new Path2D.Float(shape);
+    }
+}
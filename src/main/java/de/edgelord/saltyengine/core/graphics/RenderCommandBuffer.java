@@ -0,0 +1,820 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.core.graphics;
+
+import de.edgelord.saltyengine.transform.Coordinates2f;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A {@link SaltyGraphics} that doesn't draw anything but records all draw calls and state changes as compact commands,
+ * which can be replayed onto any {@link Graphics2D} later on and as often as needed using {@link #replay(Graphics2D)}.
+ * <p>
+ * The commands are stored in primitive arrays that are reused after {@link #reset()}, so recording a frame doesn't
+ * allocate anything once the arrays are big enough. Images, shapes, texts, colors etc. are stored by reference,
+ * so they must not be changed before the buffer was replayed. Images that are changed again later on, e.g. off-screen
+ * buffers that are re-rendered on the next tick, have to be drawn with {@link #drawSnapshot(BufferedImage, float, float)},
+ * which records a copy of their current content.
+ * <p>
+ * That way, a frame can be recorded on one thread (e.g. the one of the fixed ticks, which already holds the state of
+ * the scene) and replayed on another, captured for debugging, or analyzed using {@link #getCommandCount()},
+ * {@link #getStateChangeCount()} and {@link #getImageBindCount()}.
+ * <p>
+ * All transformations are recorded relative to the transformation of the target graphics at the time of the replay,
+ * including {@link #setTransform(AffineTransform)}. The getters of this class return the recorded state, so a view
+ * like the one of the camera has to be recorded into the buffer, too, for {@link #getTransform()} to return the
+ * transformation to the screen that e.g. a {@link CachedLayer} relies on.
+ * {@link #getGraphics2D()} returns a {@link Graphics2D} that records everything drawn with it into this buffer as well,
+ * see {@link RecordingGraphics2D}.
+ */
+public class RenderCommandBuffer extends SaltyGraphics {
+
+    private static final byte FILL_RECT = 0;
+    private static final byte OUTLINE_RECT = 1;
+    private static final byte FILL_OVAL = 2;
+    private static final byte OUTLINE_OVAL = 3;
+    private static final byte FILL_ROUND_RECT = 4;
+    private static final byte OUTLINE_ROUND_RECT = 5;
+    private static final byte FILL_POLYGON = 6;
+    private static final byte OUTLINE_POLYGON = 7;
+    private static final byte IMAGE = 8;
+    private static final byte CLEAR = 9;
+    private static final byte FILL_SHAPE = 10;
+    private static final byte OUTLINE_SHAPE = 11;
+    private static final byte LINE = 12;
+    private static final byte TEXT = 13;
+    private static final byte COLOR = 14;
+    private static final byte FONT = 15;
+    private static final byte STROKE = 16;
+    private static final byte PAINT = 17;
+    private static final byte COMPOSITE = 18;
+    private static final byte BACKGROUND = 19;
+    private static final byte CLIP = 20;
+    private static final byte SET_TRANSFORM = 21;
+    private static final byte TRANSFORM = 22;
+    private static final byte TRANSLATE = 23;
+    private static final byte ROTATE = 24;
+    private static final byte IMAGE_REGION = 25;
+    private static final byte IMAGE_AT = 26;
+    private static final byte IMAGE_TRANSFORMED = 27;
+    private static final byte HINTS = 28;
+    private static final byte PUSH = 29;
+    private static final byte POP = 30;
+    private static final byte SCALED_IMAGE = 31;
+    private static final byte COPY_AREA = 32;
+    private static final byte XOR_MODE = 33;
+    private static final byte PAINT_MODE = 34;
+
+    private byte[] commands = new byte[256];
+    private float[] arguments = new float[1024];
+    private Object[] references = new Object[256];
+
+    private int commandCount = 0;
+    private int argumentCount = 0;
+    private int referenceCount = 0;
+
+    private int stateChangeCount = 0;
+    private int imageBindCount = 0;
+    private Image lastImage = null;
+
+    // the last recorded state, to skip setting the same state again
+    private Paint recordedPaint = null;
+    private Font recordedFont = null;
+    private Stroke recordedStroke = null;
+    private Composite recordedComposite = null;
+
+    /**
+     * The graphics returned by {@link #getGraphics2D()}. Its state is the one of the 1x1 image graphics this
+     * buffer was created with, which all state changes are applied to so that the getters return the recorded state.
+     */
+    private final RecordingGraphics2D recorder;
+    private final RenderingHints initialHints;
+
+    /**
+     * The copies of the images drawn with {@link #drawSnapshot(BufferedImage, float, float)} since the last reset,
+     * and the ones of the frame before, which are reused for images of the same size and type.
+     */
+    private final java.util.List<BufferedImage> snapshots = new ArrayList<>();
+    private final java.util.List<BufferedImage> spareSnapshots = new ArrayList<>();
+
+    // reused while replaying
+    private final AffineTransform replayMatrix = new AffineTransform();
+    private final Deque<Graphics2D> replayStack = new ArrayDeque<>();
+    private int[] polygonX = new int[8];
+    private int[] polygonY = new int[8];
+
+    /**
+     * Creates a new, empty buffer.
+     */
+    public RenderCommandBuffer() {
+        super(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics());
+
+        recorder = new RecordingGraphics2D(this, super.getGraphics2D(), true);
+        initialHints = super.getGraphics2D().getRenderingHints();
+    }
+
+    /**
+     * Removes all recorded commands and resets the recorded state, so that a new frame can be recorded.
+     * The arrays the commands are stored in are kept.
+     */
+    public void reset() {
+        Arrays.fill(references, 0, referenceCount, null);
+
+        commandCount = 0;
+        argumentCount = 0;
+        referenceCount = 0;
+        stateChangeCount = 0;
+        imageBindCount = 0;
+        lastImage = null;
+        recordedPaint = null;
+        recordedFont = null;
+        recordedStroke = null;
+        recordedComposite = null;
+
+        spareSnapshots.clear();
+        spareSnapshots.addAll(snapshots);
+        snapshots.clear();
+
+        Graphics2D graphics2D = super.getGraphics2D();
+        graphics2D.setTransform(new AffineTransform());
+        graphics2D.setClip(null);
+        graphics2D.setComposite(AlphaComposite.SrcOver);
+        graphics2D.setStroke(new BasicStroke());
+        graphics2D.setRenderingHints(initialHints);
+    }
+
+    /**
+     * Draws all recorded commands to the given graphics, relative to its current transformation.
+     * Afterwards, the transformation, clip, color, paint, font, stroke, composite, background and rendering hints
+     * of the given graphics are restored.
+     *
+     * @param graphics the graphics to draw the recorded commands to
+     */
+    public void replay(Graphics2D graphics) {
+        AffineTransform base = graphics.getTransform();
+        Shape clip = graphics.getClip();
+        Paint paint = graphics.getPaint();
+        Font font = graphics.getFont();
+        Stroke stroke = graphics.getStroke();
+        Composite composite = graphics.getComposite();
+        Color background = graphics.getBackground();
+        RenderingHints hints = graphics.getRenderingHints();
+
+        // the graphics created with RecordingGraphics2D#create() are replayed onto graphics created from the target
+        Graphics2D target = graphics;
+
+        int argument = 0;
+        int reference = 0;
+
+        for (int i = 0; i < commandCount; i++) {
+            switch (commands[i]) {
+                case FILL_RECT:
+                    target.fillRect(round(argument), round(argument + 1), round(argument + 2), round(argument + 3));
+                    argument += 4;
+                    break;
+                case OUTLINE_RECT:
+                    target.drawRect(round(argument), round(argument + 1), round(argument + 2), round(argument + 3));
+                    argument += 4;
+                    break;
+                case FILL_OVAL:
+                    target.fillOval(round(argument), round(argument + 1), round(argument + 2), round(argument + 3));
+                    argument += 4;
+                    break;
+                case OUTLINE_OVAL:
+                    target.drawOval(round(argument), round(argument + 1), round(argument + 2), round(argument + 3));
+                    argument += 4;
+                    break;
+                case FILL_ROUND_RECT:
+                    target.fillRoundRect(round(argument), round(argument + 1), round(argument + 2), round(argument + 3), round(argument + 4), round(argument + 5));
+                    argument += 6;
+                    break;
+                case OUTLINE_ROUND_RECT:
+                    target.drawRoundRect(round(argument), round(argument + 1), round(argument + 2), round(argument + 3), round(argument + 4), round(argument + 5));
+                    argument += 6;
+                    break;
+                case FILL_POLYGON:
+                case OUTLINE_POLYGON:
+                    int points = (int) arguments[argument++];
+                    if (polygonX.length < points) {
+                        polygonX = new int[points];
+                        polygonY = new int[points];
+                    }
+                    for (int point = 0; point < points; point++) {
+                        polygonX[point] = round(argument++);
+                        polygonY[point] = round(argument++);
+                    }
+                    if (commands[i] == FILL_POLYGON) {
+                        target.fillPolygon(polygonX, polygonY, points);
+                    } else {
+                        target.drawPolygon(polygonX, polygonY, points);
+                    }
+                    break;
+                case IMAGE:
+                    target.drawImage((Image) references[reference++], round(argument), round(argument + 1), round(argument + 2), round(argument + 3), null);
+                    argument += 4;
+                    break;
+                case SCALED_IMAGE:
+                    // scaled when replaying, so that the interpolation of the target graphics is used
+                    DerivedImageCache.getDefault().drawScaled(target, (BufferedImage) references[reference++], round(argument), round(argument + 1), round(argument + 2), round(argument + 3));
+                    argument += 4;
+                    break;
+                case IMAGE_AT:
+                    target.drawImage((Image) references[reference++], round(argument), round(argument + 1), null);
+                    argument += 2;
+                    break;
+                case IMAGE_TRANSFORMED:
+                    readMatrix(argument);
+                    argument += 6;
+                    target.drawImage((Image) references[reference++], replayMatrix, null);
+                    break;
+                case IMAGE_REGION:
+                    int destinationX = round(argument);
+                    int destinationY = round(argument + 1);
+                    int sourceX = round(argument + 4);
+                    int sourceY = round(argument + 5);
+                    target.drawImage((Image) references[reference++], destinationX, destinationY, destinationX + round(argument + 2), destinationY + round(argument + 3),
+                            sourceX, sourceY, sourceX + round(argument + 6), sourceY + round(argument + 7), null);
+                    argument += 8;
+                    break;
+                case CLEAR:
+                    target.clearRect(round(argument), round(argument + 1), round(argument + 2), round(argument + 3));
+                    argument += 4;
+                    break;
+                case FILL_SHAPE:
+                    target.fill((Shape) references[reference++]);
+                    break;
+                case OUTLINE_SHAPE:
+                    target.draw((Shape) references[reference++]);
+                    break;
+                case COPY_AREA:
+                    target.copyArea(round(argument), round(argument + 1), round(argument + 2), round(argument + 3), round(argument + 4), round(argument + 5));
+                    argument += 6;
+                    break;
+                case LINE:
+                    target.drawLine(round(argument), round(argument + 1), round(argument + 2), round(argument + 3));
+                    argument += 4;
+                    break;
+                case TEXT:
+                    target.drawString((String) references[reference++], arguments[argument], arguments[argument + 1]);
+                    argument += 2;
+                    break;
+                case COLOR:
+                    target.setColor((Color) references[reference++]);
+                    break;
+                case FONT:
+                    target.setFont((Font) references[reference++]);
+                    break;
+                case STROKE:
+                    target.setStroke((Stroke) references[reference++]);
+                    break;
+                case PAINT:
+                    target.setPaint((Paint) references[reference++]);
+                    break;
+                case COMPOSITE:
+                    target.setComposite((Composite) references[reference++]);
+                    break;
+                case XOR_MODE:
+                    target.setXORMode((Color) references[reference++]);
+                    break;
+                case PAINT_MODE:
+                    target.setPaintMode();
+                    break;
+                case BACKGROUND:
+                    target.setBackground((Color) references[reference++]);
+                    break;
+                case CLIP:
+                    target.setClip((Shape) references[reference++]);
+                    break;
+                case SET_TRANSFORM:
+                    readMatrix(argument);
+                    argument += 6;
+                    target.setTransform(base);
+                    target.transform(replayMatrix);
+                    break;
+                case TRANSFORM:
+                    readMatrix(argument);
+                    argument += 6;
+                    target.transform(replayMatrix);
+                    break;
+                case TRANSLATE:
+                    target.translate(arguments[argument], arguments[argument + 1]);
+                    argument += 2;
+                    break;
+                case ROTATE:
+                    target.rotate(Math.toRadians(arguments[argument]), arguments[argument + 1], arguments[argument + 2]);
+                    argument += 3;
+                    break;
+                case HINTS:
+                    if (arguments[argument++] != 0f) {
+                        target.setRenderingHints((RenderingHints) references[reference++]);
+                    } else {
+                        target.addRenderingHints((RenderingHints) references[reference++]);
+                    }
+                    break;
+                case PUSH:
+                    replayStack.push(target);
+                    target = (Graphics2D) target.create();
+                    break;
+                case POP:
+                    target.dispose();
+                    target = replayStack.pop();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown render command " + commands[i]);
+            }
+        }
+
+        // graphics that were created but never disposed while recording
+        while (!replayStack.isEmpty()) {
+            target.dispose();
+            target = replayStack.pop();
+        }
+
+        graphics.setTransform(base);
+        graphics.setClip(clip);
+        graphics.setPaint(paint);
+        graphics.setFont(font);
+        graphics.setStroke(stroke);
+        graphics.setComposite(composite);
+        graphics.setBackground(background);
+        graphics.setRenderingHints(hints);
+    }
+
+    /**
+     * @return the number of commands recorded since the last {@link #reset()}
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Returns the number of recorded changes of the color, paint, font, stroke, composite, background, clip or
+     * transformation. Setting the color, paint, font, stroke or composite that was set last is not recorded again.
+     *
+     * @return the number of state changes recorded since the last {@link #reset()}
+     */
+    public int getStateChangeCount() {
+        return stateChangeCount;
+    }
+
+    /**
+     * @return the number of times an image was drawn that was different from the one drawn before
+     */
+    public int getImageBindCount() {
+        return imageBindCount;
+    }
+
+    /*
+    Recording
+     */
+
+    @Override
+    public void drawRect(float x, float y, float width, float height) {
+        record(FILL_RECT, x, y, width, height);
+    }
+
+    @Override
+    public void outlineRect(float x, float y, float width, float height) {
+        record(OUTLINE_RECT, x, y, width, height);
+    }
+
+    @Override
+    public void drawOval(float x, float y, float width, float height) {
+        record(FILL_OVAL, x, y, width, height);
+    }
+
+    @Override
+    public void outlineOval(float x, float y, float width, float height) {
+        record(OUTLINE_OVAL, x, y, width, height);
+    }
+
+    @Override
+    public void drawRoundRect(float x, float y, float width, float height, float arcWidth, float arcHeight) {
+        record(FILL_ROUND_RECT, x, y, width, height);
+        argument(arcWidth);
+        argument(arcHeight);
+    }
+
+    @Override
+    public void outlineRoundRect(float x, float y, float width, float height, float arcWidth, float arcHeight) {
+        record(OUTLINE_ROUND_RECT, x, y, width, height);
+        argument(arcWidth);
+        argument(arcHeight);
+    }
+
+    @Override
+    public void drawTriangle(Coordinates2f point1, Coordinates2f point2, Coordinates2f point3) {
+        recordPolygon(FILL_POLYGON, point1, point2, point3);
+    }
+
+    @Override
+    public void outlineTriangle(Coordinates2f point1, Coordinates2f point2, Coordinates2f point3) {
+        recordPolygon(OUTLINE_POLYGON, point1, point2, point3);
+    }
+
+    @Override
+    public void drawPolygon(Coordinates2f... points) {
+        recordPolygon(FILL_POLYGON, points);
+    }
+
+    @Override
+    public void outlinePolygon(Coordinates2f... points) {
+        recordPolygon(OUTLINE_POLYGON, points);
+    }
+
+    @Override
+    public void drawImage(BufferedImage image, float x, float y, float width, float height) {
+        bind(image);
+        record(SCALED_IMAGE, x, y, width, height);
+        reference(image);
+    }
+
+    @Override
+    public void drawImage(BufferedImage image, float x, float y, float width, float height, int sourceX, int sourceY, int sourceWidth, int sourceHeight) {
+        recordImageRegion(image, x, y, width, height, sourceX, sourceY, sourceWidth, sourceHeight);
+    }
+
+    /**
+     * Records a copy of the current content of the given image, so that the recorded frame isn't changed when the
+     * image is. The copies are reused by the recording after the next one, so this doesn't allocate anything once
+     * the same images are drawn every frame.
+     *
+     * @param image the image to draw
+     * @param x     the x position of the image
+     * @param y     the y position of the image
+     */
+    @Override
+    public void drawSnapshot(BufferedImage image, float x, float y) {
+        recordImage(snapshot(image), x, y, image.getWidth(), image.getHeight());
+    }
+
+    @Override
+    public void clear(float x, float y, float width, float height) {
+        record(CLEAR, x, y, width, height);
+    }
+
+    @Override
+    public void outlineShape(Shape shape) {
+        recordShape(shape, false);
+    }
+
+    @Override
+    public void drawShape(Shape shape) {
+        recordShape(shape, true);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2) {
+        record(LINE, x1, y1, x2, y2);
+    }
+
+    @Override
+    public void drawText(Object text, float x, float y) {
+        recordText(text.toString(), x, y);
+    }
+
+    @Override
+    public void setColor(Color color) {
+        recorder.setColor(color);
+    }
+
+    @Override
+    public void setFont(Font font) {
+        recorder.setFont(font);
+    }
+
+    @Override
+    public void setStroke(Stroke stroke) {
+        recorder.setStroke(stroke);
+    }
+
+    @Override
+    public void setPaint(Paint paint) {
+        recorder.setPaint(paint);
+    }
+
+    @Override
+    public void setComposite(Composite composite) {
+        recorder.setComposite(composite);
+    }
+
+    @Override
+    public void setBackground(Color color) {
+        recorder.setBackground(color);
+    }
+
+    @Override
+    public void setClip(Shape shape) {
+        recorder.setClip(shape);
+    }
+
+    @Override
+    public void setTransform(AffineTransform affineTransform) {
+        recorder.setTransform(affineTransform);
+    }
+
+    @Override
+    public void transform(AffineTransform affineTransform) {
+        recorder.transform(affineTransform);
+    }
+
+    @Override
+    public void translate(float x, float y) {
+        recorder.translate(x, y);
+    }
+
+    @Override
+    public void rotate(float degrees, float centreX, float centreY) {
+        super.rotate(degrees, centreX, centreY);
+        command(ROTATE);
+        argument(degrees);
+        argument(centreX);
+        argument(centreY);
+        stateChangeCount++;
+    }
+
+    /**
+     * Returns a {@link Graphics2D} that records everything drawn with it into this buffer. That includes
+     * {@link Graphics2D#copyArea(int, int, int, int, int, int)} and {@link Graphics2D#setXORMode(Color)}, which are
+     * applied to the graphics the buffer is replayed onto, so they work on the pixels drawn there before the replay
+     * as well as on the ones drawn by the replay itself.
+     *
+     * @return a {@link Graphics2D} that records everything drawn with it into this buffer
+     */
+    @Override
+    public Graphics2D getGraphics2D() {
+        return recorder;
+    }
+
+    /*
+    Recording, also used by RecordingGraphics2D
+     */
+
+    void recordImage(Image image, float x, float y, float width, float height) {
+        bind(image);
+        record(IMAGE, x, y, width, height);
+        reference(image);
+    }
+
+    void recordImage(Image image, float x, float y) {
+        bind(image);
+        command(IMAGE_AT);
+        argument(x);
+        argument(y);
+        reference(image);
+    }
+
+    void recordImage(Image image, AffineTransform transform) {
+        bind(image);
+        command(IMAGE_TRANSFORMED);
+        matrix(transform);
+        reference(image);
+    }
+
+    void recordImageRegion(Image image, float x, float y, float width, float height, int sourceX, int sourceY, int sourceWidth, int sourceHeight) {
+        bind(image);
+        record(IMAGE_REGION, x, y, width, height);
+        argument(sourceX);
+        argument(sourceY);
+        argument(sourceWidth);
+        argument(sourceHeight);
+        reference(image);
+    }
+
+    void recordShape(Shape shape, boolean fill) {
+        command(fill ? FILL_SHAPE : OUTLINE_SHAPE);
+        reference(shape);
+    }
+
+    void recordText(String text, float x, float y) {
+        command(TEXT);
+        reference(text);
+        argument(x);
+        argument(y);
+    }
+
+    void recordPaint(Paint paint) {
+        if (paint instanceof Color) {
+            if (!paint.equals(recordedPaint)) {
+                recordedPaint = paint;
+                recordState(COLOR, paint);
+            }
+        } else if (paint != null && paint != recordedPaint) {
+            recordedPaint = paint;
+            recordState(PAINT, paint);
+        }
+    }
+
+    void recordFont(Font font) {
+        if (font != recordedFont) {
+            recordedFont = font;
+            recordState(FONT, font);
+        }
+    }
+
+    void recordStroke(Stroke stroke) {
+        if (stroke != recordedStroke) {
+            recordedStroke = stroke;
+            recordState(STROKE, stroke);
+        }
+    }
+
+    void recordComposite(Composite composite) {
+        if (composite != recordedComposite) {
+            recordedComposite = composite;
+            recordState(COMPOSITE, composite);
+        }
+    }
+
+    void recordCopyArea(int x, int y, int width, int height, int dx, int dy) {
+        record(COPY_AREA, x, y, width, height);
+        argument(dx);
+        argument(dy);
+    }
+
+    /**
+     * Records that the XOR mode was set, which replaces the composite, so the next composite has to be recorded in
+     * any case.
+     */
+    void recordXORMode(Color color) {
+        recordedComposite = null;
+        recordState(XOR_MODE, color);
+    }
+
+    void recordPaintMode() {
+        recordedComposite = null;
+        command(PAINT_MODE);
+        stateChangeCount++;
+    }
+
+    void recordBackground(Color color) {
+        recordState(BACKGROUND, color);
+    }
+
+    void recordClip(Shape clip) {
+        recordState(CLIP, clip);
+    }
+
+    void recordSetTransform(AffineTransform transform) {
+        recordMatrix(SET_TRANSFORM, transform);
+    }
+
+    void recordTransform(AffineTransform transform) {
+        recordMatrix(TRANSFORM, transform);
+    }
+
+    void recordTranslate(float x, float y) {
+        command(TRANSLATE);
+        argument(x);
+        argument(y);
+        stateChangeCount++;
+    }
+
+    void recordHints(RenderingHints hints, boolean replace) {
+        command(HINTS);
+        argument(replace ? 1f : 0f);
+        reference(hints);
+        stateChangeCount++;
+    }
+
+    /**
+     * Records that a graphics was created from the current one, which all following commands are replayed onto
+     * until {@link #recordPop()}.
+     */
+    void recordPush() {
+        command(PUSH);
+    }
+
+    /**
+     * Records that the graphics created with the last {@link #recordPush()} was disposed. The state is restored to
+     * the one before that push when replaying, so the next state changes have to be recorded in any case.
+     */
+    void recordPop() {
+        command(POP);
+
+        recordedPaint = null;
+        recordedFont = null;
+        recordedStroke = null;
+        recordedComposite = null;
+    }
+
+    private void bind(Image image) {
+        if (image != lastImage) {
+            imageBindCount++;
+            lastImage = image;
+        }
+    }
+
+    private BufferedImage snapshot(BufferedImage image) {
+        BufferedImage snapshot = null;
+
+        for (int i = 0; i < spareSnapshots.size(); i++) {
+            BufferedImage spare = spareSnapshots.get(i);
+
+            if (spare.getWidth() == image.getWidth() && spare.getHeight() == image.getHeight()
+                    && spare.getType() == image.getType() && spare.getColorModel().equals(image.getColorModel())) {
+                snapshot = spareSnapshots.remove(i);
+                break;
+            }
+        }
+
+        if (snapshot == null) {
+            snapshot = new BufferedImage(image.getColorModel(), image.getColorModel().createCompatibleWritableRaster(image.getWidth(), image.getHeight()),
+                    image.isAlphaPremultiplied(), null);
+        }
+
+        image.copyData(snapshot.getRaster());
+        snapshots.add(snapshot);
+
+        return snapshot;
+    }
+
+    private void record(byte command, float a, float b, float c, float d) {
+        command(command);
+        argument(a);
+        argument(b);
+        argument(c);
+        argument(d);
+    }
+
+    private void recordPolygon(byte command, Coordinates2f... points) {
+        command(command);
+        argument(points.length);
+
+        for (Coordinates2f point : points) {
+            argument(point.getX());
+            argument(point.getY());
+        }
+    }
+
+    private void recordState(byte command, Object state) {
+        command(command);
+        reference(state);
+        stateChangeCount++;
+    }
+
+    private void recordMatrix(byte command, AffineTransform matrix) {
+        command(command);
+        matrix(matrix);
+        stateChangeCount++;
+    }
+
+    private void matrix(AffineTransform matrix) {
+        argument((float) matrix.getScaleX());
+        argument((float) matrix.getShearY());
+        argument((float) matrix.getShearX());
+        argument((float) matrix.getScaleY());
+        argument((float) matrix.getTranslateX());
+        argument((float) matrix.getTranslateY());
+    }
+
+    private void readMatrix(int argument) {
+        replayMatrix.setTransform(arguments[argument], arguments[argument + 1], arguments[argument + 2],
+                arguments[argument + 3], arguments[argument + 4], arguments[argument + 5]);
+    }
+
+    private void command(byte command) {
+        if (commandCount == commands.length) {
+            commands = Arrays.copyOf(commands, commandCount * 2);
+        }
+        commands[commandCount++] = command;
+    }
+
+    private void argument(float argument) {
+        if (argumentCount == arguments.length) {
+            arguments = Arrays.copyOf(arguments, argumentCount * 2);
+        }
+        arguments[argumentCount++] = argument;
+    }
+
+    private void reference(Object reference) {
+        if (referenceCount == references.length) {
+            references = Arrays.copyOf(references, referenceCount * 2);
+        }
+        references[referenceCount++] = reference;
+    }
+
+    private int round(int argument) {
+        return Math.round(arguments[argument]);
+    }
+}
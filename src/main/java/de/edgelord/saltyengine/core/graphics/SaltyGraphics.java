@@ -293,7 +293,7 @@ public class SaltyGraphics {
         }
 
         for (int i = 0; i < yPoints.length; i++) {
-            xPoints[i] = Math.round(points[i].getY());
+            yPoints[i] = Math.round(points[i].getY());
         }
 
         if (outline) {
@@ -318,7 +318,51 @@ public class SaltyGraphics {
      * @see Graphics2D#drawImage(Image, int, int, int, int, ImageObserver)
      */
     public void drawImage(BufferedImage image, float x, float y, float width, float height) {
-        graphics2D.drawImage(image, Math.round(x), Math.round(y), Math.round(width), Math.round(height), null);
+        DerivedImageCache.getDefault().drawScaled(graphics2D, image, Math.round(x), Math.round(y), Math.round(width), Math.round(height));
+    }
+
+    /**
+     * Draws an image scaled to the given size, rotated around the centre of the given bounds and tinted with the given
+     * color, e.g. for a hit flash. The transformed image is taken from the {@link DerivedImageCache#getDefault()},
+     * so drawing it with the same parameters again only blits it.
+     *
+     * @param image           the image to draw
+     * @param x               the x position of the image
+     * @param y               the y position of the image
+     * @param width           the width with which the image should be drawn
+     * @param height          the height with which the image should be drawn
+     * @param rotationDegrees the rotation of the image around its centre in degrees
+     * @param tint            the color to tint the image with, its alpha is the strength of the tint, or <code>null</code>
+     * @see DerivedImageCache#getDerived(BufferedImage, int, int, float, Color, Object)
+     */
+    public void drawImage(BufferedImage image, float x, float y, float width, float height, float rotationDegrees, Color tint) {
+        BufferedImage derived = DerivedImageCache.getDefault().getDerived(image, Math.round(width), Math.round(height), rotationDegrees, tint,
+                getGraphics2D().getRenderingHint(RenderingHints.KEY_INTERPOLATION));
+
+        drawImage(derived, x + (width - derived.getWidth()) / 2f, y + (height - derived.getHeight()) / 2f, derived.getWidth(), derived.getHeight());
+    }
+
+    /**
+     * Draws the given region of an image, e.g. a sprite within a {@link de.edgelord.saltyengine.effect.TextureAtlas},
+     * scaled to the given bounds. It automatically rounds the given floats to ints.
+     *
+     * @param image        the image to draw a region of
+     * @param x            the x position to draw the region at
+     * @param y            the y position to draw the region at
+     * @param width        the width with which the region should be drawn
+     * @param height       the height with which the region should be drawn
+     * @param sourceX      the x position of the region within the image
+     * @param sourceY      the y position of the region within the image
+     * @param sourceWidth  the width of the region
+     * @param sourceHeight the height of the region
+     * @see Graphics2D#drawImage(Image, int, int, int, int, int, int, int, int, ImageObserver)
+     */
+    public void drawImage(BufferedImage image, float x, float y, float width, float height, int sourceX, int sourceY, int sourceWidth, int sourceHeight) {
+        int destinationX = Math.round(x);
+        int destinationY = Math.round(y);
+
+        graphics2D.drawImage(image, destinationX, destinationY, destinationX + Math.round(width), destinationY + Math.round(height),
+                sourceX, sourceY, sourceX + sourceWidth, sourceY + sourceHeight, null);
     }
 
     /**
@@ -344,6 +388,20 @@ public class SaltyGraphics {
         drawImage(image, x, y, Math.round(image.getWidth()), Math.round(image.getHeight()));
     }
 
+    /**
+     * Draws an image that is changed again later on, e.g. an off-screen buffer that is re-rendered on every tick,
+     * with its original width and height. This draws the image right away just like
+     * {@link #drawImage(BufferedImage, float, float)}, but a {@link RenderCommandBuffer}, which only draws the image
+     * when it is replayed, records a copy of the current content of the image instead.
+     *
+     * @param image the image to draw
+     * @param x     the x position of the image
+     * @param y     the y position of the image
+     */
+    public void drawSnapshot(BufferedImage image, float x, float y) {
+        drawImage(image, x, y);
+    }
+
     /**
      * Draws an image by calling the base method
      *
@@ -940,10 +998,53 @@ public class SaltyGraphics {
         graphics2D.setTransform(affineTransform);
     }
 
+    /**
+     * Concatenates the given transformation to the current one of the graphics.
+     *
+     * @param affineTransform the transformation to concatenate
+     * @see Graphics2D#transform(AffineTransform)
+     */
+    public void transform(AffineTransform affineTransform) {
+        graphics2D.transform(affineTransform);
+    }
+
+    /**
+     * Translates the origin of the graphics by the given distances.
+     *
+     * @param x the distance to translate on the x axis
+     * @param y the distance to translate on the y axis
+     * @see Graphics2D#translate(double, double)
+     */
+    public void translate(float x, float y) {
+        graphics2D.translate(x, y);
+    }
+
+    /**
+     * Rotates the graphics around the given point by the given amount of degrees.
+     *
+     * @param degrees the degrees to rotate
+     * @param centreX the x position of the centre of the rotation
+     * @param centreY the y position of the centre of the rotation
+     * @see Graphics2D#rotate(double, double, double)
+     */
+    public void rotate(float degrees, float centreX, float centreY) {
+        graphics2D.rotate(Math.toRadians(degrees), centreX, centreY);
+    }
+
     /*
     Bindings for getting the configuration of the drawing context
      */
 
+    /**
+     * Returns a copy of the current transformation of the graphics.
+     *
+     * @return the current transformation of the graphics
+     * @see Graphics2D#getTransform()
+     */
+    public AffineTransform getTransform() {
+        return graphics2D.getTransform();
+    }
+
     /**
      * Returns the current color of the Graphics.
      * With this Color, all of the primitives (e.g. Rectangles, Ovals) are filled and outlined
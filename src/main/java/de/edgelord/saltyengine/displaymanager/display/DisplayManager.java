@@ -61,7 +61,7 @@ public class DisplayManager extends Host {
     @Override
     public void repaint() {
 
-        stage.repaint();
+        stage.renderFrame();
         //setDimensions(display.getDisplayRatio().getCurrentDimensions());
     }
 
@@ -144,6 +144,16 @@ public class DisplayManager extends Host {
         return stage;
     }
 
+    /**
+     * Enables or disables active rendering, see {@link Stage#setActiveRendering(boolean)}.
+     * When enabled, every frame is rendered and presented directly by the render loop of the {@link Engine}.
+     *
+     * @param activeRendering whether to render actively
+     */
+    public void setActiveRendering(boolean activeRendering) {
+        stage.setActiveRendering(activeRendering);
+    }
+
     public void setResizeable(boolean resizeable) {
         display.setResizable(resizeable);
     }
@@ -30,12 +30,23 @@ import de.edgelord.saltyengine.utils.Time;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 import static java.awt.RenderingHints.*;
 
+/**
+ * The panel the game is rendered to. Every frame is rendered in the resolution of the game into {@link #backBuffer},
+ * a {@link VolatileImage} that is reused from frame to frame, and then scaled onto this panel.
+ * <p>
+ * By default, frames are painted passively by the EDT after a call to {@link #repaint()}. With {@link #activeRendering},
+ * {@link #renderFrame()} renders and presents a frame directly on the calling thread, which is the render loop of the
+ * {@link Engine}, so that no frame has to go through the event queue. The EDT might still paint this panel, e.g. when the
+ * window is resized or uncovered; it then only presents the last finished frame again instead of rendering a new one.
+ * Rendering into and presenting {@link #backBuffer} always happens while holding {@link #backBufferLock}.
+ */
 @DefaultPlacement(method = DefaultPlacement.Method.TOP_LEFT_CORNER)
 public class Stage extends JPanel {
 
@@ -59,6 +70,18 @@ public class Stage extends JPanel {
     private boolean highQuality = true;
     private RenderingHints renderingHints;
 
+    /**
+     * The image every frame is rendered to in the resolution of the game. It is only recreated when its contents
+     * were lost or it isn't compatible with the current graphics configuration anymore.
+     */
+    private VolatileImage backBuffer = null;
+    private final Object backBufferLock = new Object();
+
+    /**
+     * Whether {@link #renderFrame()} renders on the calling thread instead of calling {@link #repaint()}.
+     */
+    private volatile boolean activeRendering = false;
+
     public Stage(final Container container, final Engine engine) {
         this(container, engine, 0, 0, container.getWidth(), container.getHeight());
     }
@@ -111,11 +134,48 @@ public class Stage extends JPanel {
         renderingHints.put(key, value);
     }
 
+    /**
+     * Renders a new frame. If {@link #activeRendering} is enabled, the frame is rendered and presented on the calling
+     * thread, otherwise this panel is {@link #repaint()}ed by the EDT.
+     */
+    public void renderFrame() {
+        if (activeRendering && isShowing()) {
+            Graphics graphics = getGraphics();
+
+            if (graphics != null) {
+                try {
+                    synchronized (backBufferLock) {
+                        paintFrame((Graphics2D) graphics, true, true);
+                    }
+                } finally {
+                    graphics.dispose();
+                }
+                Toolkit.getDefaultToolkit().sync();
+            }
+        } else {
+            repaint();
+        }
+    }
+
+    @Override
     protected void paintComponent(Graphics graphics) {
-        ticks++;
-        final Graphics2D graphics2D = (Graphics2D) graphics;
+        synchronized (backBufferLock) {
+            // while rendering actively, the render loop is the only one rendering new frames
+            paintFrame((Graphics2D) graphics, !activeRendering, activeRendering);
+        }
+    }
 
-        BufferedImage renderedImage = renderToImage();
+    /**
+     * Paints a frame onto this panel. Has to be called while holding {@link #backBufferLock}.
+     *
+     * @param graphics2D   the graphics of this panel
+     * @param render       whether to render a new frame into {@link #backBuffer} or to only present the last one
+     * @param clearBorders whether to clear the area around the frame
+     */
+    private void paintFrame(Graphics2D graphics2D, boolean render, boolean clearBorders) {
+        if (render) {
+            ticks++;
+        }
 
         float width = Game.getHost().getCurrentWidth();
         float height = Game.getHost().getCurrentHeight();
@@ -125,9 +185,67 @@ public class Stage extends JPanel {
         int xPos = getWidth() / 2 - imageDisplayWidth / 2;
         int yPos = Math.max(getHeight() / 2 - imageDisplayHeight / 2, 0);
 
-        currentImgPos = new Coordinates2f(xPos, yPos);
+        if (currentImgPos.getX() != xPos || currentImgPos.getY() != yPos) {
+            currentImgPos = new Coordinates2f(xPos, yPos);
+        }
+
+        if (clearBorders) {
+            graphics2D.setColor(getBackground());
+            graphics2D.fillRect(0, 0, getWidth(), yPos);
+            graphics2D.fillRect(0, yPos + imageDisplayHeight, getWidth(), getHeight() - yPos - imageDisplayHeight);
+            graphics2D.fillRect(0, yPos, xPos, imageDisplayHeight);
+            graphics2D.fillRect(xPos + imageDisplayWidth, yPos, getWidth() - xPos - imageDisplayWidth, imageDisplayHeight);
+        }
+
+        if (!render) {
+            // a lost frame is not rendered again here, the next call to renderFrame() presents a new one
+            if (backBuffer != null && !backBuffer.contentsLost()) {
+                graphics2D.drawImage(backBuffer, xPos, yPos, imageDisplayWidth, imageDisplayHeight, null);
+            }
+            return;
+        }
+
+        do {
+            renderToBackBuffer();
+            graphics2D.drawImage(backBuffer, xPos, yPos, imageDisplayWidth, imageDisplayHeight, null);
+        } while (backBuffer.contentsLost());
+    }
+
+    /**
+     * Renders the game into {@link #backBuffer}, (re)creating it if necessary.
+     * The contents of a {@link VolatileImage} can be lost at any time, so the caller has to check
+     * {@link VolatileImage#contentsLost()} after using it and render again if that happened.
+     */
+    private void renderToBackBuffer() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+
+        do {
+            if (backBuffer == null || backBuffer.getWidth() != originWidth || backBuffer.getHeight() != originHeight) {
+                backBuffer = createBackBuffer(configuration);
+            }
+
+            int validation = configuration == null ? VolatileImage.IMAGE_OK : backBuffer.validate(configuration);
 
-        graphics2D.drawImage(renderedImage, xPos, yPos, imageDisplayWidth, imageDisplayHeight, null);
+            if (validation == VolatileImage.IMAGE_INCOMPATIBLE) {
+                backBuffer.flush();
+                backBuffer = createBackBuffer(configuration);
+            }
+
+            Graphics2D graphics2D = backBuffer.createGraphics();
+            graphics2D.setBackground(getBackground());
+            graphics2D.clearRect(0, 0, originWidth, originHeight);
+            renderToGraphics(graphics2D);
+            graphics2D.dispose();
+
+        } while (backBuffer.contentsLost());
+    }
+
+    private VolatileImage createBackBuffer(GraphicsConfiguration configuration) {
+        if (configuration == null) {
+            configuration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        }
+
+        return configuration.createCompatibleVolatileImage(originWidth, originHeight, Transparency.OPAQUE);
     }
 
     private void renderToGraphics(Graphics2D graphics2D) {
@@ -135,8 +253,6 @@ public class Stage extends JPanel {
 
         graphics2D.setRenderingHints(renderingHints);
 
-        Game.getCamera().setViewToGraphics(graphics2D);
-
         SaltyGraphics saltyGraphics = new SaltyGraphics(graphics2D);
 
         engine.render(saltyGraphics);
@@ -154,6 +270,12 @@ public class Stage extends JPanel {
         }
     }
 
+    /**
+     * Renders the current frame into a new {@link BufferedImage}. This allocates a whole new image,
+     * so it is meant for e.g. screenshots and not for rendering every frame.
+     *
+     * @return a new image with the current frame
+     */
     public BufferedImage renderToImage() {
         BufferedImage image = new BufferedImage(originWidth, originHeight, BufferedImage.TYPE_INT_ARGB);
 
@@ -191,6 +313,20 @@ public class Stage extends JPanel {
         this.nativeMouseWheelListener.setMouseHandler(mouseHandler);
     }
 
+    public boolean isActiveRendering() {
+        return activeRendering;
+    }
+
+    /**
+     * Sets whether {@link #renderFrame()} should render and present frames directly on the calling thread
+     * instead of requesting a repaint from the EDT.
+     *
+     * @param activeRendering whether to render actively
+     */
+    public void setActiveRendering(boolean activeRendering) {
+        this.activeRendering = activeRendering;
+    }
+
     public boolean isHighQuality() {
         return highQuality;
     }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable sequence of {@link Frame}s backed by an array. A clip doesn't know which frame is currently shown,
+ * so the same clip can be shared between all {@link SpritesheetAnimation}s that play it, each with its own cursor.
+ *
+ * @see Spritesheet#getClip(de.edgelord.saltyengine.transform.Coordinates...)
+ */
+public class AnimationClip {
+
+    public static final AnimationClip EMPTY = new AnimationClip();
+
+    private final Frame[] frames;
+    private final List<Frame> frameList;
+
+    public AnimationClip(Frame... frames) {
+        this.frames = frames.clone();
+        this.frameList = Collections.unmodifiableList(Arrays.asList(this.frames));
+    }
+
+    public AnimationClip(List<Frame> frames) {
+        this(frames.toArray(new Frame[0]));
+    }
+
+    /**
+     * Returns a new clip with the frames of this one followed by the given frame.
+     *
+     * @param frame the frame to append
+     * @return a new clip
+     */
+    public AnimationClip withFrame(Frame frame) {
+        Frame[] newFrames = Arrays.copyOf(frames, frames.length + 1);
+        newFrames[frames.length] = frame;
+
+        return new AnimationClip(newFrames);
+    }
+
+    public Frame getFrame(int index) {
+        return frames[index];
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    /**
+     * @return an unmodifiable view of the frames of this clip
+     */
+    public List<Frame> getFrames() {
+        return frameList;
+    }
+}
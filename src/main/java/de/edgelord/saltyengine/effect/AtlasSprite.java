@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect;
+
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+import de.edgelord.saltyengine.transform.Coordinates2f;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A handle to a sprite within a page of a {@link TextureAtlas}.
+ * Drawing it blits its region of the page, so drawing many sprites of the same atlas uses only a few images.
+ */
+public class AtlasSprite implements Cosmetic {
+
+    private final BufferedImage page;
+    private final int x, y, width, height;
+
+    private BufferedImage image = null;
+
+    AtlasSprite(BufferedImage page, int x, int y, int width, int height) {
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Draws this sprite scaled to the given bounds.
+     *
+     * @param saltyGraphics the graphics to draw to
+     * @param x             the x position of the sprite
+     * @param y             the y position of the sprite
+     * @param width         the width to draw the sprite with
+     * @param height        the height to draw the sprite with
+     */
+    public void draw(SaltyGraphics saltyGraphics, float x, float y, float width, float height) {
+        saltyGraphics.drawImage(page, x, y, width, height, this.x, this.y, this.width, this.height);
+    }
+
+    @Override
+    public void draw(SaltyGraphics saltyGraphics, Coordinates2f position, float width, float height) {
+        draw(saltyGraphics, position.getX(), position.getY(), width, height);
+    }
+
+    /**
+     * Returns this sprite as an image of its own, which shares the data of the page.
+     * It is only created once, but drawing it isn't batched with the other sprites of the atlas.
+     *
+     * @return this sprite as a {@link BufferedImage}
+     */
+    public BufferedImage toImage() {
+        if (image == null) {
+            image = page.getSubimage(x, y, width, height);
+        }
+
+        return image;
+    }
+
+    /**
+     * @return the page of the {@link TextureAtlas} this sprite is in
+     */
+    public BufferedImage getPage() {
+        return page;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect;
+
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+import de.edgelord.saltyengine.effect.light.LightOccluder;
+import de.edgelord.saltyengine.gameobject.DrawingRoutine;
+import de.edgelord.saltyengine.transform.Coordinates;
+import de.edgelord.saltyengine.transform.Coordinates2f;
+import de.edgelord.saltyengine.transform.Dimensions;
+
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A grid of tiles that can be changed at any time, e.g. for destructible terrain.
+ * <p>
+ * The tiles are stored as ids in a <code>short</code> array, each id referring to an image that was registered
+ * using {@link #registerTile(BufferedImage)}. The id {@link #EMPTY} means that there is no tile. An example usage:
+ *
+ * <pre>
+ *     {@code
+ *
+ *     DynamicTileGrid grid = new DynamicTileGrid(new Coordinates2f(0, 0), new Dimensions(32, 32), 500, 500);
+ *     short grass = grid.registerTile(grassImage);
+ *     short dirt = grid.registerTile(dirtImage);
+ *
+ *     grid.fillArea(0, 0, 500, 1, grass);
+ *     grid.fillArea(0, 1, 500, 499, dirt);
+ *
+ *     scene.addDrawingRoutine(grid);
+ *
+ *     // later, e.g. after an explosion
+ *     grid.setTile(42, 7, DynamicTileGrid.EMPTY);
+ *     }
+ * </pre>
+ * <p>
+ * Like {@link StaticTileGrid}, the grid is baked into chunks of {@link #getChunkSize()} x {@link #getChunkSize()} tiles
+ * and only the visible ones are drawn. Changing a tile only marks the chunk that contains it as outdated, and at most
+ * {@link #getRebakeBudget()} outdated chunks are re-baked per frame, so changing many tiles at once doesn't stall the game.
+ * Chunks that are not re-baked yet are drawn as they were before the change.
+ * <p>
+ * All tiles that are not empty block the light of a {@link de.edgelord.saltyengine.effect.light.ShadowLight}
+ * that this grid is added to as an occluder.
+ */
+public class DynamicTileGrid extends DrawingRoutine implements LightOccluder {
+
+    /**
+     * The id of an empty tile.
+     */
+    public static final short EMPTY = 0;
+
+    /**
+     * The default number of outdated chunks that are re-baked per frame.
+     */
+    public static final int DEFAULT_REBAKE_BUDGET = 4;
+
+    private final int columns;
+    private final int rows;
+    private final short[] tiles;
+
+    private BufferedImage[] tileImages = new BufferedImage[8];
+    private short tileImageCount = 1;
+
+    /**
+     * The number of tiles that are not {@link #EMPTY} within each chunk.
+     */
+    private final int[] chunkTileCounts;
+    private final int chunkColumns;
+    private final int chunkSize;
+
+    private final TileChunkCache chunkCache;
+
+    private Dimensions tileSize;
+    private Coordinates2f position;
+
+    public DynamicTileGrid(DrawingPosition drawingPosition, Coordinates2f position, Dimensions tileSize, int columns, int rows, int chunkSize) {
+        super(drawingPosition);
+
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("A DynamicTileGrid needs at least one column and one row but was " + columns + "x" + rows);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The size of a chunk has to be at least one tile but was " + chunkSize);
+        }
+
+        this.position = position;
+        this.tileSize = tileSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.chunkSize = chunkSize;
+        this.tiles = new short[columns * rows];
+
+        chunkColumns = (columns + chunkSize - 1) / chunkSize;
+        chunkTileCounts = new int[chunkColumns * ((rows + chunkSize - 1) / chunkSize)];
+
+        chunkCache = new TileChunkCache(columns, rows, tileSize.getWidth(), tileSize.getHeight(), chunkSize) {
+            @Override
+            boolean isChunkEmpty(int chunkX, int chunkY) {
+                return chunkTileCounts[chunkY * chunkColumns + chunkX] == 0;
+            }
+
+            @Override
+            void renderChunk(int chunkX, int chunkY, SaltyGraphics graphics) {
+                renderTiles(chunkX, chunkY, graphics);
+            }
+        };
+        chunkCache.setRebakeBudget(DEFAULT_REBAKE_BUDGET);
+    }
+
+    public DynamicTileGrid(DrawingPosition drawingPosition, Coordinates2f position, Dimensions tileSize, int columns, int rows) {
+        this(drawingPosition, position, tileSize, columns, rows, TileChunkCache.DEFAULT_CHUNK_SIZE);
+    }
+
+    public DynamicTileGrid(Coordinates2f position, Dimensions tileSize, int columns, int rows) {
+        this(DrawingPosition.BEFORE_GAMEOBJECTS, position, tileSize, columns, rows);
+    }
+
+    @Override
+    public void draw(SaltyGraphics saltyGraphics) {
+        chunkCache.draw(saltyGraphics, position.getX(), position.getY());
+    }
+
+    /**
+     * Adds one rectangle for every horizontal run of tiles that are not empty within the given area.
+     *
+     * @param area      the area that is lit by the light
+     * @param occluders the list to add the rectangles to
+     */
+    @Override
+    public void collectOccluders(Rectangle2D.Float area, List<Rectangle2D.Float> occluders) {
+        float tileWidth = tileSize.getWidth();
+        float tileHeight = tileSize.getHeight();
+        int minX = Math.max(0, (int) Math.floor((area.x - position.getX()) / tileWidth));
+        int minY = Math.max(0, (int) Math.floor((area.y - position.getY()) / tileHeight));
+        int maxX = Math.min(columns - 1, (int) Math.floor((area.x + area.width - position.getX()) / tileWidth));
+        int maxY = Math.min(rows - 1, (int) Math.floor((area.y + area.height - position.getY()) / tileHeight));
+
+        for (int y = minY; y <= maxY; y++) {
+            int runStart = -1;
+
+            for (int x = minX; x <= maxX + 1; x++) {
+                boolean solid = x <= maxX && tiles[y * columns + x] != EMPTY;
+
+                if (solid && runStart == -1) {
+                    runStart = x;
+                } else if (!solid && runStart != -1) {
+                    occluders.add(new Rectangle2D.Float(position.getX() + runStart * tileWidth, position.getY() + y * tileHeight,
+                            (x - runStart) * tileWidth, tileHeight));
+                    runStart = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers the given image as a tile and returns its id, which can then be used with {@link #setTile(int, int, short)}.
+     *
+     * @param image the image of the tile
+     * @return the id of the tile
+     */
+    public short registerTile(BufferedImage image) {
+        if (tileImageCount == Short.MAX_VALUE) {
+            throw new IllegalStateException("A DynamicTileGrid can't have more than " + (Short.MAX_VALUE - 1) + " different tiles");
+        }
+
+        if (tileImageCount == tileImages.length) {
+            tileImages = Arrays.copyOf(tileImages, Math.min(tileImages.length * 2, Short.MAX_VALUE));
+        }
+
+        tileImages[tileImageCount] = image;
+
+        return tileImageCount++;
+    }
+
+    /**
+     * Replaces the image of the tile with the given id and marks all chunks that contain the tile as outdated.
+     *
+     * @param id    the id of the tile
+     * @param image the new image of the tile
+     */
+    public void setTileImage(short id, BufferedImage image) {
+        checkId(id);
+
+        tileImages[id] = image;
+
+        int chunkRows = chunkTileCounts.length / chunkColumns;
+        for (int chunkY = 0; chunkY < chunkRows; chunkY++) {
+            for (int chunkX = 0; chunkX < chunkColumns; chunkX++) {
+                if (containsTile(chunkX, chunkY, id)) {
+                    chunkCache.invalidateChunk(chunkX, chunkY);
+                }
+            }
+        }
+    }
+
+    public BufferedImage getTileImage(short id) {
+        checkId(id);
+
+        return tileImages[id];
+    }
+
+    /**
+     * Sets the tile at the given coordinates and marks the chunk that contains it as outdated.
+     *
+     * @param x  the x coordinate of the tile
+     * @param y  the y coordinate of the tile
+     * @param id the id of the tile, or {@link #EMPTY}
+     */
+    public void setTile(int x, int y, short id) {
+        checkCoordinates(x, y);
+        if (id != EMPTY) {
+            checkId(id);
+        }
+
+        if (setTileUnchecked(x, y, id)) {
+            chunkCache.invalidateChunk(x / chunkSize, y / chunkSize);
+        }
+    }
+
+    public void setTile(Coordinates tile, short id) {
+        setTile(tile.getX(), tile.getY(), id);
+    }
+
+    /**
+     * Sets all tiles within the given rectangle and marks every chunk that intersects it as outdated.
+     * The rectangle is clipped to the grid.
+     *
+     * @param x      the x coordinate of the upper left tile
+     * @param y      the y coordinate of the upper left tile
+     * @param width  the width of the rectangle in tiles
+     * @param height the height of the rectangle in tiles
+     * @param id     the id of the tiles, or {@link #EMPTY}
+     */
+    public void fillArea(int x, int y, int width, int height, short id) {
+        if (id != EMPTY) {
+            checkId(id);
+        }
+
+        int minX = Math.max(0, x);
+        int minY = Math.max(0, y);
+        int maxX = Math.min(columns, x + width);
+        int maxY = Math.min(rows, y + height);
+
+        if (minX >= maxX || minY >= maxY) {
+            return;
+        }
+
+        for (int tileY = minY; tileY < maxY; tileY++) {
+            for (int tileX = minX; tileX < maxX; tileX++) {
+                setTileUnchecked(tileX, tileY, id);
+            }
+        }
+
+        for (int chunkY = minY / chunkSize; chunkY <= (maxY - 1) / chunkSize; chunkY++) {
+            for (int chunkX = minX / chunkSize; chunkX <= (maxX - 1) / chunkSize; chunkX++) {
+                chunkCache.invalidateChunk(chunkX, chunkY);
+            }
+        }
+    }
+
+    /**
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @return the id of the tile at the given coordinates, or {@link #EMPTY}
+     */
+    public short getTile(int x, int y) {
+        checkCoordinates(x, y);
+
+        return tiles[y * columns + x];
+    }
+
+    public short getTile(Coordinates tile) {
+        return getTile(tile.getX(), tile.getY());
+    }
+
+    /**
+     * Returns the coordinates of the tile at the given position in user-space. The coordinates might be outside of the grid.
+     *
+     * @param x the x position in user-space
+     * @param y the y position in user-space
+     * @return the coordinates of the tile at the given position
+     */
+    public Coordinates getTileCoordinates(float x, float y) {
+        return new Coordinates((int) Math.floor((x - position.getX()) / tileSize.getWidth()), (int) Math.floor((y - position.getY()) / tileSize.getHeight()));
+    }
+
+    public Coordinates2f getTilePosition(Coordinates tile, boolean absolute) {
+
+        if (absolute) {
+            return new Coordinates2f(position.getX() + (tile.getX() * tileSize.getWidth()), position.getY() + (tile.getY() * tileSize.getHeight()));
+        } else {
+            return new Coordinates2f(tile.getX() * tileSize.getWidth(), tile.getY() * tileSize.getHeight());
+        }
+    }
+
+    private boolean setTileUnchecked(int x, int y, short id) {
+        int index = y * columns + x;
+        short previous = tiles[index];
+
+        if (previous == id) {
+            return false;
+        }
+
+        tiles[index] = id;
+
+        int chunk = (y / chunkSize) * chunkColumns + x / chunkSize;
+        if (previous == EMPTY) {
+            chunkTileCounts[chunk]++;
+        } else if (id == EMPTY) {
+            chunkTileCounts[chunk]--;
+        }
+
+        return true;
+    }
+
+    private boolean containsTile(int chunkX, int chunkY, short id) {
+        if (chunkTileCounts[chunkY * chunkColumns + chunkX] == 0) {
+            return false;
+        }
+
+        int minX = chunkX * chunkSize;
+        int minY = chunkY * chunkSize;
+        int maxX = Math.min(columns, minX + chunkSize);
+        int maxY = Math.min(rows, minY + chunkSize);
+
+        for (int y = minY; y < maxY; y++) {
+            for (int x = minX; x < maxX; x++) {
+                if (tiles[y * columns + x] == id) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void renderTiles(int chunkX, int chunkY, SaltyGraphics graphics) {
+        int minX = chunkX * chunkSize;
+        int minY = chunkY * chunkSize;
+        int maxX = Math.min(columns, minX + chunkSize);
+        int maxY = Math.min(rows, minY + chunkSize);
+
+        for (int y = minY; y < maxY; y++) {
+            for (int x = minX; x < maxX; x++) {
+                short id = tiles[y * columns + x];
+
+                if (id != EMPTY) {
+                    graphics.drawImage(tileImages[id], (x - minX) * tileSize.getWidth(), (y - minY) * tileSize.getHeight(), tileSize.getWidth(), tileSize.getHeight());
+                }
+            }
+        }
+    }
+
+    private void checkCoordinates(int x, int y) {
+        if (x < 0 || y < 0 || x >= columns || y >= rows) {
+            throw new IndexOutOfBoundsException("The tile " + x + "|" + y + " is outside of the grid of " + columns + "x" + rows + " tiles");
+        }
+    }
+
+    private void checkId(short id) {
+        if (id <= EMPTY || id >= tileImageCount) {
+            throw new IllegalArgumentException("There is no tile with the id " + id);
+        }
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public Dimensions getTileSize() {
+        return tileSize;
+    }
+
+    public Coordinates2f getPosition() {
+        return position;
+    }
+
+    public void setPosition(Coordinates2f position) {
+        this.position = position;
+    }
+
+    /**
+     * @return the width and height of the chunks the grid is baked into, in tiles
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the maximum number of outdated chunks that are re-baked per frame
+     */
+    public int getRebakeBudget() {
+        return chunkCache.getRebakeBudget();
+    }
+
+    /**
+     * Sets the maximum number of outdated chunks that are re-baked per frame. Visible chunks that were never baked are
+     * always baked, as there is nothing else to draw.
+     *
+     * @param rebakeBudget the maximum number of chunks to re-bake per frame
+     */
+    public void setRebakeBudget(int rebakeBudget) {
+        chunkCache.setRebakeBudget(rebakeBudget);
+    }
+
+    /**
+     * @return the maximum number of chunk images that are kept
+     */
+    public int getMaxCachedChunks() {
+        return chunkCache.getMaxCachedChunks();
+    }
+
+    /**
+     * Sets the maximum number of chunk images that are kept. The least recently drawn ones are dropped first, but never
+     * the ones that are visible.
+     *
+     * @param maxCachedChunks the maximum number of chunk images
+     */
+    public void setMaxCachedChunks(int maxCachedChunks) {
+        chunkCache.setMaxCachedChunks(maxCachedChunks);
+    }
+
+    /**
+     * @return the number of chunk images that are currently kept
+     */
+    public int getCachedChunkCount() {
+        return chunkCache.getCachedChunkCount();
+    }
+
+    /**
+     * @return the number of chunks that were drawn in the last frame
+     */
+    public int getDrawnChunkCount() {
+        return chunkCache.getDrawnChunkCount();
+    }
+
+    /**
+     * @return the number of chunks that were baked since the grid was created
+     */
+    public long getBakeCount() {
+        return chunkCache.getBakeCount();
+    }
+}
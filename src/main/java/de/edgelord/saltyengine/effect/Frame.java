@@ -26,21 +26,55 @@ public class Frame implements Cosmetic {
     private BufferedImage image;
     //private AdvancedCosmetics advancedCosmetics = null;
 
+    /**
+     * The sprite within a {@link TextureAtlas} this frame is drawn from instead of {@link #image}, if there is one.
+     */
+    private AtlasSprite sprite = null;
+
     public Frame(BufferedImage image) {
 
         this.image = image;
     }
 
+    public Frame(AtlasSprite sprite) {
+
+        this.sprite = sprite;
+    }
+
     @Override
     public void draw(SaltyGraphics saltyGraphics, Coordinates2f position, float width, float height) {
-        saltyGraphics.drawImage(image, position.getX(), position.getY(), width, height);
+        if (sprite != null) {
+            sprite.draw(saltyGraphics, position.getX(), position.getY(), width, height);
+        } else {
+            saltyGraphics.drawImage(image, position.getX(), position.getY(), width, height);
+        }
     }
 
     public BufferedImage getImage() {
+        if (image == null && sprite != null) {
+            image = sprite.toImage();
+        }
+
         return image;
     }
 
     public void setImage(BufferedImage image) {
         this.image = image;
+        this.sprite = null;
+    }
+
+    public AtlasSprite getSprite() {
+        return sprite;
+    }
+
+    /**
+     * Makes this frame draw the given sprite of a {@link TextureAtlas}. The image of this frame is dropped,
+     * so that {@link #getImage()} returns the content of the new sprite.
+     *
+     * @param sprite the sprite to draw this frame from
+     */
+    public void setSprite(AtlasSprite sprite) {
+        this.sprite = sprite;
+        this.image = null;
     }
 }
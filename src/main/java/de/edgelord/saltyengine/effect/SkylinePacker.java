@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs rectangles into a fixed area using the skyline bottom-left heuristic:
+ * the top edge of everything placed so far is kept as a list of horizontal segments, and every rectangle
+ * is placed on the segment where its top edge ends up lowest.
+ */
+class SkylinePacker {
+
+    private final int width, height;
+
+    // the segments of the skyline from left to right, each as {x, y, width}
+    private final List<int[]> skyline = new ArrayList<>();
+
+    private int usedHeight = 0;
+
+    SkylinePacker(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        skyline.add(new int[]{0, 0, width});
+    }
+
+    /**
+     * Finds a place for a rectangle with the given size and marks it as used.
+     *
+     * @param rectWidth  the width of the rectangle
+     * @param rectHeight the height of the rectangle
+     * @return the position of the rectangle as {x, y} or <code>null</code> if it doesn't fit anymore
+     */
+    int[] insert(int rectWidth, int rectHeight) {
+        int bestIndex = -1;
+        int bestX = 0;
+        int bestY = 0;
+        int bestTop = Integer.MAX_VALUE;
+        int bestSegmentWidth = Integer.MAX_VALUE;
+
+        for (int i = 0; i < skyline.size(); i++) {
+            int y = fit(i, rectWidth, rectHeight);
+
+            if (y < 0) {
+                continue;
+            }
+
+            int top = y + rectHeight;
+            int segmentWidth = skyline.get(i)[2];
+
+            if (top < bestTop || (top == bestTop && segmentWidth < bestSegmentWidth)) {
+                bestIndex = i;
+                bestX = skyline.get(i)[0];
+                bestY = y;
+                bestTop = top;
+                bestSegmentWidth = segmentWidth;
+            }
+        }
+
+        if (bestIndex == -1) {
+            return null;
+        }
+
+        addSegment(bestIndex, bestX, bestY + rectHeight, rectWidth);
+        usedHeight = Math.max(usedHeight, bestY + rectHeight);
+
+        return new int[]{bestX, bestY};
+    }
+
+    /**
+     * @return the height of the area that is actually used
+     */
+    int getUsedHeight() {
+        return usedHeight;
+    }
+
+    /**
+     * Returns the y position a rectangle would have if its left edge is at the start of the given segment
+     * or -1 if it doesn't fit there.
+     */
+    private int fit(int index, int rectWidth, int rectHeight) {
+        int x = skyline.get(index)[0];
+
+        if (x + rectWidth > width) {
+            return -1;
+        }
+
+        int remainingWidth = rectWidth;
+        int y = 0;
+
+        for (int i = index; remainingWidth > 0; i++) {
+            int[] segment = skyline.get(i);
+
+            y = Math.max(y, segment[1]);
+
+            if (y + rectHeight > height) {
+                return -1;
+            }
+
+            remainingWidth -= segment[2];
+        }
+
+        return y;
+    }
+
+    private void addSegment(int index, int x, int y, int segmentWidth) {
+        skyline.add(index, new int[]{x, y, segmentWidth});
+
+        // shrink or remove the segments that are now covered by the new one
+        for (int i = index + 1; i < skyline.size(); i++) {
+            int[] segment = skyline.get(i);
+            int[] previous = skyline.get(i - 1);
+            int previousEnd = previous[0] + previous[2];
+
+            if (segment[0] >= previousEnd) {
+                break;
+            }
+
+            int shrink = previousEnd - segment[0];
+            segment[0] += shrink;
+            segment[2] -= shrink;
+
+            if (segment[2] > 0) {
+                break;
+            }
+
+            skyline.remove(i);
+            i--;
+        }
+
+        // merge neighbours on the same height
+        for (int i = 0; i < skyline.size() - 1; i++) {
+            int[] segment = skyline.get(i);
+            int[] next = skyline.get(i + 1);
+
+            if (segment[1] == next[1]) {
+                segment[2] += next[2];
+                skyline.remove(i + 1);
+                i--;
+            }
+        }
+    }
+}
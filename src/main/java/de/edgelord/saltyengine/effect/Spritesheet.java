@@ -17,26 +17,47 @@
 package de.edgelord.saltyengine.effect;
 
 import de.edgelord.saltyengine.transform.Coordinates;
+import de.edgelord.saltyengine.utils.ImageUtils;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
 
+/**
+ * A sheet of equally sized sprites within one image, or of sprites described by a {@link SpritePattern}.
+ * <p>
+ * The sheet is sliced once into an array of {@link Frame}s with compatible images of their own, so getting a sprite
+ * is only an array access. The slices are shared between all spritesheets of the same image and sprite size.
+ */
 public class Spritesheet {
 
+    /**
+     * The slices of all spritesheets by image and sprite size. The images are only weakly referenced,
+     * so the slices are released together with the image.
+     */
+    private static final Map<BufferedImage, Map<Long, Slices>> SLICES = new WeakHashMap<>();
+
     private BufferedImage image = null;
     private int spriteWidth, spriteHeight;
 
     private SpritePattern spritePattern;
 
+    private Slices slices = null;
+    private BufferedImage[] patternSprites = new BufferedImage[0];
+
     public Spritesheet(BufferedImage image, int spriteWidth, int spriteHeight) {
         this.spriteWidth = spriteWidth;
         this.spriteHeight = spriteHeight;
 
         this.image = image;
+        this.slices = slices();
     }
 
     public Spritesheet(File spritePatternFile) {
@@ -46,26 +67,108 @@ public class Spritesheet {
 
     public List<Frame> getManualFrames(Coordinates... coordinates) {
 
-        List<Frame> frames = new LinkedList<>();
+        List<Frame> frames = new ArrayList<>(coordinates.length);
 
         for (Coordinates currentCoordinates : coordinates) {
 
-            frames.add(new Frame(getManualSprite(currentCoordinates.getX(), currentCoordinates.getY())));
+            frames.add(getManualFrame(currentCoordinates.getX(), currentCoordinates.getY()));
         }
 
         return frames;
     }
 
+    /**
+     * Returns an {@link AnimationClip} with the sprites at the given positions, see {@link #getManualSprite(int, int)}.
+     * The clip is created only once for every sequence of positions and shared between all spritesheets
+     * of the same image and sprite size, so all animations playing it can share it as well.
+     *
+     * @param coordinates the positions of the frames of the clip
+     * @return the clip with the sprites at the given positions
+     */
+    public AnimationClip getClip(Coordinates... coordinates) {
+        Slices slices = slices();
+        String key = Arrays.toString(coordinates);
+
+        synchronized (slices.clips) {
+            AnimationClip clip = slices.clips.get(key);
+
+            if (clip == null) {
+                clip = new AnimationClip(getManualFrames(coordinates));
+                slices.clips.put(key, clip);
+            }
+
+            return clip;
+        }
+    }
+
+    /**
+     * Returns the sprite with the given id of the {@link SpritePattern} of this spritesheet.
+     * Every sprite is only cut out of the image once.
+     *
+     * @param id the id of the sprite within the pattern
+     * @return the sprite with the given id
+     */
     public BufferedImage getSprite(int id) {
 
+        if (id < patternSprites.length && patternSprites[id] != null) {
+            return patternSprites[id];
+        }
+
         Rectangle rectangle = spritePattern.getRectangle(id);
+        BufferedImage sprite = copyCompatible(image, rectangle.x, rectangle.y, rectangle.width, rectangle.height);
 
-        return image.getSubimage(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+        if (id >= patternSprites.length) {
+            patternSprites = Arrays.copyOf(patternSprites, Math.max(id + 1, patternSprites.length * 2));
+        }
+        patternSprites[id] = sprite;
+
+        return sprite;
     }
 
+    /**
+     * Returns the sprite in the given column and row, both starting at 1.
+     * The returned image is shared, so it must not be modified.
+     *
+     * @param x the column of the sprite, starting at 1
+     * @param y the row of the sprite, starting at 1
+     * @return the sprite at the given position
+     */
     public BufferedImage getManualSprite(int x, int y) {
 
-        return this.image.getSubimage(--x * getSpriteWidth(), --y * getSpriteHeight(), getSpriteWidth(), getSpriteHeight());
+        return getManualFrame(x, y).getImage();
+    }
+
+    /**
+     * Returns the {@link Frame} of the sprite in the given column and row, both starting at 1.
+     * The frame is shared between all spritesheets of the same image and sprite size.
+     *
+     * @param x the column of the sprite, starting at 1
+     * @param y the row of the sprite, starting at 1
+     * @return the frame of the sprite at the given position
+     */
+    public Frame getManualFrame(int x, int y) {
+        Slices slices = slices();
+
+        if (x < 1 || y < 1 || x > slices.columns || y > slices.rows) {
+            throw new IndexOutOfBoundsException("There is no sprite at " + x + "|" + y + " in a spritesheet with "
+                    + slices.columns + " columns and " + slices.rows + " rows!");
+        }
+
+        return slices.frames[(y - 1) * slices.columns + x - 1];
+    }
+
+    /**
+     * @return the number of sprites in a row of this spritesheet
+     */
+    public int getColumns() {
+        return slices().columns;
+    }
+
+    /**
+     * @return the number of sprites in a column of this spritesheet
+     */
+    public int getRows() {
+        return slices().rows;
     }
 
     public int getSpriteWidth() {
@@ -74,6 +177,7 @@ public class Spritesheet {
 
     public void setSpriteWidth(int spriteWidth) {
         this.spriteWidth = spriteWidth;
+        this.slices = null;
     }
 
     public int getSpriteHeight() {
@@ -82,6 +186,7 @@ public class Spritesheet {
 
     public void setSpriteHeight(int spriteHeight) {
         this.spriteHeight = spriteHeight;
+        this.slices = null;
     }
 
     @Override
@@ -100,4 +205,46 @@ public class Spritesheet {
 
         return Objects.hash(image, spriteWidth, spriteHeight, spritePattern);
     }
+
+    private Slices slices() {
+        if (slices == null) {
+            synchronized (SLICES) {
+                Map<Long, Slices> slicesOfImage = SLICES.computeIfAbsent(image, key -> new HashMap<>());
+                slices = slicesOfImage.computeIfAbsent(((long) spriteWidth << 32) | spriteHeight, key -> new Slices(image, spriteWidth, spriteHeight));
+            }
+        }
+
+        return slices;
+    }
+
+    private static BufferedImage copyCompatible(BufferedImage image, int x, int y, int width, int height) {
+        BufferedImage copy = ImageUtils.createCompatibleImage(width, height, image.getTransparency());
+        Graphics2D graphics = copy.createGraphics();
+
+        graphics.drawImage(image, 0, 0, width, height, x, y, x + width, y + height, null);
+        graphics.dispose();
+
+        return copy;
+    }
+
+    /**
+     * The sprites of an image with a specific sprite size, row by row.
+     */
+    private static class Slices {
+        private final int columns, rows;
+        private final Frame[] frames;
+        private final Map<String, AnimationClip> clips = new HashMap<>();
+
+        private Slices(BufferedImage image, int spriteWidth, int spriteHeight) {
+            columns = image.getWidth() / spriteWidth;
+            rows = image.getHeight() / spriteHeight;
+            frames = new Frame[columns * rows];
+
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    frames[row * columns + column] = new Frame(copyCompatible(image, column * spriteWidth, row * spriteHeight, spriteWidth, spriteHeight));
+                }
+            }
+        }
+    }
 }
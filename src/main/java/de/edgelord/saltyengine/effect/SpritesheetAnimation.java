@@ -19,14 +19,64 @@ package de.edgelord.saltyengine.effect;
 import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
 import de.edgelord.saltyengine.gameobject.GameObject;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * Plays an {@link AnimationClip} at the position of a {@link GameObject}. The clip can be shared between many
+ * animations, each animation only stores the index of its current frame.
+ */
 public class SpritesheetAnimation {
 
-    private List<Frame> frames = new LinkedList<>();
+    private AnimationClip clip = AnimationClip.EMPTY;
     private int currentFrame = 0;
 
+    /**
+     * The frames of the current clip as returned by {@link #getFrames()}. Changing them replaces the clip with a
+     * changed copy that only this animation plays, so a shared clip is never modified.
+     */
+    private final List<Frame> frames = new AbstractList<Frame>() {
+        @Override
+        public Frame get(int index) {
+            return clip.getFrame(index);
+        }
+
+        @Override
+        public int size() {
+            return clip.getFrameCount();
+        }
+
+        @Override
+        public Frame set(int index, Frame frame) {
+            Frame[] copy = clip.getFrames().toArray(new Frame[0]);
+            Frame previous = copy[index];
+            copy[index] = frame;
+            clip = new AnimationClip(copy);
+
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Frame frame) {
+            List<Frame> copy = new ArrayList<>(clip.getFrames());
+            copy.add(index, frame);
+            setClip(new AnimationClip(copy));
+            modCount++;
+        }
+
+        @Override
+        public Frame remove(int index) {
+            List<Frame> copy = new ArrayList<>(clip.getFrames());
+            Frame removed = copy.remove(index);
+            setClip(new AnimationClip(copy));
+            modCount++;
+
+            return removed;
+        }
+    };
+
     private GameObject parentGameObject;
 
     public SpritesheetAnimation(GameObject parentGameObject) {
@@ -34,14 +84,22 @@ public class SpritesheetAnimation {
         this.parentGameObject = parentGameObject;
     }
 
+    public SpritesheetAnimation(GameObject parentGameObject, AnimationClip clip) {
+
+        this.parentGameObject = parentGameObject;
+        this.clip = clip;
+    }
+
     public SpritesheetAnimation(LinkedList<Frame> frames) {
 
-        this.frames = frames;
+        this.clip = new AnimationClip(frames);
     }
 
     public void drawCurrentFrame(SaltyGraphics saltyGraphics) {
 
-        frames.get(currentFrame).draw(saltyGraphics, parentGameObject.getPosition(), parentGameObject.getWidth(), parentGameObject.getHeight());
+        if (clip.getFrameCount() != 0) {
+            clip.getFrame(currentFrame).draw(saltyGraphics, parentGameObject.getPosition(), parentGameObject.getWidth(), parentGameObject.getHeight());
+        }
     }
 
     public void resetFrameNumber() {
@@ -50,7 +108,7 @@ public class SpritesheetAnimation {
 
     public void nextFrame() {
 
-        if (getFrames().size() - 1 <= currentFrame) {
+        if (clip.getFrameCount() - 1 <= currentFrame) {
 
             currentFrame = 0;
             return;
@@ -59,16 +117,46 @@ public class SpritesheetAnimation {
         currentFrame++;
     }
 
+    /**
+     * Appends the given frame. This doesn't change the current clip, which might be shared,
+     * but replaces it with a new one.
+     *
+     * @param frame the frame to append
+     */
     public void addFrame(Frame frame) {
 
-        this.getFrames().add(frame);
+        clip = clip.withFrame(frame);
     }
 
+    /**
+     * Returns the frames of the current clip. The list can be modified, which doesn't change the clip, which might be
+     * shared, but replaces it with a modified copy just like {@link #addFrame(Frame)}. Every modification copies the
+     * frames, so use {@link #setClip(AnimationClip)} to set many frames at once.
+     *
+     * @return a live view of the frames of the current clip
+     */
     public List<Frame> getFrames() {
         return frames;
     }
 
     public void setFrames(List<Frame> frames) {
-        this.frames = frames;
+        setClip(new AnimationClip(frames));
+    }
+
+    public AnimationClip getClip() {
+        return clip;
+    }
+
+    /**
+     * Sets the clip to play. The current frame is kept if the new clip is long enough.
+     *
+     * @param clip the new clip
+     */
+    public void setClip(AnimationClip clip) {
+        this.clip = clip;
+
+        if (currentFrame >= clip.getFrameCount()) {
+            currentFrame = 0;
+        }
     }
 }
@@ -32,8 +32,9 @@ import de.edgelord.stdf.reading.ValueToDataConverter;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -77,12 +78,24 @@ import java.util.Map;
  * <p>
  * The first tile (0, 0) will be drawn at the position passed into the constructor, every other tiles will be drawn relative to that one,
  * like shown in the example above.
+ * <p>
+ * The grid is not baked into one image, but into chunks of {@link #getChunkSize()} x {@link #getChunkSize()} tiles,
+ * which are baked when they become visible for the first time. Only the chunks that intersect the visible area of the
+ * camera are drawn and at most {@link #getMaxCachedChunks()} chunk images are kept, so the memory used by the grid doesn't
+ * depend on its size.
  */
 public abstract class StaticTileGrid extends DrawingRoutine {
 
     private HashMap<Coordinates, BufferedImage> tiles = new HashMap<>();
 
-    private BufferedImage tileGrid;
+    /**
+     * The tiles within each chunk, keyed by the coordinates of the chunk. The tiles are copied out of {@link #tiles},
+     * so that changing a {@link Coordinates} key after {@link #buildTileGrid(HashMap)} can't corrupt the grid.
+     */
+    private HashMap<Long, List<Tile>> chunkTiles = new HashMap<>();
+    private TileChunkCache chunkCache;
+    private int chunkSize = TileChunkCache.DEFAULT_CHUNK_SIZE;
+    private int maxCachedChunks = TileChunkCache.DEFAULT_MAX_CACHED_CHUNKS;
 
     private boolean resizeTiles = false;
     private Dimensions tileSize;
@@ -95,7 +108,7 @@ public abstract class StaticTileGrid extends DrawingRoutine {
         this.tileSize = tileSize;
         buildTileGrid(tiles);
 
-        tileGrid = createStaticGridPicture();
+        createChunkCache();
     }
 
     public StaticTileGrid(DrawingPosition drawingPosition, float x, float y, float width, float height) {
@@ -113,7 +126,7 @@ public abstract class StaticTileGrid extends DrawingRoutine {
     @Override
     public void draw(SaltyGraphics saltyGraphics) {
 
-        saltyGraphics.drawImage(tileGrid, position.getX(), position.getY());
+        chunkCache.draw(saltyGraphics, position.getX(), position.getY());
     }
 
     public abstract void buildTileGrid(HashMap<Coordinates, BufferedImage> grid);
@@ -158,47 +171,52 @@ public abstract class StaticTileGrid extends DrawingRoutine {
         };
     }
 
-    private BufferedImage createStaticGridPicture() {
+    private void createChunkCache() {
 
-        int maxX = 0;
-        int maxY = 0;
-        BufferedImage image;
-        Iterator iterator;
-        SaltyGraphics graphics;
+        int maxX = -1;
+        int maxY = -1;
 
-        iterator = tiles.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry pair = (Map.Entry) iterator.next();
+        chunkTiles.clear();
+        for (Map.Entry<Coordinates, BufferedImage> entry : tiles.entrySet()) {
 
-            Coordinates coordinates = (Coordinates) pair.getKey();
+            Tile tile = new Tile(entry.getKey().getX(), entry.getKey().getY(), entry.getValue());
 
-            maxX = Math.max(maxX, coordinates.getX());
-            maxY = Math.max(maxY, coordinates.getY());
-        }
+            // tiles with negative coordinates are never drawn, as the first tile is (0, 0)
+            if (tile.x < 0 || tile.y < 0) {
+                continue;
+            }
 
-        int width = Math.round(++maxX * tileSize.getWidth());
-        int height = Math.round(++maxY * tileSize.getHeight());
+            maxX = Math.max(maxX, tile.x);
+            maxY = Math.max(maxY, tile.y);
 
-        if (width <= 0 || height <= 0) {
-            throw new IllegalArgumentException("You have to fill the StaticTileGrid with at least one tile within buildTileGrid(HashMap)");
+            chunkTiles.computeIfAbsent(chunkKey(tile.x / chunkSize, tile.y / chunkSize), key -> new ArrayList<>()).add(tile);
         }
 
-        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        graphics = new SaltyGraphics(image.createGraphics());
+        if (maxX < 0 || maxY < 0 || tileSize.getWidth() <= 0 || tileSize.getHeight() <= 0) {
+            throw new IllegalArgumentException("You have to fill the StaticTileGrid with at least one tile within buildTileGrid(HashMap)");
+        }
 
-        iterator = tiles.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry pair = (Map.Entry) iterator.next();
+        chunkCache = new TileChunkCache(maxX + 1, maxY + 1, tileSize.getWidth(), tileSize.getHeight(), chunkSize) {
+            @Override
+            boolean isChunkEmpty(int chunkX, int chunkY) {
+                return !chunkTiles.containsKey(chunkKey(chunkX, chunkY));
+            }
 
-            BufferedImage tileImage = (BufferedImage) pair.getValue();
-            Coordinates coordinates = (Coordinates) pair.getKey();
-            Coordinates2f tilePos = getTilePosition(coordinates, false);
+            @Override
+            void renderChunk(int chunkX, int chunkY, SaltyGraphics graphics) {
+                for (Tile tile : chunkTiles.get(chunkKey(chunkX, chunkY))) {
+                    float tileX = (tile.x - chunkX * chunkSize) * tileSize.getWidth();
+                    float tileY = (tile.y - chunkY * chunkSize) * tileSize.getHeight();
 
-            graphics.drawImage(tileImage, tilePos.getX(), tilePos.getY(), tileSize.getWidth(), tileSize.getHeight());
-        }
-        graphics.getGraphics2D().dispose();
+                    graphics.drawImage(tile.image, tileX, tileY, tileSize.getWidth(), tileSize.getHeight());
+                }
+            }
+        };
+        chunkCache.setMaxCachedChunks(maxCachedChunks);
+    }
 
-        return image;
+    private static long chunkKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
     }
 
     /**
@@ -288,5 +306,68 @@ public abstract class StaticTileGrid extends DrawingRoutine {
 
     public void setTileSize(Dimensions tileSize) {
         this.tileSize = tileSize;
+        createChunkCache();
+    }
+
+    /**
+     * @return the width and height of the chunks the grid is baked into, in tiles
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the width and height of the chunks the grid is baked into, in tiles, and drops all chunk images.
+     * Smaller chunks use less memory outside of the viewport, while bigger ones need less draw calls.
+     *
+     * @param chunkSize the new size of the chunks in tiles
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        createChunkCache();
+    }
+
+    /**
+     * @return the maximum number of chunk images that are kept
+     */
+    public int getMaxCachedChunks() {
+        return maxCachedChunks;
+    }
+
+    /**
+     * Sets the maximum number of chunk images that are kept. The least recently drawn ones are dropped first, but never
+     * the ones that are visible.
+     *
+     * @param maxCachedChunks the maximum number of chunk images
+     */
+    public void setMaxCachedChunks(int maxCachedChunks) {
+        this.maxCachedChunks = maxCachedChunks;
+        chunkCache.setMaxCachedChunks(maxCachedChunks);
+    }
+
+    /**
+     * @return the number of chunk images that are currently kept
+     */
+    public int getCachedChunkCount() {
+        return chunkCache.getCachedChunkCount();
+    }
+
+    /**
+     * @return the number of chunks that were drawn in the last frame
+     */
+    public int getDrawnChunkCount() {
+        return chunkCache.getDrawnChunkCount();
+    }
+
+    private static final class Tile {
+        private final int x;
+        private final int y;
+        private final BufferedImage image;
+
+        private Tile(int x, int y, BufferedImage image) {
+            this.x = x;
+            this.y = y;
+            this.image = image;
+        }
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A few large images (pages) that contain many sprites, so that Java2D only has to manage and cache those pages
+ * instead of every single sprite. The sprites are accessed by their key using {@link #getSprite(String)} and drawn
+ * as regions of their page.
+ * <p>
+ * An atlas is created using a {@link TextureAtlasBuilder}.
+ */
+public class TextureAtlas {
+
+    private final List<BufferedImage> pages;
+    private final Map<String, AtlasSprite> sprites;
+
+    TextureAtlas(List<BufferedImage> pages, Map<String, AtlasSprite> sprites) {
+        this.pages = Collections.unmodifiableList(pages);
+        this.sprites = sprites;
+    }
+
+    /**
+     * Returns the sprite that was added with the given key or <code>null</code> if there is none.
+     *
+     * @param key the key of the sprite, e.g. the name of an image of the {@link de.edgelord.saltyengine.core.ImageLoader}
+     * @return the sprite with the given key
+     */
+    public AtlasSprite getSprite(String key) {
+        return sprites.get(key);
+    }
+
+    /**
+     * Returns the sprite of a {@link Spritesheet} that was added using {@link TextureAtlasBuilder#addSpritesheet(String, Spritesheet)}.
+     * The position of the sprite is the same as the one of {@link Spritesheet#getManualSprite(int, int)}.
+     *
+     * @param id the id the spritesheet was added with
+     * @param x  the column of the sprite, starting at 1
+     * @param y  the row of the sprite, starting at 1
+     * @return the sprite at the given position of the spritesheet
+     */
+    public AtlasSprite getSpritesheetSprite(String id, int x, int y) {
+        return sprites.get(spritesheetKey(id, x, y));
+    }
+
+    /**
+     * @return all pages of this atlas
+     */
+    public List<BufferedImage> getPages() {
+        return pages;
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public int getSpriteCount() {
+        return sprites.size();
+    }
+
+    static String spritesheetKey(String id, int x, int y) {
+        return id + "/" + x + "," + y;
+    }
+}
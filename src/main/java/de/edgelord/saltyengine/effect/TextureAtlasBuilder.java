@@ -0,0 +1,261 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect;
+
+import de.edgelord.saltyengine.core.ImageLoader;
+import de.edgelord.saltyengine.utils.ImageUtils;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects images and packs them into the pages of a {@link TextureAtlas} using a skyline packer.
+ * <p>
+ * Images can be added by key, by their name in the {@link ImageLoader}, as all sprites of a {@link Spritesheet}
+ * or as the image of a {@link Frame}. The same image is only packed once, no matter how often it is added.
+ * Frames are pointed to their sprite within the atlas by {@link #build()}.
+ * <p>
+ * Every sprite is surrounded by a border of one pixel that repeats its edge, so that scaling it with
+ * bilinear interpolation doesn't blend in the neighbouring sprites.
+ */
+public class TextureAtlasBuilder {
+
+    public static final int DEFAULT_PAGE_SIZE = 2048;
+
+    private static final int BORDER = 1;
+
+    private final int pageSize;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<BufferedImage, Entry> entriesByImage = new IdentityHashMap<>();
+
+    public TextureAtlasBuilder() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a new builder for an atlas with pages of the given size.
+     * Images that are larger than that get a page of their own.
+     *
+     * @param pageSize the width and maximum height of the pages
+     */
+    public TextureAtlasBuilder(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Adds the given image with the given key.
+     *
+     * @param key   the key to get the sprite from the atlas with
+     * @param image the image to add
+     * @return this builder
+     */
+    public TextureAtlasBuilder addImage(String key, BufferedImage image) {
+        entry(image).keys.add(key);
+        return this;
+    }
+
+    /**
+     * Adds the image with the given name from the {@link ImageLoader}, with that name as its key.
+     *
+     * @param name the name of the image within the {@link ImageLoader}
+     * @return this builder
+     */
+    public TextureAtlasBuilder addLoadedImage(String name) {
+        return addImage(name, ImageLoader.getImage(name));
+    }
+
+    /**
+     * Adds all images that are currently loaded by the {@link ImageLoader}, with their names as keys.
+     *
+     * @return this builder
+     */
+    public TextureAtlasBuilder addLoadedImages() {
+        for (String name : ImageLoader.getLoadedImageNames()) {
+            addLoadedImage(name);
+        }
+        return this;
+    }
+
+    /**
+     * Adds all sprites of the given {@link Spritesheet}, which can then be accessed using
+     * {@link TextureAtlas#getSpritesheetSprite(String, int, int)}.
+     *
+     * @param id          the id to get the sprites from the atlas with
+     * @param spritesheet the spritesheet to add the sprites of
+     * @return this builder
+     */
+    public TextureAtlasBuilder addSpritesheet(String id, Spritesheet spritesheet) {
+        int columns = spritesheet.getColumns();
+        int rows = spritesheet.getRows();
+
+        for (int x = 1; x <= columns; x++) {
+            for (int y = 1; y <= rows; y++) {
+                addImage(TextureAtlas.spritesheetKey(id, x, y), spritesheet.getManualSprite(x, y));
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds the image of the given {@link Frame}. When the atlas is built, the frame is changed to draw its
+     * sprite from the atlas, see {@link Frame#setSprite(AtlasSprite)}.
+     *
+     * @param frame the frame to add
+     * @return this builder
+     */
+    public TextureAtlasBuilder addFrame(Frame frame) {
+        if (frame.getImage() != null) {
+            entry(frame.getImage()).frames.add(frame);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the images of all given {@link Frame}s, see {@link #addFrame(Frame)}.
+     *
+     * @param frames the frames to add
+     * @return this builder
+     */
+    public TextureAtlasBuilder addFrames(Iterable<Frame> frames) {
+        for (Frame frame : frames) {
+            addFrame(frame);
+        }
+        return this;
+    }
+
+    /**
+     * Packs all added images into as few pages as possible and creates the atlas.
+     *
+     * @return the new atlas
+     */
+    public TextureAtlas build() {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> a.image.getHeight() != b.image.getHeight() ? b.image.getHeight() - a.image.getHeight() : b.image.getWidth() - a.image.getWidth());
+
+        List<SkylinePacker> packers = new ArrayList<>();
+        List<List<Entry>> pageEntries = new ArrayList<>();
+
+        for (Entry entry : sorted) {
+            int width = entry.image.getWidth() + BORDER * 2;
+            int height = entry.image.getHeight() + BORDER * 2;
+            int[] position = null;
+            int page = 0;
+
+            if (width <= pageSize && height <= pageSize) {
+                for (; page < packers.size() && position == null; page++) {
+                    position = packers.get(page).insert(width, height);
+                }
+                page--;
+            }
+
+            if (position == null) {
+                SkylinePacker packer = new SkylinePacker(Math.max(width, pageSize), Math.max(height, pageSize));
+                packers.add(packer);
+                pageEntries.add(new ArrayList<>());
+                page = packers.size() - 1;
+                position = packer.insert(width, height);
+            }
+
+            entry.x = position[0] + BORDER;
+            entry.y = position[1] + BORDER;
+            pageEntries.get(page).add(entry);
+        }
+
+        List<BufferedImage> pages = new ArrayList<>(packers.size());
+        Map<String, AtlasSprite> sprites = new HashMap<>();
+
+        for (int page = 0; page < packers.size(); page++) {
+            int pageWidth = 0;
+
+            for (Entry entry : pageEntries.get(page)) {
+                pageWidth = Math.max(pageWidth, entry.x + entry.image.getWidth() + BORDER);
+            }
+
+            BufferedImage pageImage = ImageUtils.createCompatibleImage(pageWidth, packers.get(page).getUsedHeight(), Transparency.TRANSLUCENT);
+            Graphics2D graphics = pageImage.createGraphics();
+            graphics.setComposite(AlphaComposite.Src);
+
+            for (Entry entry : pageEntries.get(page)) {
+                drawWithBorder(graphics, entry);
+
+                AtlasSprite sprite = new AtlasSprite(pageImage, entry.x, entry.y, entry.image.getWidth(), entry.image.getHeight());
+
+                for (String key : entry.keys) {
+                    sprites.put(key, sprite);
+                }
+                for (Frame frame : entry.frames) {
+                    frame.setSprite(sprite);
+                }
+            }
+
+            graphics.dispose();
+            pages.add(pageImage);
+        }
+
+        return new TextureAtlas(pages, sprites);
+    }
+
+    private Entry entry(BufferedImage image) {
+        Entry entry = entriesByImage.get(image);
+
+        if (entry == null) {
+            entry = new Entry(image);
+            entriesByImage.put(image, entry);
+            entries.add(entry);
+        }
+
+        return entry;
+    }
+
+    private static void drawWithBorder(Graphics2D graphics, Entry entry) {
+        BufferedImage image = entry.image;
+        int x = entry.x;
+        int y = entry.y;
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        graphics.drawImage(image, x, y, null);
+
+        // repeat the edges and corners into the border
+        graphics.drawImage(image, x - 1, y, x, y + height, 0, 0, 1, height, null);
+        graphics.drawImage(image, x + width, y, x + width + 1, y + height, width - 1, 0, width, height, null);
+        graphics.drawImage(image, x, y - 1, x + width, y, 0, 0, width, 1, null);
+        graphics.drawImage(image, x, y + height, x + width, y + height + 1, 0, height - 1, width, height, null);
+        graphics.drawImage(image, x - 1, y - 1, x, y, 0, 0, 1, 1, null);
+        graphics.drawImage(image, x + width, y - 1, x + width + 1, y, width - 1, 0, width, 1, null);
+        graphics.drawImage(image, x - 1, y + height, x, y + height + 1, 0, height - 1, 1, height, null);
+        graphics.drawImage(image, x + width, y + height, x + width + 1, y + height + 1, width - 1, height - 1, width, height, null);
+    }
+
+    private static class Entry {
+        private final BufferedImage image;
+        private final List<String> keys = new ArrayList<>(1);
+        private final List<Frame> frames = new ArrayList<>(0);
+        private int x, y;
+
+        private Entry(BufferedImage image) {
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect;
+
+import de.edgelord.saltyengine.core.Game;
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+import de.edgelord.saltyengine.utils.ImageUtils;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders a grid of tiles as square chunks of tiles, each of which is baked into its own image the first time it is
+ * visible. The images are kept in a least-recently-used cache keyed by the coordinates of the chunk, so the memory
+ * used by a tile grid depends on the size of the viewport rather than on the size of the grid.
+ * <p>
+ * Chunks can be {@link #invalidateChunk(int, int) invalidated}, after which they are re-baked when they are visible,
+ * at most {@link #getRebakeBudget()} of them per frame. A chunk that is not re-baked yet is drawn with its old image.
+ * Baked images are never changed afterwards, so they can be drawn into a
+ * {@link de.edgelord.saltyengine.core.graphics.RenderCommandBuffer} by reference.
+ */
+abstract class TileChunkCache {
+
+    /**
+     * The default width and height of a chunk in tiles.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 16;
+
+    /**
+     * The default maximum number of chunk images that are kept.
+     */
+    static final int DEFAULT_MAX_CACHED_CHUNKS = 64;
+
+    private final int chunkSize;
+    private final float tileWidth;
+    private final float tileHeight;
+    private final int chunkColumns;
+    private final int chunkRows;
+
+    private final LinkedHashMap<Long, BufferedImage> chunks = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<Long> dirtyChunks = new HashSet<>();
+
+    private int maxCachedChunks = DEFAULT_MAX_CACHED_CHUNKS;
+    private int rebakeBudget = Integer.MAX_VALUE;
+
+    private int drawnChunkCount = 0;
+    private long bakeCount = 0;
+
+    private final Rectangle2D.Float visibleArea = new Rectangle2D.Float();
+
+    TileChunkCache(int columns, int rows, float tileWidth, float tileHeight, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The size of a chunk has to be at least one tile but was " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.chunkColumns = (columns + chunkSize - 1) / chunkSize;
+        this.chunkRows = (rows + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Returns whether the chunk with the given coordinates doesn't contain any tiles, in which case it is neither
+     * baked nor drawn.
+     *
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkY the y coordinate of the chunk
+     * @return whether the chunk is empty
+     */
+    abstract boolean isChunkEmpty(int chunkX, int chunkY);
+
+    /**
+     * Draws all tiles of the given chunk relative to the upper left corner of the chunk.
+     *
+     * @param chunkX   the x coordinate of the chunk
+     * @param chunkY   the y coordinate of the chunk
+     * @param graphics the graphics to draw to
+     */
+    abstract void renderChunk(int chunkX, int chunkY, SaltyGraphics graphics);
+
+    /**
+     * Draws all chunks that intersect the visible area of the camera, with the upper left corner of the grid at the
+     * given position.
+     *
+     * @param saltyGraphics the graphics to draw to
+     * @param x             the x position of the grid
+     * @param y             the y position of the grid
+     */
+    void draw(SaltyGraphics saltyGraphics, float x, float y) {
+        float chunkWidth = chunkSize * tileWidth;
+        float chunkHeight = chunkSize * tileHeight;
+
+        int minChunkX = 0;
+        int minChunkY = 0;
+        int maxChunkX = chunkColumns - 1;
+        int maxChunkY = chunkRows - 1;
+
+        if (Game.getGameDimensions() != null && Game.getCamera() != null) {
+            Game.getCamera().getVisibleArea(0f, visibleArea);
+
+            minChunkX = Math.max(minChunkX, (int) Math.floor((visibleArea.x - x) / chunkWidth));
+            minChunkY = Math.max(minChunkY, (int) Math.floor((visibleArea.y - y) / chunkHeight));
+            maxChunkX = Math.min(maxChunkX, (int) Math.floor((visibleArea.x + visibleArea.width - x) / chunkWidth));
+            maxChunkY = Math.min(maxChunkY, (int) Math.floor((visibleArea.y + visibleArea.height - y) / chunkHeight));
+        }
+
+        int rebakes = 0;
+        drawnChunkCount = 0;
+
+        for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                long key = key(chunkX, chunkY);
+                BufferedImage image = chunks.get(key);
+
+                if (image == null) {
+                    if (isChunkEmpty(chunkX, chunkY)) {
+                        continue;
+                    }
+                    image = bake(chunkX, chunkY);
+                    chunks.put(key, image);
+                } else if (!dirtyChunks.isEmpty() && rebakes < rebakeBudget && dirtyChunks.remove(key)) {
+                    // a chunk is re-baked into a new image, as a recorded frame might still draw the old one
+                    image = bake(chunkX, chunkY);
+                    chunks.put(key, image);
+                    rebakes++;
+                }
+
+                saltyGraphics.drawImage(image, x + chunkX * chunkWidth, y + chunkY * chunkHeight);
+                drawnChunkCount++;
+            }
+        }
+
+        // the chunks drawn in this frame are the most recently used ones, so they are never dropped here
+        Iterator<Map.Entry<Long, BufferedImage>> iterator = chunks.entrySet().iterator();
+        int maxSize = Math.max(maxCachedChunks, drawnChunkCount);
+        while (chunks.size() > maxSize && iterator.hasNext()) {
+            dirtyChunks.remove(iterator.next().getKey());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Marks the chunk with the given coordinates as outdated, so that it is re-baked the next time it is drawn.
+     *
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkY the y coordinate of the chunk
+     */
+    void invalidateChunk(int chunkX, int chunkY) {
+        long key = key(chunkX, chunkY);
+
+        if (chunks.containsKey(key)) {
+            dirtyChunks.add(key);
+        }
+    }
+
+    /**
+     * Drops all chunk images.
+     */
+    void clear() {
+        chunks.clear();
+        dirtyChunks.clear();
+    }
+
+    private BufferedImage bake(int chunkX, int chunkY) {
+        BufferedImage image = ImageUtils.createCompatibleImage((int) Math.ceil(chunkSize * tileWidth), (int) Math.ceil(chunkSize * tileHeight), Transparency.TRANSLUCENT);
+
+        Graphics2D graphics = image.createGraphics();
+        renderChunk(chunkX, chunkY, new SaltyGraphics(graphics));
+        graphics.dispose();
+        bakeCount++;
+
+        return image;
+    }
+
+    private static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    int getCachedChunkCount() {
+        return chunks.size();
+    }
+
+    int getDrawnChunkCount() {
+        return drawnChunkCount;
+    }
+
+    long getBakeCount() {
+        return bakeCount;
+    }
+
+    int getMaxCachedChunks() {
+        return maxCachedChunks;
+    }
+
+    void setMaxCachedChunks(int maxCachedChunks) {
+        this.maxCachedChunks = maxCachedChunks;
+    }
+
+    int getRebakeBudget() {
+        return rebakeBudget;
+    }
+
+    void setRebakeBudget(int rebakeBudget) {
+        this.rebakeBudget = rebakeBudget;
+    }
+}
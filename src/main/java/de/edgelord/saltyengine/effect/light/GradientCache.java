@@ -0,0 +1,222 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect.light;
+
+import de.edgelord.saltyengine.core.Game;
+import de.edgelord.saltyengine.effect.geom.EnumShape;
+import de.edgelord.saltyengine.transform.Dimensions;
+import de.edgelord.saltyengine.utils.ImageUtils;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A reference-counted cache of the gradient images of {@link GradientLight}s, shared by all lights.
+ * Lights with the same shape, size, intensity, color, color alpha and arc share one pair of images, as long as the
+ * {@link de.edgelord.saltyengine.core.Host#getRenderHints() antialiasing} is the same. When the last of
+ * them {@link #release(Images) releases} it, the pair is kept among the {@link #MAX_UNUSED} most recently released ones,
+ * so that e.g. setting the color of a new light right after creating it doesn't create the default images every time.
+ * <p>
+ * The images in use are only referenced weakly by the cache, so the images of lights that are dropped without being
+ * {@link GradientLight#dispose() disposed} are garbage collected along with them.
+ */
+final class GradientCache {
+
+    /**
+     * The maximum number of pairs of images that are kept when no light uses them.
+     */
+    private static final int MAX_UNUSED = 16;
+
+    private static final Map<Key, ImagesReference> images = new HashMap<>();
+    private static final ReferenceQueue<Images> collectedImages = new ReferenceQueue<>();
+    private static final Map<Key, Images> unusedImages = new LinkedHashMap<Key, Images>(MAX_UNUSED, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Images> eldest) {
+            return size() > MAX_UNUSED;
+        }
+    };
+
+    private GradientCache() {
+    }
+
+    /**
+     * Returns the images for the given parameters, creating them if no other light uses them yet.
+     * Every call has to be balanced by a call of {@link #release(Images)} once the images aren't used anymore.
+     *
+     * @return the images of a light with the given parameters
+     */
+    static synchronized Images acquire(EnumShape shape, int width, int height, float intensity, Color color, int colorAlpha, float[] arcIfRoundRect) {
+        expungeCollectedImages();
+
+        Key key = new Key(shape, width, height, intensity, color.getRGB() & 0xffffff, colorAlpha, arcIfRoundRect.clone(), antialiasing());
+        ImagesReference reference = images.get(key);
+        Images entry = reference == null ? null : reference.get();
+
+        if (entry == null) {
+            entry = unusedImages.remove(key);
+
+            if (entry == null) {
+                entry = new Images(key);
+            }
+            images.put(key, new ImagesReference(entry));
+        }
+
+        entry.references++;
+
+        return entry;
+    }
+
+    /**
+     * Releases the given images, which are dropped from the cache eventually if no other light uses them.
+     *
+     * @param entry the images to release
+     */
+    static synchronized void release(Images entry) {
+        if (--entry.references == 0) {
+            ImagesReference reference = images.get(entry.key);
+
+            if (reference != null && reference.get() == entry) {
+                images.remove(entry.key);
+            }
+            unusedImages.put(entry.key, entry);
+        }
+    }
+
+    /**
+     * @return the number of distinct pairs of images that are used by at least one light
+     */
+    static synchronized int size() {
+        expungeCollectedImages();
+
+        return images.size();
+    }
+
+    /**
+     * Removes the entries of images whose lights were garbage collected without releasing them.
+     */
+    private static void expungeCollectedImages() {
+        ImagesReference reference;
+
+        while ((reference = (ImagesReference) collectedImages.poll()) != null) {
+            images.remove(reference.key, reference);
+        }
+    }
+
+    private static Object antialiasing() {
+        return Game.getHost().getRenderHints().get(RenderingHints.KEY_ANTIALIASING);
+    }
+
+    static final class Images {
+
+        private final Key key;
+        private final BufferedImage light;
+        private final BufferedImage coloredLight;
+        private int references = 0;
+
+        private Images(Key key) {
+            this.key = key;
+
+            Dimensions size = new Dimensions(key.width, key.height);
+            RenderingHints hints = Game.getHost().getRenderHints();
+            Color opaqueColor = new Color(key.color);
+
+            light = ImageUtils.createPrimitiveGradient(key.shape, saltyGraphics -> {
+            }, hints, key.intensity, size, key.arcIfRoundRect);
+            coloredLight = ImageUtils.createPrimitiveGradient(key.shape, saltyGraphics -> saltyGraphics.setColor(opaqueColor), hints, key.intensity, key.colorAlpha, size, key.arcIfRoundRect);
+        }
+
+        BufferedImage getLight() {
+            return light;
+        }
+
+        BufferedImage getColoredLight() {
+            return coloredLight;
+        }
+
+        /**
+         * @return whether these are the images for the given parameters and the current antialiasing
+         */
+        boolean matches(EnumShape shape, int width, int height, float intensity, Color color, int colorAlpha, float[] arcIfRoundRect) {
+            return key.shape == shape && key.width == width && key.height == height && key.intensity == intensity
+                    && key.color == (color.getRGB() & 0xffffff) && key.colorAlpha == colorAlpha && Arrays.equals(key.arcIfRoundRect, arcIfRoundRect)
+                    && key.antialiasing == antialiasing();
+        }
+    }
+
+    private static final class ImagesReference extends WeakReference<Images> {
+
+        private final Key key;
+
+        private ImagesReference(Images images) {
+            super(images, collectedImages);
+            this.key = images.key;
+        }
+    }
+
+    private static final class Key {
+
+        private final EnumShape shape;
+        private final int width;
+        private final int height;
+        private final float intensity;
+        private final int color;
+        private final int colorAlpha;
+        private final float[] arcIfRoundRect;
+        private final Object antialiasing;
+
+        private Key(EnumShape shape, int width, int height, float intensity, int color, int colorAlpha, float[] arcIfRoundRect, Object antialiasing) {
+            this.shape = shape;
+            this.width = width;
+            this.height = height;
+            this.intensity = intensity;
+            this.color = color;
+            this.colorAlpha = colorAlpha;
+            this.arcIfRoundRect = arcIfRoundRect;
+            this.antialiasing = antialiasing;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return shape == key.shape && width == key.width && height == key.height
+                    && Float.compare(intensity, key.intensity) == 0 && color == key.color
+                    && colorAlpha == key.colorAlpha && Arrays.equals(arcIfRoundRect, key.arcIfRoundRect)
+                    && antialiasing == key.antialiasing;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = shape.hashCode();
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + Float.floatToIntBits(intensity);
+            result = 31 * result + color;
+            result = 31 * result + colorAlpha;
+            result = 31 * result + Arrays.hashCode(arcIfRoundRect);
+            result = 31 * result + (antialiasing == null ? 0 : antialiasing.hashCode());
+            return result;
+        }
+    }
+}
@@ -16,23 +16,27 @@
 
 package de.edgelord.saltyengine.effect.light;
 
-import de.edgelord.saltyengine.core.Game;
 import de.edgelord.saltyengine.core.annotations.DefaultPlacement;
 import de.edgelord.saltyengine.effect.geom.EnumShape;
 import de.edgelord.saltyengine.transform.Coordinates2f;
 import de.edgelord.saltyengine.transform.Dimensions;
 import de.edgelord.saltyengine.transform.Transform;
 import de.edgelord.saltyengine.utils.ColorUtil;
-import de.edgelord.saltyengine.utils.ImageUtils;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
+/**
+ * A light with the shape of an {@link EnumShape} that fades out from its centre.
+ * <p>
+ * The images of the gradient are taken from a cache shared by all lights, so lights with the same shape, size, intensity,
+ * color, color alpha and arc share one pair of images, and moving a light never creates new ones. Call {@link #dispose()}
+ * when the light isn't used anymore, so that the images can be dropped when no other light uses them.
+ */
 @DefaultPlacement(method = DefaultPlacement.Method.TOP_LEFT_CORNER)
 public class GradientLight extends Light {
 
-    private BufferedImage light;
-    private BufferedImage coloredLight;
+    private GradientCache.Images images;
     private EnumShape shape;
 
     private float[] arcIfRoundRect;
@@ -66,12 +70,26 @@ public class GradientLight extends Light {
 
     @Override
     public void draw(Graphics2D graphics) {
-        graphics.drawImage(light, Math.round(getX()), Math.round(getY()), null);
+        updateLightImage();
+        graphics.drawImage(images.getLight(), Math.round(getX()), Math.round(getY()), null);
     }
 
     @Override
     public void drawColorMap(Graphics2D graphics) {
-        graphics.drawImage(coloredLight, Math.round(getX()), Math.round(getY()), null);
+        updateLightImage();
+        graphics.drawImage(images.getColoredLight(), Math.round(getX()), Math.round(getY()), null);
+    }
+
+    @Override
+    public BufferedImage getLightImage() {
+        updateLightImage();
+        return images.getLight();
+    }
+
+    @Override
+    public BufferedImage getColorMapImage() {
+        updateLightImage();
+        return images.getColoredLight();
     }
 
     public EnumShape getShape() {
@@ -80,6 +98,7 @@ public class GradientLight extends Light {
 
     public void setShape(EnumShape shape) {
         this.shape = shape;
+        updateLightImage();
     }
 
     @Override
@@ -94,12 +113,6 @@ public class GradientLight extends Light {
         updateLightImage();
     }
 
-    @Override
-    public void setPosition(Coordinates2f position) {
-        super.setPosition(position);
-        updateLightImage();
-    }
-
     @Override
     public void setWidth(float width) {
         super.setWidth(width);
@@ -112,24 +125,6 @@ public class GradientLight extends Light {
         updateLightImage();
     }
 
-    @Override
-    public void setX(float x) {
-        super.setX(x);
-        updateLightImage();
-    }
-
-    @Override
-    public void setY(float y) {
-        super.setY(y);
-        updateLightImage();
-    }
-
-    @Override
-    public void setBrightness(float brightness) {
-        super.setBrightness(brightness);
-        updateLightImage();
-    }
-
     @Override
     public void setIntensity(float intensity) {
         super.setIntensity(intensity);
@@ -148,9 +143,36 @@ public class GradientLight extends Light {
         updateLightImage();
     }
 
+    /**
+     * Takes the images of this light from the shared cache if its shape, size, intensity, color, color alpha or arc
+     * changed since they were taken the last time. This is called by all setters of these properties and before drawing,
+     * so that changes of the {@link Transform} are considered as well.
+     */
     public void updateLightImage() {
-        light = ImageUtils.createPrimitiveGradient(shape, saltyGraphics -> {
-        }, Game.getHost().getRenderHints(), getIntensity(), getDimensions(), arcIfRoundRect);
-        coloredLight = ImageUtils.createPrimitiveGradient(shape, this::prepareGraphics, Game.getHost().getRenderHints(), getIntensity(), getColorAlpha(), getDimensions(), arcIfRoundRect);
+        int width = Math.max(1, Math.round(getWidth()));
+        int height = Math.max(1, Math.round(getHeight()));
+
+        if (images != null && images.matches(shape, width, height, getIntensity(), getColor(), getColorAlpha(), arcIfRoundRect)) {
+            return;
+        }
+
+        GradientCache.Images oldImages = images;
+        images = GradientCache.acquire(shape, width, height, getIntensity(), getColor(), getColorAlpha(), arcIfRoundRect);
+
+        if (oldImages != null) {
+            GradientCache.release(oldImages);
+        }
+        changed();
+    }
+
+    /**
+     * Releases the images of this light, so that they can be dropped from the shared cache if no other light uses them.
+     * The light takes new ones when it is drawn again.
+     */
+    public void dispose() {
+        if (images != null) {
+            GradientCache.release(images);
+            images = null;
+        }
     }
 }
@@ -26,6 +26,7 @@ import de.edgelord.saltyengine.utils.ColorUtil;
 import de.edgelord.saltyengine.utils.Directions;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 @DefaultPlacement(method = DefaultPlacement.Method.TOP_LEFT_CORNER)
 public abstract class Light implements TransformedObject {
@@ -60,6 +61,11 @@ public abstract class Light implements TransformedObject {
      */
     private Directions lockedDirections = new Directions();
 
+    /**
+     * Incremented every time the look of this light changes, see {@link #changed()}.
+     */
+    private int modificationCount = 0;
+
     public Light(Transform transform, Color color) {
         this.transform = transform;
         this.color = color;
@@ -90,10 +96,69 @@ public abstract class Light implements TransformedObject {
         graphics.setColor(color);
     }
 
+    /**
+     * Cuts this light out of the light map. The light must not draw outside of its {@link #getTransform() transform},
+     * as the {@link LightSystem} only redraws the area of the light map that is covered by lights that changed.
+     *
+     * @param graphics the graphics of the light map
+     */
     public abstract void draw(Graphics2D graphics);
 
+    /**
+     * Draws the color of this light onto the light map. Like {@link #draw(Graphics2D)}, the light must not draw outside
+     * of its {@link #getTransform() transform}.
+     *
+     * @param graphics the graphics of the light map
+     */
     public abstract void drawColorMap(Graphics2D graphics);
 
+    /**
+     * Returns an image that is cut out of the light map at the rounded position of this light instead of calling
+     * {@link #draw(Graphics2D)}, so that the {@link LightSystem} can draw it as cheap as possible, e.g. by drawing a
+     * scaled copy of it into a light map with a lower resolution. The image must not change after it was returned,
+     * a light that changes its look returns a new image and calls {@link #changed()}.
+     *
+     * @return the image of this light or <code>null</code> if this light draws itself using {@link #draw(Graphics2D)}
+     * and {@link #drawColorMap(Graphics2D)}
+     */
+    public BufferedImage getLightImage() {
+        return null;
+    }
+
+    /**
+     * Returns the image that is drawn onto the light map before the {@link #getLightImage() light image} is cut out.
+     * This is only used if {@link #getLightImage()} doesn't return <code>null</code>.
+     *
+     * @return the image of the color of this light
+     */
+    public BufferedImage getColorMapImage() {
+        return null;
+    }
+
+    /**
+     * Called by the {@link LightSystem} once per frame for every light that is visible, before it checks whether the
+     * light changed. Lights that depend on something else than their own properties, like the occluders of a
+     * {@link ShadowLight}, check for changes of it here and call {@link #changed()}.
+     */
+    protected void update() {
+    }
+
+    /**
+     * Marks this light as changed, so that the {@link LightSystem} redraws it. Changes of the position and the size
+     * of the light are detected anyway, but subclasses have to call this method whenever anything else that influences
+     * their look changes.
+     */
+    protected void changed() {
+        modificationCount++;
+    }
+
+    /**
+     * @return a number that changes every time {@link #changed()} is called
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
     @Override
     public Transform getTransform() {
         return transform;
@@ -125,6 +190,7 @@ public abstract class Light implements TransformedObject {
         }
 
         this.brightness = brightness;
+        changed();
     }
 
     public float getIntensity() {
@@ -133,6 +199,7 @@ public abstract class Light implements TransformedObject {
 
     public void setIntensity(float intensity) {
         this.intensity = intensity;
+        changed();
     }
 
     public Color getColor() {
@@ -141,6 +208,7 @@ public abstract class Light implements TransformedObject {
 
     public void setColor(Color color) {
         this.color = color;
+        changed();
     }
 
     public int getColorAlpha() {
@@ -149,5 +217,6 @@ public abstract class Light implements TransformedObject {
 
     public void setColorAlpha(int colorAlpha) {
         this.colorAlpha = colorAlpha;
+        changed();
     }
 }
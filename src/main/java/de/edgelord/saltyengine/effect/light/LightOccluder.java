@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect.light;
+
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+/**
+ * Something that blocks the light of an {@link ShadowLight}, e.g. the static colliders of a scene
+ * (see {@link SceneLightOccluder}) or the solid tiles of a {@link de.edgelord.saltyengine.effect.DynamicTileGrid}.
+ */
+public interface LightOccluder {
+
+    /**
+     * Adds the rectangles that block light within the given area to the given list. Rectangles may reach out of the
+     * area, but implementations should skip everything that doesn't intersect it, as every rectangle adds to the
+     * cost of computing the shadows of a light.
+     * <p>
+     * This is called once per frame for every visible {@link ShadowLight} and the rectangles are compared to the ones
+     * of the last frame to find out whether the shadows have to be computed again, so implementations must add
+     * the same rectangles in the same order as long as nothing moved.
+     * <p>
+     * It is called on the render thread while holding {@link de.edgelord.saltyengine.scene.Scene#concurrentBlock},
+     * so implementations can read the state of the scene, but everything else they read has to be changed within
+     * that block as well, like the scene itself does on every fixed tick.
+     *
+     * @param area      the area that is lit by the light
+     * @param occluders the list to add the rectangles to
+     */
+    void collectOccluders(Rectangle2D.Float area, List<Rectangle2D.Float> occluders);
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect.light;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Composites the images of lights directly into the <code>int[]</code> of a {@link BufferedImage#TYPE_INT_ARGB} light map,
+ * instead of switching the composite of a {@link Graphics2D} twice per light and going through the generic software
+ * loops of Java2D.
+ * <p>
+ * For every light, the color image is blended over the light map (adding the color of the light), and then the alpha
+ * of the light image, multiplied by the brightness of the light, is subtracted from the alpha of the light map.
+ * This is the same as drawing the color image with {@link AlphaComposite#SRC_OVER} and the light image with
+ * {@link AlphaComposite#DST_OUT}, up to rounding.
+ * <p>
+ * Big areas are split into horizontal bands that are composited in parallel using the common {@link ForkJoinPool}.
+ * Every band composites all lights in the same order, so the result doesn't depend on the number of threads.
+ */
+final class RasterLightCompositor {
+
+    /**
+     * Bands with less rows are not split any further.
+     */
+    private static final int BAND_HEIGHT = 32;
+
+    /**
+     * Areas with less pixels are composited on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 128 * 128;
+
+    private int[][] colorPixels = new int[16][];
+    private int[][] lightPixels = new int[16][];
+    // x, y, width, height and brightness from 0 to 255 of every light
+    private int[] lightBounds = new int[16 * 5];
+    private int lightCount = 0;
+
+    /**
+     * Returns the pixels of the given image, or <code>null</code> if the image isn't a plain
+     * {@link BufferedImage#TYPE_INT_ARGB} image whose pixels can be read row by row.
+     *
+     * @param image the image whose pixels to return
+     * @return the pixels of the image or <code>null</code>
+     */
+    static int[] getPixels(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_INT_ARGB || image.getRaster().getSampleModelTranslateX() != 0
+                || image.getRaster().getSampleModelTranslateY() != 0 || !(image.getSampleModel() instanceof SinglePixelPackedSampleModel)
+                || ((SinglePixelPackedSampleModel) image.getSampleModel()).getScanlineStride() != image.getWidth()) {
+            return null;
+        }
+
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Adds a light to composite with the next call of {@link #composite(int[], int, Rectangle, int)}.
+     * Both images have to have the same size.
+     *
+     * @param colorPixels the pixels of the color image of the light, see {@link #getPixels(BufferedImage)}
+     * @param lightPixels the pixels of the light image of the light
+     * @param x           the x position of the light within the light map
+     * @param y           the y position of the light within the light map
+     * @param width       the width of the images
+     * @param height      the height of the images
+     * @param brightness  the brightness of the light, between 0 and 1
+     */
+    void addLight(int[] colorPixels, int[] lightPixels, int x, int y, int width, int height, float brightness) {
+        if (lightCount == this.colorPixels.length) {
+            this.colorPixels = Arrays.copyOf(this.colorPixels, lightCount * 2);
+            this.lightPixels = Arrays.copyOf(this.lightPixels, lightCount * 2);
+            lightBounds = Arrays.copyOf(lightBounds, lightCount * 2 * 5);
+        }
+
+        this.colorPixels[lightCount] = colorPixels;
+        this.lightPixels[lightCount] = lightPixels;
+        lightBounds[lightCount * 5] = x;
+        lightBounds[lightCount * 5 + 1] = y;
+        lightBounds[lightCount * 5 + 2] = width;
+        lightBounds[lightCount * 5 + 3] = height;
+        lightBounds[lightCount * 5 + 4] = Math.round(brightness * 255f);
+        lightCount++;
+    }
+
+    /**
+     * Fills the given area of the light map with the given color and composites all added lights into it.
+     * The lights are removed afterwards.
+     *
+     * @param lightMap   the pixels of the light map
+     * @param width      the width of the light map
+     * @param region     the area to composite, which has to be within the light map
+     * @param background the color of the light map as ARGB
+     */
+    void composite(int[] lightMap, int width, Rectangle region, int background) {
+        if ((long) region.width * region.height < PARALLEL_THRESHOLD) {
+            compositeBand(lightMap, width, region, background, region.y, region.y + region.height);
+        } else {
+            ForkJoinPool.commonPool().invoke(new Band(lightMap, width, region, background, region.y, region.y + region.height));
+        }
+
+        clear();
+    }
+
+    /**
+     * Removes all added lights.
+     */
+    void clear() {
+        Arrays.fill(colorPixels, 0, lightCount, null);
+        Arrays.fill(lightPixels, 0, lightCount, null);
+        lightCount = 0;
+    }
+
+    int getLightCount() {
+        return lightCount;
+    }
+
+    private void compositeBand(int[] lightMap, int width, Rectangle region, int background, int minY, int maxY) {
+        int minX = region.x;
+        int maxX = region.x + region.width;
+
+        for (int y = minY; y < maxY; y++) {
+            Arrays.fill(lightMap, y * width + minX, y * width + maxX, background);
+        }
+
+        for (int light = 0; light < lightCount; light++) {
+            int lightX = lightBounds[light * 5];
+            int lightY = lightBounds[light * 5 + 1];
+            int lightWidth = lightBounds[light * 5 + 2];
+            int lightHeight = lightBounds[light * 5 + 3];
+            int brightness = lightBounds[light * 5 + 4];
+            int[] color = colorPixels[light];
+            int[] cutOut = lightPixels[light];
+
+            int startX = Math.max(minX, lightX);
+            int endX = Math.min(maxX, lightX + lightWidth);
+            int startY = Math.max(minY, lightY);
+            int endY = Math.min(maxY, lightY + lightHeight);
+
+            for (int y = startY; y < endY; y++) {
+                int index = y * width + startX;
+                int source = (y - lightY) * lightWidth + startX - lightX;
+
+                for (int x = startX; x < endX; x++, index++, source++) {
+                    lightMap[index] = cutOut(srcOver(color[source], lightMap[index]), cutOut[source] >>> 24, brightness);
+                }
+            }
+        }
+    }
+
+    /**
+     * Blends the given non-premultiplied colors like {@link AlphaComposite#SRC_OVER}, rounding like Java2D does.
+     */
+    private static int srcOver(int source, int destination) {
+        int sourceAlpha = source >>> 24;
+
+        if (sourceAlpha == 0) {
+            return destination;
+        } else if (sourceAlpha == 255) {
+            return source;
+        }
+
+        int destinationFactor = multiply(255 - sourceAlpha, destination >>> 24);
+        int alpha = sourceAlpha + destinationFactor;
+
+        int red = multiply(sourceAlpha, (source >> 16) & 0xff) + multiply(destinationFactor, (destination >> 16) & 0xff);
+        int green = multiply(sourceAlpha, (source >> 8) & 0xff) + multiply(destinationFactor, (destination >> 8) & 0xff);
+        int blue = multiply(sourceAlpha, source & 0xff) + multiply(destinationFactor, destination & 0xff);
+
+        if (alpha < 255) {
+            // dividing by the alpha once and multiplying three times is cheaper than dividing three times
+            int reciprocal = (255 << 16) / alpha;
+            red = Math.min(255, (red * reciprocal + 0x8000) >> 16);
+            green = Math.min(255, (green * reciprocal + 0x8000) >> 16);
+            blue = Math.min(255, (blue * reciprocal + 0x8000) >> 16);
+        }
+
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+
+    /**
+     * Reduces the alpha of the given non-premultiplied color like {@link AlphaComposite#DST_OUT} with an extra alpha,
+     * rounding like Java2D does.
+     */
+    private static int cutOut(int destination, int sourceAlpha, int brightness) {
+        if (sourceAlpha == 0 || brightness == 0) {
+            return destination;
+        }
+
+        int alpha = multiply(255 - multiply(sourceAlpha, brightness), destination >>> 24);
+
+        return alpha == 0 ? 0 : alpha << 24 | (destination & 0xffffff);
+    }
+
+    /**
+     * @return the product of the given values between 0 and 255, divided by 255 and rounded
+     */
+    private static int multiply(int a, int b) {
+        int product = a * b + 128;
+        return (product + (product >> 8)) >> 8;
+    }
+
+    private class Band extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] lightMap;
+        private final int width;
+        private final Rectangle region;
+        private final int background;
+        private final int minY;
+        private final int maxY;
+
+        private Band(int[] lightMap, int width, Rectangle region, int background, int minY, int maxY) {
+            this.lightMap = lightMap;
+            this.width = width;
+            this.region = region;
+            this.background = background;
+            this.minY = minY;
+            this.maxY = maxY;
+        }
+
+        @Override
+        protected void compute() {
+            if (maxY - minY <= BAND_HEIGHT) {
+                compositeBand(lightMap, width, region, background, minY, maxY);
+                return;
+            }
+
+            int middle = (minY + maxY) >>> 1;
+            invokeAll(new Band(lightMap, width, region, background, minY, middle),
+                    new Band(lightMap, width, region, background, middle, maxY));
+        }
+    }
+}
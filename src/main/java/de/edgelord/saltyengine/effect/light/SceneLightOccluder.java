@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect.light;
+
+import de.edgelord.saltyengine.gameobject.GameObject;
+import de.edgelord.saltyengine.scene.Scene;
+import de.edgelord.saltyengine.scene.SpatialGrid;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@link LightOccluder} that blocks light with the bounds of the {@link GameObject}s of a {@link Scene}.
+ * By default, only {@link GameObject#isStationary() stationary} ones cast shadows, which includes the hitboxes
+ * of a {@link de.edgelord.saltyengine.effect.StaticTileGrid}.
+ * <p>
+ * The nearby {@link GameObject}s are taken from the {@link Scene#getSpatialGrid() spatial grid} of the scene,
+ * so its cost doesn't depend on the size of the scene. Without a spatial grid, all {@link GameObject}s of the
+ * scene are tested every frame.
+ */
+public class SceneLightOccluder implements LightOccluder {
+
+    private final Scene scene;
+    private Predicate<GameObject> filter;
+
+    private final List<GameObject> candidates = new ArrayList<>();
+
+    public SceneLightOccluder(Scene scene, Predicate<GameObject> filter) {
+        this.scene = scene;
+        this.filter = filter;
+    }
+
+    public SceneLightOccluder(Scene scene) {
+        this(scene, GameObject::isStationary);
+    }
+
+    @Override
+    public void collectOccluders(Rectangle2D.Float area, List<Rectangle2D.Float> occluders) {
+        SpatialGrid spatialGrid = scene.getSpatialGrid();
+
+        if (spatialGrid != null) {
+            spatialGrid.query(area.x, area.y, area.width, area.height, candidates);
+        } else {
+            candidates.addAll(scene.withType(GameObject.class));
+        }
+
+        for (GameObject gameObject : candidates) {
+            if (!filter.test(gameObject)) {
+                continue;
+            }
+
+            float x = gameObject.getWorldX();
+            float y = gameObject.getWorldY();
+            float width = gameObject.getWidth();
+            float height = gameObject.getHeight();
+
+            if (x < area.x + area.width && x + width > area.x && y < area.y + area.height && y + height > area.y) {
+                occluders.add(new Rectangle2D.Float(x, y, width, height));
+            }
+        }
+
+        candidates.clear();
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public Predicate<GameObject> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets which {@link GameObject}s cast shadows.
+     *
+     * @param filter returns <code>true</code> for every {@link GameObject} that blocks light
+     */
+    public void setFilter(Predicate<GameObject> filter) {
+        this.filter = filter;
+    }
+}
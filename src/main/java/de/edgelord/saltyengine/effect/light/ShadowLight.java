@@ -0,0 +1,372 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect.light;
+
+import de.edgelord.saltyengine.core.annotations.DefaultPlacement;
+import de.edgelord.saltyengine.core.graphics.DerivedImageCache;
+import de.edgelord.saltyengine.effect.geom.EnumShape;
+import de.edgelord.saltyengine.scene.Scene;
+import de.edgelord.saltyengine.transform.Transform;
+import de.edgelord.saltyengine.utils.ColorUtil;
+
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link GradientLight} that doesn't shine through walls. The walls are given by {@link LightOccluder}s, e.g. a
+ * {@link SceneLightOccluder} for the static colliders of a scene or a {@link de.edgelord.saltyengine.effect.DynamicTileGrid}.
+ * <p>
+ * The light computes the polygon that is visible from its centre and cuts everything outside of it out of its images.
+ * Only the occluders within the bounds of the light are taken into account, and the polygon and the images are
+ * only computed again when the light or one of these occluders moved, so a light that stands still next to
+ * walls that stand still costs as much as a {@link GradientLight}.
+ * An example usage:
+ *
+ * <pre>
+ *     {@code
+ *
+ *     ShadowLight light = new ShadowLight(100, 100, 400, 400, EnumShape.OVAL);
+ *     light.addOccluder(new SceneLightOccluder(scene));
+ *     lightSystem.addLight(light);
+ *     }
+ * </pre>
+ */
+@DefaultPlacement(method = DefaultPlacement.Method.TOP_LEFT_CORNER)
+public class ShadowLight extends GradientLight {
+
+    /**
+     * The angle by which additional rays are cast next to every corner, so that they pass the corner and hit
+     * what is behind it.
+     */
+    private static final double CORNER_EPSILON = 1e-4;
+
+    private final List<LightOccluder> occluders = new ArrayList<>();
+
+    private List<Rectangle2D.Float> occluderBounds = new ArrayList<>();
+    private List<Rectangle2D.Float> collectedBounds = new ArrayList<>();
+
+    private Path2D.Float visibilityPolygon;
+    private BufferedImage maskedLight;
+    private BufferedImage maskedColoredLight;
+
+    /**
+     * The state the masked images were computed for.
+     */
+    private BufferedImage maskSource;
+    private int maskX;
+    private int maskY;
+    private boolean maskOutdated = true;
+
+    private int polygonUpdateCount = 0;
+
+    public ShadowLight(Transform transform, Color color, EnumShape shape, float... arcIfRoundRect) {
+        super(transform, color, shape, arcIfRoundRect);
+    }
+
+    public ShadowLight(Transform transform, EnumShape shape, float... arcIfRoundRect) {
+        this(transform, ColorUtil.TRANSPARENT_COLOR, shape, arcIfRoundRect);
+    }
+
+    public ShadowLight(float x, float y, float width, float height, EnumShape shape, float... arcIfRoundRect) {
+        this(new Transform(x, y, width, height), shape, arcIfRoundRect);
+    }
+
+    /**
+     * Collects the occluders within the bounds of this light and marks it as changed if any of them moved since the
+     * last frame. This is called by the {@link LightSystem} once per frame.
+     */
+    @Override
+    protected void update() {
+        Rectangle2D.Float area = new Rectangle2D.Float(getX(), getY(), getWidth(), getHeight());
+
+        // the occluders are read on the render thread while the tick thread moves them
+        synchronized (Scene.concurrentBlock) {
+            for (LightOccluder occluder : occluders) {
+                occluder.collectOccluders(area, collectedBounds);
+            }
+        }
+
+        if (!collectedBounds.equals(occluderBounds)) {
+            List<Rectangle2D.Float> oldBounds = occluderBounds;
+            occluderBounds = collectedBounds;
+            collectedBounds = oldBounds;
+            maskOutdated = true;
+            changed();
+        }
+
+        collectedBounds.clear();
+    }
+
+    @Override
+    public void draw(Graphics2D graphics) {
+        graphics.drawImage(getLightImage(), Math.round(getX()), Math.round(getY()), null);
+    }
+
+    @Override
+    public void drawColorMap(Graphics2D graphics) {
+        graphics.drawImage(getColorMapImage(), Math.round(getX()), Math.round(getY()), null);
+    }
+
+    @Override
+    public BufferedImage getLightImage() {
+        updateMask();
+        return maskedLight;
+    }
+
+    @Override
+    public BufferedImage getColorMapImage() {
+        updateMask();
+        return maskedColoredLight;
+    }
+
+    /**
+     * Computes the visibility polygon and the masked images again if the light or its occluders changed
+     * since they were computed the last time.
+     */
+    private void updateMask() {
+        BufferedImage light = super.getLightImage();
+        int x = Math.round(getX());
+        int y = Math.round(getY());
+
+        if (!maskOutdated && light == maskSource && x == maskX && y == maskY) {
+            return;
+        }
+
+        visibilityPolygon = computeVisibilityPolygon(getX() + getWidth() / 2f, getY() + getHeight() / 2f,
+                new Rectangle2D.Float(x, y, light.getWidth(), light.getHeight()), occluderBounds);
+        polygonUpdateCount++;
+
+        releaseMasks();
+        maskedLight = mask(light, x, y);
+        maskedColoredLight = mask(super.getColorMapImage(), x, y);
+        maskSource = light;
+        maskX = x;
+        maskY = y;
+        maskOutdated = false;
+    }
+
+    private BufferedImage mask(BufferedImage image, int x, int y) {
+        BufferedImage masked = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = masked.createGraphics();
+
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.translate(-x, -y);
+        graphics.setColor(Color.WHITE);
+        graphics.fill(visibilityPolygon);
+        graphics.translate(x, y);
+        graphics.setComposite(AlphaComposite.SrcIn);
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+
+        return masked;
+    }
+
+    /**
+     * Computes the polygon that is visible from the given origin within the given bounds by casting a ray at every
+     * corner of the occluders and of the bounds, and two more slightly next to it, and connecting the points where
+     * these rays hit something first.
+     *
+     * @param originX   the x position of the origin of the light
+     * @param originY   the y position of the origin of the light
+     * @param bounds    the area that is lit
+     * @param occluders the rectangles that block the light
+     * @return the visible polygon
+     */
+    static Path2D.Float computeVisibilityPolygon(float originX, float originY, Rectangle2D.Float bounds, List<Rectangle2D.Float> occluders) {
+        // the edges of all occluders clipped to the bounds, and the edges of the bounds, as x1, y1, x2, y2
+        float[] segments = new float[(occluders.size() * 2 + 4) * 4];
+        int segmentCount = addRectangle(segments, 0, bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height);
+
+        for (Rectangle2D.Float occluder : occluders) {
+            float minX = Math.max(occluder.x, bounds.x);
+            float minY = Math.max(occluder.y, bounds.y);
+            float maxX = Math.min(occluder.x + occluder.width, bounds.x + bounds.width);
+            float maxY = Math.min(occluder.y + occluder.height, bounds.y + bounds.height);
+
+            // occluders that contain the origin would block everything, so the light shines out of them instead
+            if (minX >= maxX || minY >= maxY || (originX > minX && originX < maxX && originY > minY && originY < maxY)) {
+                continue;
+            }
+
+            // only the edges that face the origin can be hit first, and their ends are the corners that cast shadows
+            if (originY < minY) {
+                segmentCount = addSegment(segments, segmentCount, minX, minY, maxX, minY);
+            } else if (originY > maxY) {
+                segmentCount = addSegment(segments, segmentCount, minX, maxY, maxX, maxY);
+            }
+            if (originX < minX) {
+                segmentCount = addSegment(segments, segmentCount, minX, minY, minX, maxY);
+            } else if (originX > maxX) {
+                segmentCount = addSegment(segments, segmentCount, maxX, minY, maxX, maxY);
+            }
+        }
+
+        double[] angles = new double[segmentCount * 6];
+        for (int i = 0; i < segmentCount * 2; i++) {
+            double angle = Math.atan2(segments[i * 2 + 1] - originY, segments[i * 2] - originX);
+            angles[i * 3] = angle - CORNER_EPSILON;
+            angles[i * 3 + 1] = angle;
+            angles[i * 3 + 2] = angle + CORNER_EPSILON;
+        }
+        Arrays.sort(angles);
+
+        Path2D.Float polygon = new Path2D.Float(Path2D.WIND_NON_ZERO, angles.length);
+        double lastAngle = Double.NaN;
+
+        for (double angle : angles) {
+            if (angle == lastAngle) {
+                continue;
+            }
+            lastAngle = angle;
+
+            double directionX = Math.cos(angle);
+            double directionY = Math.sin(angle);
+            double nearest = Double.POSITIVE_INFINITY;
+
+            for (int i = 0; i < segmentCount; i++) {
+                double distance = intersect(originX, originY, directionX, directionY, segments, i * 4);
+
+                if (distance < nearest) {
+                    nearest = distance;
+                }
+            }
+
+            if (nearest == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+
+            float x = (float) (originX + directionX * nearest);
+            float y = (float) (originY + directionY * nearest);
+
+            if (polygon.getCurrentPoint() == null) {
+                polygon.moveTo(x, y);
+            } else {
+                polygon.lineTo(x, y);
+            }
+        }
+
+        polygon.closePath();
+        return polygon;
+    }
+
+    private static int addRectangle(float[] segments, int segmentCount, float minX, float minY, float maxX, float maxY) {
+        segmentCount = addSegment(segments, segmentCount, minX, minY, maxX, minY);
+        segmentCount = addSegment(segments, segmentCount, maxX, minY, maxX, maxY);
+        segmentCount = addSegment(segments, segmentCount, maxX, maxY, minX, maxY);
+        return addSegment(segments, segmentCount, minX, maxY, minX, minY);
+    }
+
+    private static int addSegment(float[] segments, int segmentCount, float x1, float y1, float x2, float y2) {
+        int i = segmentCount * 4;
+
+        segments[i] = x1;
+        segments[i + 1] = y1;
+        segments[i + 2] = x2;
+        segments[i + 3] = y2;
+
+        return segmentCount + 1;
+    }
+
+    /**
+     * Returns the distance from the origin to the point where the given ray hits the given segment or
+     * {@link Double#POSITIVE_INFINITY} if it misses it.
+     */
+    private static double intersect(double originX, double originY, double directionX, double directionY, float[] segments, int offset) {
+        double x1 = segments[offset];
+        double y1 = segments[offset + 1];
+        double segmentX = segments[offset + 2] - x1;
+        double segmentY = segments[offset + 3] - y1;
+
+        double denominator = directionX * segmentY - directionY * segmentX;
+
+        if (denominator == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double toStartX = x1 - originX;
+        double toStartY = y1 - originY;
+        double distance = (toStartX * segmentY - toStartY * segmentX) / denominator;
+        double position = (toStartX * directionY - toStartY * directionX) / denominator;
+
+        if (distance < 0 || position < 0 || position > 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return distance;
+    }
+
+    /**
+     * Adds an occluder that blocks the light of this light.
+     *
+     * @param occluder the occluder
+     */
+    public void addOccluder(LightOccluder occluder) {
+        occluders.add(occluder);
+        maskOutdated = true;
+        changed();
+    }
+
+    public void removeOccluder(LightOccluder occluder) {
+        if (occluders.remove(occluder)) {
+            maskOutdated = true;
+            changed();
+        }
+    }
+
+    public List<LightOccluder> getOccluders() {
+        return occluders;
+    }
+
+    /**
+     * @return the polygon that is lit by this light in absolute coordinates or <code>null</code> if the light
+     * wasn't drawn yet
+     */
+    public Shape getVisibilityPolygon() {
+        return visibilityPolygon;
+    }
+
+    /**
+     * @return how often the visibility polygon was computed, which is useful to check that it is cached
+     */
+    public int getPolygonUpdateCount() {
+        return polygonUpdateCount;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        releaseMasks();
+        maskedLight = null;
+        maskedColoredLight = null;
+        maskSource = null;
+    }
+
+    /**
+     * Drops the scaled copies of the masked images that the {@link LightSystem} might have cached.
+     */
+    private void releaseMasks() {
+        if (maskedLight != null) {
+            DerivedImageCache.getDefault().invalidate(maskedLight);
+            DerivedImageCache.getDefault().invalidate(maskedColoredLight);
+        }
+    }
+}
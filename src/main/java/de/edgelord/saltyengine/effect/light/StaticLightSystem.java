@@ -17,7 +17,6 @@
 package de.edgelord.saltyengine.effect.light;
 
 import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
-import de.edgelord.saltyengine.transform.Coordinates2f;
 
 import java.awt.*;
 
@@ -44,7 +43,7 @@ public class StaticLightSystem extends LightSystem {
             scheduleUpdate = false;
         }
 
-        saltyGraphics.drawImage(lightMap, Coordinates2f.zero());
+        drawLightMap(saltyGraphics, 0, 0);
     }
 
     public void scheduleUpdate() {
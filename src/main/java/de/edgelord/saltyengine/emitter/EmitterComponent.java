@@ -23,11 +23,13 @@ import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
 import de.edgelord.saltyengine.core.stereotypes.ComponentContainer;
 import de.edgelord.saltyengine.emitter.prc.PlainColorParticleRenderContext;
 import de.edgelord.saltyengine.gameobject.Components;
+import de.edgelord.saltyengine.gameobject.GameObject;
 import de.edgelord.saltyengine.transform.Coordinates2f;
 import de.edgelord.saltyengine.transform.Dimensions;
 import de.edgelord.saltyengine.utils.ColorUtil;
 import de.edgelord.saltyengine.utils.GeneralUtil;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -37,6 +39,9 @@ import java.util.List;
  * A {@link Component} that emits {@link Particle}s from its {@link de.edgelord.saltyengine.gameobject.GameObject} parent.
  * It emits instances of {@link #particle}, whose dimensions can be manipulated with {@link #fixedParticleDimensions} or
  * {@link #fixedMinParticleDimensions} and {@link #fixedMaxParticleDimensions}.
+ * <p>
+ * As every particle is an object, this is meant for a few hundred particles at most. For more particles,
+ * use a {@link ParticleSystemComponent}.
  */
 @DefaultPlacement(method = DefaultPlacement.Method.PARENT)
 public abstract class EmitterComponent extends Component<ComponentContainer> {
@@ -104,6 +109,11 @@ public abstract class EmitterComponent extends Component<ComponentContainer> {
      */
     private Class<? extends Particle> particle;
 
+    /**
+     * The constructor of {@link #particle}, looked up when the first particle is created.
+     */
+    private Constructor<? extends Particle> particleConstructor;
+
     /**
      * The constructor.
      *
@@ -115,6 +125,11 @@ public abstract class EmitterComponent extends Component<ComponentContainer> {
      */
     public EmitterComponent(ComponentContainer parent, String name, Class<? extends Particle> particle, float amount, int waveDuration) {
         super(parent, name, Components.EMITTER_COMPONENT);
+
+        // the particles fly around in the scene, far outside of the bounds of their owner
+        if (parent instanceof GameObject) {
+            ((GameObject) parent).setCullable(false);
+        }
         this.particle = particle;
         this.amount = amount;
         this.waveDuration = waveDuration;
@@ -181,6 +196,9 @@ public abstract class EmitterComponent extends Component<ComponentContainer> {
 
     /**
      * Draws all {@link Particle}s within {@link #currentParticles} by calling {@link Particle#draw(SaltyGraphics)}.
+     * As every particle draws itself and might be configured differently by the {@link ParticleRenderContext},
+     * they are drawn one by one; use a {@link ParticleSystemComponent} with a
+     * {@link de.edgelord.saltyengine.emitter.pipeline.ShapeParticleRenderer} to draw many particles from sprites.
      *
      * @param saltyGraphics the graphics to render the particles, this is internally passed in.
      */
@@ -201,7 +219,11 @@ public abstract class EmitterComponent extends Component<ComponentContainer> {
     public Particle createParticle() {
         try {
 
-            Particle particle = this.particle.getConstructor(Integer.class).newInstance(currentWave);
+            if (particleConstructor == null) {
+                particleConstructor = this.particle.getConstructor(Integer.class);
+            }
+
+            Particle particle = particleConstructor.newInstance(currentWave);
 
             if (fixedParticleDimensions != null) {
                 particle.setDimensions(fixedParticleDimensions);
@@ -23,6 +23,8 @@ import de.edgelord.saltyengine.core.interfaces.TransformedObject;
 import de.edgelord.saltyengine.transform.Transform;
 import de.edgelord.saltyengine.utils.Directions;
 
+import java.awt.*;
+
 /**
  * A {@link Particle} is a physics-independent drawable object that has a transform.
  * <code>Particle</code>s can be emitted by {@link EmitterComponent}s.
@@ -49,6 +51,11 @@ public abstract class Particle implements TransformedObject, Drawable {
      */
     private final Integer waveNumber;
 
+    /**
+     * The color a {@link ParticleRenderContext} chose for this particle, or <code>null</code>.
+     */
+    private Color color = null;
+
     public Particle(Integer waveNumber) {
         this.waveNumber = waveNumber;
         transform = Transform.zero();
@@ -80,4 +87,18 @@ public abstract class Particle implements TransformedObject, Drawable {
     public int getWaveNumber() {
         return waveNumber;
     }
+
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Sets the color of this particle. This is meant to be used by {@link ParticleRenderContext}s that give every
+     * particle its own color, so that the color is dropped together with the particle.
+     *
+     * @param color the color of this particle
+     */
+    public void setColor(Color color) {
+        this.color = color;
+    }
 }
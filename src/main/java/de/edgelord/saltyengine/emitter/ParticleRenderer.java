@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter;
+
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+
+/**
+ * Draws the particles of a {@link ParticleSystemComponent}.
+ */
+@FunctionalInterface
+public interface ParticleRenderer {
+
+    /**
+     * Draws all living particles of the given store.
+     *
+     * @param store         the store of the particles
+     * @param saltyGraphics the graphics to draw with
+     */
+    void render(ParticleStore store, SaltyGraphics saltyGraphics);
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter;
+
+import de.edgelord.saltyengine.transform.Transform;
+
+import java.util.SplittableRandom;
+
+/**
+ * Initializes new particles of a {@link ParticleSystemComponent}.
+ */
+@FunctionalInterface
+public interface ParticleSpawner {
+
+    /**
+     * Sets the attributes of the new particle with the given index. All attributes are zero before.
+     *
+     * @param store  the store of the particles
+     * @param index  the index of the new particle
+     * @param origin the transform of the parent of the {@link ParticleSystemComponent}
+     * @param random the random number generator of the {@link ParticleSystemComponent}, which makes the particles
+     *               the same every time for the same seed
+     */
+    void spawn(ParticleStore store, int index, Transform origin, SplittableRandom random);
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter;
+
+/**
+ * The particles of a {@link ParticleSystemComponent}, stored in preallocated arrays of primitives, one array per
+ * attribute and one index per particle, so that the particles can be spawned, moved and drawn without creating objects.
+ * <p>
+ * Only the first {@link #getCount()} entries of the arrays belong to living particles. When a particle is removed, the last
+ * particle is moved into its place, so indices are only valid until the next call of {@link #advance(int)}.
+ * <p>
+ * The position of a particle is its centre.
+ */
+public class ParticleStore {
+
+    /**
+     * The age of particles that were {@link #kill(int) killed}.
+     */
+    public static final int KILLED = Integer.MAX_VALUE;
+
+    private final int capacity;
+
+    private final float[] positionX;
+    private final float[] positionY;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] size;
+    private final int[] age;
+    private final int[] colorIndex;
+
+    private int count = 0;
+
+    /**
+     * The number of particles that were not spawned because the store was full.
+     */
+    private long droppedCount = 0;
+
+    public ParticleStore(int capacity) {
+        this.capacity = capacity;
+
+        positionX = new float[capacity];
+        positionY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        size = new float[capacity];
+        age = new int[capacity];
+        colorIndex = new int[capacity];
+    }
+
+    /**
+     * Adds a new particle with all attributes set to zero.
+     *
+     * @return the index of the new particle or <code>-1</code> if the store is full
+     */
+    public int add() {
+        if (count == capacity) {
+            droppedCount++;
+            return -1;
+        }
+
+        int index = count++;
+        positionX[index] = 0f;
+        positionY[index] = 0f;
+        velocityX[index] = 0f;
+        velocityY[index] = 0f;
+        size[index] = 0f;
+        age[index] = 0;
+        colorIndex[index] = 0;
+
+        return index;
+    }
+
+    /**
+     * Marks the particle with the given index as dead, so that it is removed with the next call of {@link #advance(int)}.
+     * Unlike removing it, this can be done while iterating over the particles, also from multiple threads.
+     *
+     * @param index the index of the particle
+     */
+    public void kill(int index) {
+        age[index] = KILLED;
+    }
+
+    /**
+     * Removes the particle with the given index by moving the last particle into its place.
+     *
+     * @param index the index of the particle
+     */
+    public void remove(int index) {
+        int last = --count;
+
+        positionX[index] = positionX[last];
+        positionY[index] = positionY[last];
+        velocityX[index] = velocityX[last];
+        velocityY[index] = velocityY[last];
+        size[index] = size[last];
+        age[index] = age[last];
+        colorIndex[index] = colorIndex[last];
+    }
+
+    /**
+     * Increments the age of every particle and removes the ones that were killed or reached the given lifespan.
+     *
+     * @param lifespan the number of ticks a particle lives
+     * @return the number of removed particles
+     */
+    public int advance(int lifespan) {
+        int removed = 0;
+        int index = 0;
+
+        while (index < count) {
+            if (age[index] == KILLED || ++age[index] >= lifespan) {
+                remove(index);
+                removed++;
+            } else {
+                index++;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Removes all particles.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * @return the number of living particles
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return the x positions of the centres of the particles
+     */
+    public float[] getPositionX() {
+        return positionX;
+    }
+
+    /**
+     * @return the y positions of the centres of the particles
+     */
+    public float[] getPositionY() {
+        return positionY;
+    }
+
+    /**
+     * @return the horizontal velocities of the particles in pixels per fixed tick
+     */
+    public float[] getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * @return the vertical velocities of the particles in pixels per fixed tick
+     */
+    public float[] getVelocityY() {
+        return velocityY;
+    }
+
+    /**
+     * @return the diameters of the particles
+     */
+    public float[] getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of fixed ticks every particle lived, or {@link #KILLED}
+     */
+    public int[] getAge() {
+        return age;
+    }
+
+    /**
+     * @return the indices of the colors of the particles within the colors of the {@link ParticleRenderer}
+     */
+    public int[] getColorIndex() {
+        return colorIndex;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter;
+
+import de.edgelord.saltyengine.core.Component;
+import de.edgelord.saltyengine.core.annotations.DefaultPlacement;
+import de.edgelord.saltyengine.core.event.CollisionEvent;
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+import de.edgelord.saltyengine.core.stereotypes.ComponentContainer;
+import de.edgelord.saltyengine.gameobject.Components;
+import de.edgelord.saltyengine.gameobject.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A {@link Component} that emits particles from its {@link de.edgelord.saltyengine.gameobject.GameObject} parent, like
+ * an {@link EmitterComponent}, but without one object per particle.
+ * <p>
+ * The particles are stored in a {@link ParticleStore} with a fixed capacity, and what happens to them is defined by a
+ * pipeline of exchangeable parts:
+ * <ul>
+ *     <li>a {@link ParticleSpawner} sets up {@link #getAmount()} new particles every {@link #getWaveDuration()} fixed ticks</li>
+ *     <li>the {@link ParticleUpdater}s change all particles every fixed tick, e.g. move them</li>
+ *     <li>a {@link ParticleRenderer} draws them</li>
+ * </ul>
+ * Particles are removed after {@link #getLifespan()} fixed ticks or when an updater kills them.
+ * <p>
+ * The updaters are called for chunks of {@link #CHUNK_SIZE} particles, each with its own random number generator
+ * derived from the seed. With more than {@link #getParallelThreshold()} particles, the chunks are updated in parallel
+ * using the common {@link ForkJoinPool}. As the chunks and their random numbers don't depend on that, the particles are
+ * the same with and without parallel updates for the same {@link #setSeed(long) seed}. Therefore, updaters must only
+ * read and write the particles of the range they are called for, and must not change any state of their own while updating.
+ * <p>
+ * An example using the parts of {@link de.edgelord.saltyengine.emitter.pipeline}:
+ *
+ * <pre>
+ *     {@code
+ *
+ *     RainSpawner spawner = new RainSpawner(2f, 4f);
+ *     ShapeParticleRenderer renderer = new ShapeParticleRenderer(EnumShape.OVAL, ColorUtil.DODGER_BLUE, ColorUtil.BLUE);
+ *     ParticleSystemComponent rain = new ParticleSystemComponent(cloud, "rain", 100000, spawner, renderer, 200, 1);
+ *     rain.addUpdater(new MotionUpdater(0f, .05f));
+ *     rain.setLifespan(400);
+ *     cloud.addComponent(rain);
+ *     }
+ * </pre>
+ */
+@DefaultPlacement(method = DefaultPlacement.Method.PARENT)
+public class ParticleSystemComponent extends Component<ComponentContainer> {
+
+    /**
+     * The lifespan of particles if no other one is set.
+     */
+    public static final int DEFAULT_LIFESPAN = 1000;
+
+    /**
+     * The number of particles that are updated together, with one random number generator.
+     */
+    public static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The number of particles above which they are updated in parallel if no other threshold is set.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 16384;
+
+    /**
+     * Used to derive the seeds of the chunks from the seed of a tick.
+     */
+    private static final long CHUNK_SEED_INCREMENT = 0x9e3779b97f4a7c15L;
+
+    private final ParticleStore store;
+
+    private ParticleSpawner spawner;
+    private final List<ParticleUpdater> updaters = new ArrayList<>();
+    private ParticleRenderer renderer;
+
+    /**
+     * The number of particles that are spawned in one wave.
+     */
+    private int amount;
+
+    /**
+     * The number of fixed ticks between two waves.
+     */
+    private int waveDuration;
+
+    /**
+     * The number of fixed ticks after which a particle is removed.
+     */
+    private int lifespan = DEFAULT_LIFESPAN;
+
+    private int ticks = 0;
+
+    private SplittableRandom random;
+
+    /**
+     * The number of particles above which they are updated in parallel.
+     */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * The constructor.
+     *
+     * @param parent       the {@link de.edgelord.saltyengine.gameobject.GameObject} that owns this {@link Component}
+     * @param name         the id-name of the component
+     * @param capacity     the maximum number of particles at the same time
+     * @param spawner      the spawner that sets up new particles
+     * @param renderer     the renderer that draws the particles
+     * @param amount       the number of particles spawned per wave
+     * @param waveDuration the number of fixed ticks between two waves
+     */
+    public ParticleSystemComponent(ComponentContainer parent, String name, int capacity, ParticleSpawner spawner, ParticleRenderer renderer, int amount, int waveDuration) {
+        super(parent, name, Components.EMITTER_COMPONENT);
+
+        // the particles fly around in the scene, far outside of the bounds of their owner
+        if (parent instanceof GameObject) {
+            ((GameObject) parent).setCullable(false);
+        }
+
+        this.store = new ParticleStore(capacity);
+        this.spawner = spawner;
+        this.renderer = renderer;
+        this.amount = amount;
+        this.waveDuration = waveDuration;
+        this.random = new SplittableRandom();
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void onCollision(CollisionEvent event) {
+    }
+
+    /**
+     * Spawns a new wave if it's time for it, calls all {@link ParticleUpdater}s for all particles and removes
+     * the ones that are killed or too old.
+     */
+    @Override
+    public void onFixedTick() {
+        if (++ticks >= waveDuration) {
+            ticks = 0;
+            spawnWave();
+        }
+
+        if (!updaters.isEmpty()) {
+            updateParticles();
+        }
+
+        store.advance(lifespan);
+    }
+
+    private void updateParticles() {
+        for (ParticleUpdater updater : updaters) {
+            updater.prepare(store);
+        }
+
+        int chunkCount = (store.getCount() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        long tickSeed = random.nextLong();
+
+        if (store.getCount() > parallelThreshold && chunkCount > 1 && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            ForkJoinPool.commonPool().invoke(new Chunks(0, chunkCount, tickSeed));
+        } else {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                updateChunk(chunk, tickSeed);
+            }
+        }
+    }
+
+    private void updateChunk(int chunk, long tickSeed) {
+        int from = chunk * CHUNK_SIZE;
+        int to = Math.min(store.getCount(), from + CHUNK_SIZE);
+        SplittableRandom chunkRandom = new SplittableRandom(tickSeed + chunk * CHUNK_SEED_INCREMENT);
+
+        for (ParticleUpdater updater : updaters) {
+            updater.update(store, from, to, chunkRandom);
+        }
+    }
+
+    @Override
+    public void draw(SaltyGraphics saltyGraphics) {
+        renderer.render(store, saltyGraphics);
+    }
+
+    private void spawnWave() {
+        for (int i = 0; i < amount; i++) {
+            int index = store.add();
+
+            if (index == -1) {
+                return;
+            }
+
+            spawner.spawn(store, index, getParent().getTransform(), random);
+        }
+    }
+
+    /**
+     * Sets the seed of the random number generator that is passed to the spawner and the updaters, so that
+     * the particles are the same every time.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the number of particles above which they are updated in parallel. {@link Integer#MAX_VALUE} disables
+     * parallel updates.
+     *
+     * @param parallelThreshold the number of particles
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public ParticleStore getStore() {
+        return store;
+    }
+
+    public ParticleSpawner getSpawner() {
+        return spawner;
+    }
+
+    public void setSpawner(ParticleSpawner spawner) {
+        this.spawner = spawner;
+    }
+
+    /**
+     * Adds an updater that is called every fixed tick after all updaters that were added before.
+     *
+     * @param updater the updater to add
+     */
+    public void addUpdater(ParticleUpdater updater) {
+        updaters.add(updater);
+    }
+
+    public void removeUpdater(ParticleUpdater updater) {
+        updaters.remove(updater);
+    }
+
+    public List<ParticleUpdater> getUpdaters() {
+        return updaters;
+    }
+
+    public ParticleRenderer getRenderer() {
+        return renderer;
+    }
+
+    public void setRenderer(ParticleRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public void setAmount(int amount) {
+        this.amount = amount;
+    }
+
+    public int getWaveDuration() {
+        return waveDuration;
+    }
+
+    public void setWaveDuration(int waveDuration) {
+        this.waveDuration = waveDuration;
+    }
+
+    public int getLifespan() {
+        return lifespan;
+    }
+
+    public void setLifespan(int lifespan) {
+        this.lifespan = lifespan;
+    }
+
+    private final class Chunks extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final long tickSeed;
+
+        private Chunks(int from, int to, long tickSeed) {
+            this.from = from;
+            this.to = to;
+            this.tickSeed = tickSeed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                updateChunk(from, tickSeed);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunks(from, middle, tickSeed), new Chunks(middle, to, tickSeed));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter;
+
+import java.util.SplittableRandom;
+
+/**
+ * Changes the particles of a {@link ParticleSystemComponent} every fixed tick, e.g. moves them.
+ * <p>
+ * An updater works on a range of particles at once, so it can loop over the arrays of the {@link ParticleStore}
+ * without any calls per particle. It must not add or remove particles, but it can {@link ParticleStore#kill(int) kill} them.
+ * <p>
+ * Large numbers of particles are updated in parallel, so an updater might be called from multiple threads at once,
+ * each time with another range. It must only touch the particles within its range and take all random numbers from
+ * the given generator, so that the result doesn't depend on the threads.
+ */
+@FunctionalInterface
+public interface ParticleUpdater {
+
+    /**
+     * Updates the particles with the indices from <code>from</code> (inclusive) to <code>to</code> (exclusive).
+     *
+     * @param store  the store of the particles
+     * @param from   the index of the first particle to update
+     * @param to     the index after the last particle to update
+     * @param random a random number generator for this range of particles
+     */
+    void update(ParticleStore store, int from, int to, SplittableRandom random);
+
+    /**
+     * Called once per fixed tick on the tick thread before the particles are updated. Updaters that need something
+     * that is the same for all particles, e.g. the nearby parts of the scene, can prepare it here, as it's not
+     * possible to change own state in {@link #update(ParticleStore, int, int, SplittableRandom)}.
+     *
+     * @param store the store of the particles
+     */
+    default void prepare(ParticleStore store) {
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter.pipeline;
+
+import de.edgelord.saltyengine.emitter.ParticleSpawner;
+import de.edgelord.saltyengine.emitter.ParticleStore;
+import de.edgelord.saltyengine.transform.Transform;
+
+import java.util.SplittableRandom;
+
+/**
+ * A {@link ParticleSpawner} that gives new particles a random size between {@link #getMinSize()} and {@link #getMaxSize()}
+ * and a random color out of the first {@link #getColorCount()} colors of the renderer. Subclasses set the position and
+ * the velocity.
+ */
+public abstract class BasicParticleSpawner implements ParticleSpawner {
+
+    private float minSize;
+    private float maxSize;
+
+    /**
+     * The speed of new particles in pixels per fixed tick.
+     */
+    private float speed = .5f;
+
+    private int colorCount = 1;
+
+    public BasicParticleSpawner(float minSize, float maxSize) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+
+    public BasicParticleSpawner(float size) {
+        this(size, size);
+    }
+
+    @Override
+    public void spawn(ParticleStore store, int index, Transform origin, SplittableRandom random) {
+        store.getSize()[index] = minSize == maxSize ? minSize : minSize + (float) random.nextDouble() * (maxSize - minSize);
+
+        if (colorCount > 1) {
+            store.getColorIndex()[index] = random.nextInt(colorCount);
+        }
+
+        spawnParticle(store, index, origin, random);
+    }
+
+    /**
+     * Sets the position and the velocity of the new particle with the given index.
+     *
+     * @param store  the store of the particles
+     * @param index  the index of the new particle
+     * @param origin the transform of the parent of the emitter
+     * @param random the random number generator of the emitter
+     */
+    protected abstract void spawnParticle(ParticleStore store, int index, Transform origin, SplittableRandom random);
+
+    public float getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(float minSize) {
+        this.minSize = minSize;
+    }
+
+    public float getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(float maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(float speed) {
+        this.speed = speed;
+    }
+
+    public int getColorCount() {
+        return colorCount;
+    }
+
+    /**
+     * Sets among how many colors of the renderer the color of new particles is chosen.
+     *
+     * @param colorCount the number of colors
+     */
+    public void setColorCount(int colorCount) {
+        this.colorCount = colorCount;
+    }
+}
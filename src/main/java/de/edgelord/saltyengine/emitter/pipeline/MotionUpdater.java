@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter.pipeline;
+
+import de.edgelord.saltyengine.emitter.ParticleStore;
+import de.edgelord.saltyengine.emitter.ParticleUpdater;
+
+import java.util.SplittableRandom;
+
+/**
+ * Moves every particle by its velocity every fixed tick, after accelerating it by a constant acceleration,
+ * e.g. gravity.
+ */
+public class MotionUpdater implements ParticleUpdater {
+
+    private float accelerationX;
+    private float accelerationY;
+
+    public MotionUpdater(float accelerationX, float accelerationY) {
+        this.accelerationX = accelerationX;
+        this.accelerationY = accelerationY;
+    }
+
+    public MotionUpdater() {
+        this(0f, 0f);
+    }
+
+    @Override
+    public void update(ParticleStore store, int from, int to, SplittableRandom random) {
+        float[] positionX = store.getPositionX();
+        float[] positionY = store.getPositionY();
+        float[] velocityX = store.getVelocityX();
+        float[] velocityY = store.getVelocityY();
+
+        for (int i = from; i < to; i++) {
+            velocityX[i] += accelerationX;
+            velocityY[i] += accelerationY;
+            positionX[i] += velocityX[i];
+            positionY[i] += velocityY[i];
+        }
+    }
+
+    public float getAccelerationX() {
+        return accelerationX;
+    }
+
+    public void setAccelerationX(float accelerationX) {
+        this.accelerationX = accelerationX;
+    }
+
+    public float getAccelerationY() {
+        return accelerationY;
+    }
+
+    public void setAccelerationY(float accelerationY) {
+        this.accelerationY = accelerationY;
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter.pipeline;
+
+import de.edgelord.saltyengine.effect.DynamicTileGrid;
+import de.edgelord.saltyengine.emitter.ParticleStore;
+import de.edgelord.saltyengine.emitter.ParticleUpdater;
+import de.edgelord.saltyengine.gameobject.GameObject;
+import de.edgelord.saltyengine.scene.Scene;
+import de.edgelord.saltyengine.scene.SpatialGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+/**
+ * Lets particles collide with the static parts of a scene, so that e.g. rain stops at the floor. Depending on the
+ * {@link Mode}, particles that hit something are killed, bounce off or stick to it.
+ * <p>
+ * Particles collide with the bounds of the {@link GameObject#isStationary() stationary} {@link GameObject}s of a scene,
+ * which includes the hitboxes of a {@link de.edgelord.saltyengine.effect.StaticTileGrid}, and with the tiles of
+ * {@link DynamicTileGrid}s that are not empty. Particles are treated as points at their centre. The updater has
+ * to be added after the updater that moves the particles, e.g. a {@link MotionUpdater}.
+ * <p>
+ * Once per fixed tick, the {@link GameObject}s around all particles are taken from the {@link Scene#getSpatialGrid()
+ * spatial grid} of the scene and sorted into cells, so that every particle is only tested against the ones in its cell.
+ * Tiles are looked up directly. Particles that move so fast that they pass an obstacle within one tick don't collide with it.
+ */
+public class ParticleCollisionUpdater implements ParticleUpdater {
+
+    /**
+     * What happens to particles that hit something.
+     */
+    public enum Mode {
+
+        /**
+         * The particle is removed.
+         */
+        KILL,
+
+        /**
+         * The particle is reflected off the side of the obstacle it hit, losing speed by the bounciness.
+         */
+        BOUNCE,
+
+        /**
+         * The particle stops at the side of the obstacle it hit.
+         */
+        STICK
+    }
+
+    /**
+     * The maximum number of cells along each side of the area the obstacles are sorted into.
+     */
+    private static final int MAX_CELLS = 64;
+
+    /**
+     * The minimum size of a cell, so that small areas are not split into tiny cells.
+     */
+    private static final float MIN_CELL_SIZE = 16f;
+
+    private final Scene scene;
+    private Predicate<GameObject> filter = GameObject::isStationary;
+    private final List<DynamicTileGrid> tileGrids = new ArrayList<>();
+
+    private Mode mode;
+
+    /**
+     * The share of the speed a particle keeps when it bounces off something.
+     */
+    private float bounciness = .5f;
+
+    private final List<GameObject> candidates = new ArrayList<>();
+
+    /**
+     * The obstacles of the current tick, sorted into cells. The bounds of the obstacle <code>o</code> are stored
+     * at <code>o * 4</code> to <code>o * 4 + 3</code> as min x, min y, max x and max y, and the obstacles of the
+     * cell <code>c</code> are at <code>cellObstacles[cellStarts[c]]</code> to <code>cellObstacles[cellStarts[c + 1] - 1]</code>.
+     * <p>
+     * This state is only changed in {@link #prepare(ParticleStore)} and read from multiple threads during the updates.
+     */
+    private float[] obstacleBounds = new float[0];
+    private int[] cellStarts = new int[1];
+    private int[] cellObstacles = new int[0];
+    private int obstacleCount = 0;
+    private float gridX;
+    private float gridY;
+    private float cellSize;
+    private int columns;
+    private int rows;
+
+    /**
+     * Creates an updater that lets particles collide with the given scene.
+     *
+     * @param scene the scene whose stationary {@link GameObject}s the particles collide with, or <code>null</code>
+     *              to only collide with the {@link #addTileGrid(DynamicTileGrid) tile grids}
+     * @param mode  what happens to particles that hit something
+     */
+    public ParticleCollisionUpdater(Scene scene, Mode mode) {
+        this.scene = scene;
+        this.mode = mode;
+    }
+
+    public ParticleCollisionUpdater(Mode mode) {
+        this(null, mode);
+    }
+
+    @Override
+    public void prepare(ParticleStore store) {
+        obstacleCount = 0;
+        int count = store.getCount();
+
+        if (scene == null || count == 0) {
+            return;
+        }
+
+        // the area of all particles before and after their next movement, with some room for acceleration
+        float[] positionX = store.getPositionX();
+        float[] positionY = store.getPositionY();
+        float[] velocityX = store.getVelocityX();
+        float[] velocityY = store.getVelocityY();
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < count; i++) {
+            float x = positionX[i];
+            float y = positionY[i];
+            float nextX = x + velocityX[i] * 2f;
+            float nextY = y + velocityY[i] * 2f;
+
+            minX = Math.min(minX, Math.min(x, nextX));
+            minY = Math.min(minY, Math.min(y, nextY));
+            maxX = Math.max(maxX, Math.max(x, nextX));
+            maxY = Math.max(maxY, Math.max(y, nextY));
+        }
+
+        collectObstacles(minX, minY, maxX - minX, maxY - minY);
+
+        if (obstacleCount > 0) {
+            sortIntoCells(minX, minY, maxX - minX, maxY - minY);
+        }
+    }
+
+    private void collectObstacles(float x, float y, float width, float height) {
+        SpatialGrid spatialGrid = scene.getSpatialGrid();
+
+        if (spatialGrid != null) {
+            spatialGrid.query(x, y, width, height, candidates);
+        } else {
+            candidates.addAll(scene.withType(GameObject.class));
+        }
+
+        for (GameObject gameObject : candidates) {
+            if (!filter.test(gameObject)) {
+                continue;
+            }
+
+            float minX = gameObject.getWorldX();
+            float minY = gameObject.getWorldY();
+            float maxX = minX + gameObject.getWidth();
+            float maxY = minY + gameObject.getHeight();
+
+            if (minX > x + width || maxX < x || minY > y + height || maxY < y) {
+                continue;
+            }
+
+            if (obstacleBounds.length < (obstacleCount + 1) * 4) {
+                obstacleBounds = Arrays.copyOf(obstacleBounds, Math.max(64, obstacleBounds.length * 2));
+            }
+
+            int offset = obstacleCount++ * 4;
+            obstacleBounds[offset] = minX;
+            obstacleBounds[offset + 1] = minY;
+            obstacleBounds[offset + 2] = maxX;
+            obstacleBounds[offset + 3] = maxY;
+        }
+
+        candidates.clear();
+    }
+
+    private void sortIntoCells(float x, float y, float width, float height) {
+        gridX = x;
+        gridY = y;
+        cellSize = Math.max(MIN_CELL_SIZE, Math.max(width, height) / MAX_CELLS);
+        columns = (int) (width / cellSize) + 1;
+        rows = (int) (height / cellSize) + 1;
+
+        if (cellStarts.length < columns * rows + 1) {
+            cellStarts = new int[columns * rows + 1];
+        } else {
+            Arrays.fill(cellStarts, 0);
+        }
+
+        // count the obstacles per cell, then turn the counts into start indices and fill the cells
+        int entries = 0;
+        for (int obstacle = 0; obstacle < obstacleCount; obstacle++) {
+            int minColumn = column(obstacleBounds[obstacle * 4]);
+            int minRow = row(obstacleBounds[obstacle * 4 + 1]);
+            int maxColumn = column(obstacleBounds[obstacle * 4 + 2]);
+            int maxRow = row(obstacleBounds[obstacle * 4 + 3]);
+
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    cellStarts[row * columns + column + 1]++;
+                    entries++;
+                }
+            }
+        }
+
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+
+        if (cellObstacles.length < entries) {
+            cellObstacles = new int[entries];
+        }
+
+        int[] fill = Arrays.copyOf(cellStarts, columns * rows);
+        for (int obstacle = 0; obstacle < obstacleCount; obstacle++) {
+            int minColumn = column(obstacleBounds[obstacle * 4]);
+            int minRow = row(obstacleBounds[obstacle * 4 + 1]);
+            int maxColumn = column(obstacleBounds[obstacle * 4 + 2]);
+            int maxRow = row(obstacleBounds[obstacle * 4 + 3]);
+
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    cellObstacles[fill[row * columns + column]++] = obstacle;
+                }
+            }
+        }
+    }
+
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) ((x - gridX) / cellSize)));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - gridY) / cellSize)));
+    }
+
+    @Override
+    public void update(ParticleStore store, int from, int to, SplittableRandom random) {
+        float[] positionX = store.getPositionX();
+        float[] positionY = store.getPositionY();
+
+        if (obstacleCount > 0) {
+            for (int i = from; i < to; i++) {
+                float x = positionX[i];
+                float y = positionY[i];
+                int column = (int) Math.floor((x - gridX) / cellSize);
+                int row = (int) Math.floor((y - gridY) / cellSize);
+
+                if (column < 0 || row < 0 || column >= columns || row >= rows) {
+                    continue;
+                }
+
+                int cell = row * columns + column;
+                for (int entry = cellStarts[cell]; entry < cellStarts[cell + 1]; entry++) {
+                    int offset = cellObstacles[entry] * 4;
+
+                    if (x >= obstacleBounds[offset] && x < obstacleBounds[offset + 2] && y >= obstacleBounds[offset + 1] && y < obstacleBounds[offset + 3]) {
+                        collide(store, i, obstacleBounds[offset], obstacleBounds[offset + 1], obstacleBounds[offset + 2], obstacleBounds[offset + 3]);
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (DynamicTileGrid tileGrid : tileGrids) {
+            float originX = tileGrid.getPosition().getX();
+            float originY = tileGrid.getPosition().getY();
+            float tileWidth = tileGrid.getTileSize().getWidth();
+            float tileHeight = tileGrid.getTileSize().getHeight();
+            int gridColumns = tileGrid.getColumns();
+            int gridRows = tileGrid.getRows();
+
+            for (int i = from; i < to; i++) {
+                if (store.getAge()[i] == ParticleStore.KILLED) {
+                    continue;
+                }
+
+                int column = (int) Math.floor((positionX[i] - originX) / tileWidth);
+                int row = (int) Math.floor((positionY[i] - originY) / tileHeight);
+
+                if (column >= 0 && row >= 0 && column < gridColumns && row < gridRows && tileGrid.getTile(column, row) != DynamicTileGrid.EMPTY) {
+                    float minX = originX + column * tileWidth;
+                    float minY = originY + row * tileHeight;
+                    collide(store, i, minX, minY, minX + tileWidth, minY + tileHeight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lets the particle with the given index collide with the given obstacle. The side of the obstacle the particle
+     * hit is found using its position before its last movement. If the particle was already inside the obstacle
+     * before, e.g. because it was emitted there or the obstacle moved, it is pushed out along the axis it
+     * penetrates the least.
+     */
+    private void collide(ParticleStore store, int index, float minX, float minY, float maxX, float maxY) {
+        if (mode == Mode.KILL) {
+            store.kill(index);
+            return;
+        }
+
+        float[] positionX = store.getPositionX();
+        float[] positionY = store.getPositionY();
+        float[] velocityX = store.getVelocityX();
+        float[] velocityY = store.getVelocityY();
+        float previousX = positionX[index] - velocityX[index];
+        float previousY = positionY[index] - velocityY[index];
+
+        if (previousY <= minY || previousY >= maxY) {
+            float side = previousY <= minY ? minY : maxY;
+
+            if (mode == Mode.BOUNCE) {
+                positionY[index] = side - (positionY[index] - side) * bounciness;
+                velocityY[index] = -velocityY[index] * bounciness;
+            } else {
+                positionY[index] = side;
+                velocityX[index] = 0f;
+                velocityY[index] = 0f;
+            }
+        } else if (previousX <= minX || previousX >= maxX) {
+            float side = previousX <= minX ? minX : maxX;
+
+            if (mode == Mode.BOUNCE) {
+                positionX[index] = side - (positionX[index] - side) * bounciness;
+                velocityX[index] = -velocityX[index] * bounciness;
+            } else {
+                positionX[index] = side;
+                velocityX[index] = 0f;
+                velocityY[index] = 0f;
+            }
+        } else {
+            pushOut(store, index, minX, minY, maxX, maxY);
+        }
+    }
+
+    private void pushOut(ParticleStore store, int index, float minX, float minY, float maxX, float maxY) {
+        float[] positionX = store.getPositionX();
+        float[] positionY = store.getPositionY();
+        float[] velocityX = store.getVelocityX();
+        float[] velocityY = store.getVelocityY();
+        float x = positionX[index];
+        float y = positionY[index];
+        float penetrationX = Math.min(x - minX, maxX - x);
+        float penetrationY = Math.min(y - minY, maxY - y);
+
+        if (penetrationY <= penetrationX) {
+            boolean top = y - minY <= maxY - y;
+            positionY[index] = top ? minY : maxY;
+
+            if (mode == Mode.BOUNCE) {
+                // the particle might already be moving out, so it is always sent away from the obstacle
+                float speed = Math.abs(velocityY[index]) * bounciness;
+                velocityY[index] = top ? -speed : speed;
+            } else {
+                velocityX[index] = 0f;
+                velocityY[index] = 0f;
+            }
+        } else {
+            boolean left = x - minX <= maxX - x;
+            positionX[index] = left ? minX : maxX;
+
+            if (mode == Mode.BOUNCE) {
+                float speed = Math.abs(velocityX[index]) * bounciness;
+                velocityX[index] = left ? -speed : speed;
+            } else {
+                velocityX[index] = 0f;
+                velocityY[index] = 0f;
+            }
+        }
+    }
+
+    /**
+     * Adds a tile grid whose tiles that are not empty the particles collide with.
+     *
+     * @param tileGrid the tile grid
+     */
+    public void addTileGrid(DynamicTileGrid tileGrid) {
+        tileGrids.add(tileGrid);
+    }
+
+    public void removeTileGrid(DynamicTileGrid tileGrid) {
+        tileGrids.remove(tileGrid);
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public Predicate<GameObject> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets which {@link GameObject}s of the scene the particles collide with. By default, these are the
+     * {@link GameObject#isStationary() stationary} ones.
+     *
+     * @param filter returns <code>true</code> for every {@link GameObject} the particles collide with
+     */
+    public void setFilter(Predicate<GameObject> filter) {
+        this.filter = filter;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public float getBounciness() {
+        return bounciness;
+    }
+
+    /**
+     * Sets the share of the speed a particle keeps when it bounces off something in {@link Mode#BOUNCE}.
+     *
+     * @param bounciness the share of the speed between 0 and 1
+     */
+    public void setBounciness(float bounciness) {
+        this.bounciness = bounciness;
+    }
+}
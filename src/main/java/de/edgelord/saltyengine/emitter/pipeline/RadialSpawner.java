@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter.pipeline;
+
+import de.edgelord.saltyengine.emitter.ParticleStore;
+import de.edgelord.saltyengine.transform.Transform;
+
+import java.util.SplittableRandom;
+
+/**
+ * Spawns particles at the centre of the parent that move into a random direction with {@link #getSpeed()} pixels
+ * per fixed tick, like a {@link de.edgelord.saltyengine.emitter.components.RandomRadialEmitter}.
+ */
+public class RadialSpawner extends BasicParticleSpawner {
+
+    public RadialSpawner(float minSize, float maxSize) {
+        super(minSize, maxSize);
+    }
+
+    public RadialSpawner(float size) {
+        super(size);
+    }
+
+    @Override
+    protected void spawnParticle(ParticleStore store, int index, Transform origin, SplittableRandom random) {
+        double angle = random.nextDouble() * Math.PI * 2;
+
+        store.getPositionX()[index] = origin.getX() + origin.getWidth() / 2f;
+        store.getPositionY()[index] = origin.getY() + origin.getHeight() / 2f;
+        store.getVelocityX()[index] = (float) Math.cos(angle) * getSpeed();
+        store.getVelocityY()[index] = (float) Math.sin(angle) * getSpeed();
+    }
+}
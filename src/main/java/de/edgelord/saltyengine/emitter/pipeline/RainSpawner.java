@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter.pipeline;
+
+import de.edgelord.saltyengine.emitter.ParticleStore;
+import de.edgelord.saltyengine.transform.Transform;
+
+import java.util.SplittableRandom;
+
+/**
+ * Spawns particles at a random position along the bottom side of the parent and lets them fall down with
+ * {@link #getSpeed()} pixels per fixed tick, like a {@link de.edgelord.saltyengine.emitter.components.RandomRainEmitter}.
+ * Both {@link #getLeftOffset()} and {@link #getRightOffset()} can be used to limit where particles are spawned,
+ * and {@link #getOffsetY()} moves the spawning point down.
+ */
+public class RainSpawner extends BasicParticleSpawner {
+
+    private float leftOffset = 0f;
+    private float rightOffset = 0f;
+    private float offsetY = 0f;
+
+    public RainSpawner(float minSize, float maxSize) {
+        super(minSize, maxSize);
+    }
+
+    public RainSpawner(float size) {
+        super(size);
+    }
+
+    @Override
+    protected void spawnParticle(ParticleStore store, int index, Transform origin, SplittableRandom random) {
+        float width = origin.getWidth() - leftOffset - rightOffset;
+
+        store.getPositionX()[index] = origin.getX() + leftOffset + (float) random.nextDouble() * width;
+        store.getPositionY()[index] = origin.getMaxY() + offsetY;
+        store.getVelocityY()[index] = getSpeed();
+    }
+
+    public float getLeftOffset() {
+        return leftOffset;
+    }
+
+    public void setLeftOffset(float leftOffset) {
+        this.leftOffset = leftOffset;
+    }
+
+    public float getRightOffset() {
+        return rightOffset;
+    }
+
+    public void setRightOffset(float rightOffset) {
+        this.rightOffset = rightOffset;
+    }
+
+    public float getOffsetY() {
+        return offsetY;
+    }
+
+    public void setOffsetY(float offsetY) {
+        this.offsetY = offsetY;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.emitter.pipeline;
+
+import de.edgelord.saltyengine.core.Game;
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+import de.edgelord.saltyengine.effect.geom.EnumShape;
+import de.edgelord.saltyengine.emitter.ParticleRenderer;
+import de.edgelord.saltyengine.emitter.ParticleStore;
+import de.edgelord.saltyengine.utils.ImageUtils;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws every particle as a filled {@link EnumShape#OVAL oval}, {@link EnumShape#RECTANGLE rectangle} or
+ * {@link EnumShape#ROUND_RECTANGLE round rectangle} with the color at its color index.
+ * <p>
+ * The shape is rendered once per color and rounded size into a small sprite, so drawing a particle is a single
+ * image copy without changing the state of the graphics. The sprites are rendered with the quality of
+ * {@link de.edgelord.saltyengine.core.Host#getRenderHints()} when they are needed the first time.
+ * Particles bigger than {@link #MAX_SPRITE_SIZE} are filled directly.
+ */
+public class ShapeParticleRenderer implements ParticleRenderer {
+
+    /**
+     * The size of the biggest particles that are drawn using sprites.
+     */
+    public static final int MAX_SPRITE_SIZE = 64;
+
+    /**
+     * The arc of the corners of round rectangles, relative to the size of the particle.
+     */
+    private static final float ROUND_RECTANGLE_ARC = .25f;
+
+    private final EnumShape shape;
+    private final Color[] colors;
+
+    /**
+     * The sprite of the color <code>c</code> and the size <code>s</code> is stored at <code>c * (MAX_SPRITE_SIZE + 1) + s</code>.
+     */
+    private final BufferedImage[] sprites;
+
+    public ShapeParticleRenderer(EnumShape shape, Color... colors) {
+        if (shape != EnumShape.OVAL && shape != EnumShape.RECTANGLE && shape != EnumShape.ROUND_RECTANGLE) {
+            throw new IllegalArgumentException("Particles can't have the shape " + shape);
+        }
+        if (colors.length == 0) {
+            throw new IllegalArgumentException("A ShapeParticleRenderer needs at least one color");
+        }
+
+        this.shape = shape;
+        this.colors = colors;
+        this.sprites = new BufferedImage[colors.length * (MAX_SPRITE_SIZE + 1)];
+    }
+
+    @Override
+    public void render(ParticleStore store, SaltyGraphics saltyGraphics) {
+        float[] positionX = store.getPositionX();
+        float[] positionY = store.getPositionY();
+        float[] size = store.getSize();
+        int[] colorIndex = store.getColorIndex();
+        int count = store.getCount();
+
+        for (int i = 0; i < count; i++) {
+            int diameter = Math.round(size[i]);
+
+            if (diameter <= 0) {
+                continue;
+            }
+
+            int x = Math.round(positionX[i] - size[i] / 2f);
+            int y = Math.round(positionY[i] - size[i] / 2f);
+
+            if (diameter > MAX_SPRITE_SIZE) {
+                saltyGraphics.setColor(colors[colorIndex[i]]);
+                fillShape(saltyGraphics, x, y, diameter);
+                continue;
+            }
+
+            int spriteIndex = colorIndex[i] * (MAX_SPRITE_SIZE + 1) + diameter;
+            BufferedImage sprite = sprites[spriteIndex];
+
+            if (sprite == null) {
+                sprite = createSprite(colors[colorIndex[i]], diameter);
+                sprites[spriteIndex] = sprite;
+            }
+
+            saltyGraphics.drawImage(sprite, x, y);
+        }
+    }
+
+    private BufferedImage createSprite(Color color, int diameter) {
+        BufferedImage sprite = ImageUtils.createCompatibleImage(diameter, diameter, Transparency.TRANSLUCENT);
+        Graphics2D graphics = sprite.createGraphics();
+
+        graphics.setRenderingHints(Game.getHost().getRenderHints());
+        graphics.setColor(color);
+        fillShape(new SaltyGraphics(graphics), 0, 0, diameter);
+        graphics.dispose();
+
+        return sprite;
+    }
+
+    private void fillShape(SaltyGraphics graphics, int x, int y, int diameter) {
+        switch (shape) {
+            case OVAL:
+                graphics.drawOval(x, y, diameter, diameter);
+                break;
+            case RECTANGLE:
+                graphics.drawRect(x, y, diameter, diameter);
+                break;
+            default:
+                graphics.drawRoundRect(x, y, diameter, diameter, Math.round(diameter * ROUND_RECTANGLE_ARC));
+                break;
+        }
+    }
+
+    public EnumShape getShape() {
+        return shape;
+    }
+
+    public Color[] getColors() {
+        return colors;
+    }
+}
@@ -32,11 +32,6 @@ import java.util.*;
  */
 public class RandomColorProfileParticleRenderContext extends ParticleRenderContext {
 
-    /**
-     * The stored profiles for {@link Particle}s.
-     */
-    private HashMap<Particle, Color> profiles = new HashMap<>();
-
     /**
      * The colors to be used.
      */
@@ -65,16 +60,23 @@ public class RandomColorProfileParticleRenderContext extends ParticleRenderConte
         this.colors.addAll(Arrays.asList(colors));
     }
 
+    /**
+     * Sets the color of the given particle to the graphics. Particles that don't have a color yet get a random one
+     * out of {@link #colors}, which is stored in the particle using {@link Particle#setColor(Color)}.
+     *
+     * @param graphics the graphics to set up.
+     * @param subject  the particle to be rendered next
+     */
     @Override
     public void nextParticleRenderConfig(SaltyGraphics graphics, Particle subject) {
+        Color color = subject.getColor();
 
-        if (profiles.containsKey(subject)) {
-            graphics.setColor(profiles.get(subject));
-        } else {
-            Color color = (Color) GeneralUtil.randomObjectFromList(colors);
-            profiles.put(subject, color);
-            graphics.setColor(color);
+        if (color == null) {
+            color = (Color) GeneralUtil.randomObjectFromList(colors);
+            subject.setColor(color);
         }
+
+        graphics.setColor(color);
     }
 
     public boolean addColor(Color color) {
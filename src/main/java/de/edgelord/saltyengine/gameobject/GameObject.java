@@ -33,14 +33,21 @@ import de.edgelord.saltyengine.core.stereotypes.ComponentContainer;
 import de.edgelord.saltyengine.hitbox.Hitbox;
 import de.edgelord.saltyengine.hitbox.SimpleHitbox;
 import de.edgelord.saltyengine.input.Input;
+import de.edgelord.saltyengine.scene.RenderLayer;
+import de.edgelord.saltyengine.scene.Scene;
 import de.edgelord.saltyengine.scene.SceneManager;
+import de.edgelord.saltyengine.scene.SimulationPolicy;
 import de.edgelord.saltyengine.transform.Coordinates;
 import de.edgelord.saltyengine.transform.Coordinates2f;
 import de.edgelord.saltyengine.transform.Dimensions;
+import de.edgelord.saltyengine.transform.Rotation;
 import de.edgelord.saltyengine.transform.Transform;
 import de.edgelord.saltyengine.utils.Directions;
 
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -84,6 +91,75 @@ public abstract class GameObject extends ComponentContainer implements Drawable,
 
     private boolean initialized = false;
 
+    /**
+     * The {@link Scene} this GameObject was added to or <code>null</code> if it isn't part of any.
+     * This is maintained by {@link Scene#addGameObject(GameObject)} and {@link Scene#removeGameObject(GameObject)}.
+     */
+    private Scene scene = null;
+
+    /**
+     * The activation rule of this GameObject. If this is <code>null</code>, the
+     * {@link SimulationPolicy#getDefaultActivation()} of the scene's policy is used.
+     */
+    private SimulationPolicy.Activation activation = null;
+
+    /**
+     * Whether this GameObject is currently simulated by its {@link Scene}.
+     *
+     * @see SimulationPolicy
+     */
+    private boolean active = true;
+
+    /**
+     * The GameObject this one is attached to or <code>null</code> if this is a root of the transform hierarchy.
+     * While this GameObject has a parent, its {@link #getTransform()} is relative to the top-left corner of that
+     * parent and rotates with it.
+     *
+     * @see #attachTo(GameObject)
+     */
+    private GameObject parentObject = null;
+    private final List<GameObject> children = new ArrayList<>(0);
+    private final List<GameObject> childrenView = Collections.unmodifiableList(children);
+
+    /**
+     * The transformation from the local space of this GameObject into the local space of the scene, which is
+     * the rotation of this GameObject concatenated to the ones of all of its ancestors.
+     * This is only recomputed by {@link #updateWorldTransform(boolean)} when the local transform of this GameObject
+     * or the one of an ancestor changed.
+     */
+    private final AffineTransform drawMatrix = new AffineTransform();
+
+    /**
+     * {@link #drawMatrix} translated to the top-left corner of this GameObject, which is the space
+     * the {@link #children} live in.
+     */
+    private final AffineTransform childMatrix = new AffineTransform();
+
+    private float worldX, worldY, worldRotationDegrees;
+
+    /**
+     * Whether the {@link Scene} may skip drawing this GameObject when its {@link #getDrawBounds(Rectangle2D.Float, boolean)}
+     * are outside of the viewport of the camera. Disable this for GameObjects that draw far outside of their bounds.
+     */
+    private boolean cullable = true;
+
+    /**
+     * The position of this GameObject in the draw order of its {@link Scene}, maintained by the scene.
+     */
+    private long sceneOrder = 0;
+
+    /**
+     * The layer this GameObject is drawn in and its depth within that layer.
+     *
+     * @see RenderLayer
+     */
+    private RenderLayer renderLayer = RenderLayer.DEFAULT;
+    private int zIndex = 0;
+
+    // the local values the cached world transform was computed with
+    private float cachedX = Float.NaN, cachedY, cachedRotationDegrees, cachedCentreX, cachedCentreY;
+    private boolean transformDirty = true;
+
     public GameObject(final float xPos, final float yPos, final float width, final float height, final String tag) {
         super(tag);
 
@@ -140,6 +216,24 @@ public abstract class GameObject extends ComponentContainer implements Drawable,
 
     }
 
+    /**
+     * This method is called when the {@link SimulationPolicy} of the {@link Scene} starts simulating this GameObject
+     * again after it was dormant. It can be overridden but It's not necessary, so it's not abstract.
+     */
+    public void onActivate() {
+
+    }
+
+    /**
+     * This method is called when the {@link SimulationPolicy} of the {@link Scene} stops simulating this GameObject,
+     * e.g. because it is too far away from the camera. From then on, this GameObject won't be ticked nor take part
+     * in any collision detection until {@link #onActivate()} is called.
+     * It can be overridden but It's not necessary, so it's not abstract.
+     */
+    public void onDeactivate() {
+
+    }
+
     public void doFixedTick() {
         // Remove acceleration from default forces
         getPhysics().getForce(SimplePhysicsComponent.DEFAULT_LEFTWARDS_FORCE).setAcceleration(0f);
@@ -200,16 +294,47 @@ public abstract class GameObject extends ComponentContainer implements Drawable,
     @Override
     public void addComponent(Component component) {
         components.add(component);
+        reindex();
+
+        if (scene != null) {
+            component.onAddedToScene(scene);
+
+            if (!active) {
+                component.onDeactivate();
+            }
+        }
     }
 
     @Override
     public void removeComponent(Component component) {
-        components.remove(component);
+        if (components.remove(component)) {
+            reindex();
+
+            if (scene != null) {
+                component.onRemovedFromScene(scene);
+            }
+        }
     }
 
     @Override
     public void removeComponent(final String name) {
-        components.removeIf(gameObjectComponent -> gameObjectComponent.getName().equals(name));
+        Component component;
+
+        while ((component = getComponent(name)) != null) {
+            removeComponent(component);
+        }
+    }
+
+    @Override
+    public void setTag(String tag) {
+        super.setTag(tag);
+        reindex();
+    }
+
+    private void reindex() {
+        if (scene != null) {
+            scene.reindexGameObject(this);
+        }
     }
 
     @Override
@@ -419,6 +544,357 @@ public abstract class GameObject extends ComponentContainer implements Drawable,
         SceneManager.getCurrentScene().removeGameObject(this);
     }
 
+    /**
+     * Returns the {@link Scene} this GameObject is part of.
+     *
+     * @return the {@link Scene} this GameObject was added to or <code>null</code> if it isn't part of any
+     */
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Sets the {@link Scene} this GameObject is part of and calls {@link Component#onRemovedFromScene(Scene)} and
+     * {@link Component#onAddedToScene(Scene)} for all {@link Component}s accordingly. This is called by the {@link Scene}
+     * itself when this GameObject is added to or removed from it, so there's usually no need to call it manually.
+     *
+     * @param scene the {@link Scene} this GameObject is now part of
+     */
+    public void setScene(Scene scene) {
+        if (this.scene == scene) {
+            return;
+        }
+
+        Scene oldScene = this.scene;
+        this.scene = scene;
+
+        for (Component component : components) {
+            if (oldScene != null) {
+                component.onRemovedFromScene(oldScene);
+            }
+            if (scene != null) {
+                component.onAddedToScene(scene);
+
+                if (!active) {
+                    component.onDeactivate();
+                }
+            }
+        }
+    }
+
+    public SimulationPolicy.Activation getActivation() {
+        return activation;
+    }
+
+    public void setActivation(SimulationPolicy.Activation activation) {
+        this.activation = activation;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Sets whether this GameObject is currently simulated and calls {@link #onActivate()} or {@link #onDeactivate()}
+     * and the corresponding methods of all of its {@link Component}s if that state changes.
+     * This is called by the {@link Scene} according to its {@link SimulationPolicy}.
+     *
+     * @param active whether this GameObject should be simulated
+     */
+    public void setActive(boolean active) {
+        if (this.active == active) {
+            return;
+        }
+
+        this.active = active;
+
+        for (Component component : components) {
+            if (active) {
+                component.onActivate();
+            } else {
+                component.onDeactivate();
+            }
+        }
+
+        if (active) {
+            onActivate();
+        } else {
+            onDeactivate();
+        }
+    }
+
+    /**
+     * Attaches this GameObject to the given one. From then on, the {@link #getTransform()} of this GameObject is
+     * interpreted relative to the top-left corner of the given parent and rotated along with it, so that it moves with
+     * its parent without any manual synchronization. Drawing and collision detection use the resulting world values,
+     * see {@link #getWorldX()}, {@link #getWorldY()} and {@link #getWorldRotationDegrees()}.
+     * <p>
+     * Both GameObjects still have to be added to the {@link Scene} separately.
+     *
+     * @param parent the new parent or <code>null</code> to make this GameObject a root again
+     * @throws IllegalArgumentException if this GameObject is the given one or one of its ancestors
+     */
+    public void attachTo(GameObject parent) {
+
+        for (GameObject ancestor = parent; ancestor != null; ancestor = ancestor.parentObject) {
+            if (ancestor == this) {
+                throw new IllegalArgumentException("A GameObject can't be attached to itself or one of its descendants!");
+            }
+        }
+
+        if (parentObject != null) {
+            parentObject.children.remove(this);
+        }
+
+        parentObject = parent;
+
+        if (parent != null) {
+            parent.children.add(this);
+        }
+
+        markTransformDirty();
+    }
+
+    /**
+     * Detaches this GameObject from its parent, see {@link #attachTo(GameObject)}.
+     */
+    public void detach() {
+        attachTo(null);
+    }
+
+    /**
+     * Forces the cached world transform of this GameObject and all of its descendants to be recomputed on the
+     * next {@link #updateWorldTransform(boolean)}. Changes of the position, the rotation and the rotation centre
+     * are detected automatically, so there's usually no need to call this manually.
+     */
+    public void markTransformDirty() {
+        transformDirty = true;
+    }
+
+    /**
+     * Recomputes the cached world transform of this GameObject if it or an ancestor changed since the last call
+     * and then does the same for all children. The {@link Scene} calls this for all root GameObjects once per
+     * fixed tick and before drawing.
+     * If the world position of an attached GameObject changed, its {@link Hitbox} is recalculated as well.
+     *
+     * @param ancestorChanged whether the world transform of an ancestor was recomputed
+     */
+    public void updateWorldTransform(boolean ancestorChanged) {
+
+        Transform transform = getTransform();
+        Rotation rotation = transform.getRotation();
+        float x = transform.getX();
+        float y = transform.getY();
+        float rotationDegrees = rotation.getRotationDegrees();
+        float centreX = rotation.getCentre().getX();
+        float centreY = rotation.getCentre().getY();
+
+        boolean changed = ancestorChanged || transformDirty
+                || x != cachedX || y != cachedY || rotationDegrees != cachedRotationDegrees
+                || centreX != cachedCentreX || centreY != cachedCentreY;
+
+        if (changed) {
+            cachedX = x;
+            cachedY = y;
+            cachedRotationDegrees = rotationDegrees;
+            cachedCentreX = centreX;
+            cachedCentreY = centreY;
+            transformDirty = false;
+
+            if (parentObject == null) {
+                drawMatrix.setToIdentity();
+                worldX = x;
+                worldY = y;
+                worldRotationDegrees = rotationDegrees;
+            } else {
+                AffineTransform parentMatrix = parentObject.childMatrix;
+                float halfWidth = transform.getWidth() / 2f;
+                float halfHeight = transform.getHeight() / 2f;
+                float localCentreX = x + halfWidth;
+                float localCentreY = y + halfHeight;
+
+                drawMatrix.setTransform(parentMatrix);
+                worldX = (float) (parentMatrix.getScaleX() * localCentreX + parentMatrix.getShearX() * localCentreY + parentMatrix.getTranslateX()) - halfWidth;
+                worldY = (float) (parentMatrix.getShearY() * localCentreX + parentMatrix.getScaleY() * localCentreY + parentMatrix.getTranslateY()) - halfHeight;
+                worldRotationDegrees = parentObject.worldRotationDegrees + rotationDegrees;
+            }
+
+            if (rotationDegrees != 0f) {
+                drawMatrix.rotate(Math.toRadians(rotationDegrees), x + centreX, y + centreY);
+            }
+
+            childMatrix.setTransform(drawMatrix);
+            childMatrix.translate(x, y);
+
+            if (parentObject != null && hitbox != null) {
+                hitbox.recalculate();
+            }
+        }
+
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).updateWorldTransform(changed);
+        }
+    }
+
+    /**
+     * Returns the transformation that has to be applied to the graphics before this GameObject draws itself at its
+     * local position. This includes the rotation of this GameObject and the transformation of all of its ancestors.
+     * The value is cached and only valid after {@link #updateWorldTransform(boolean)}.
+     *
+     * @return the cached transformation for drawing this GameObject
+     */
+    public AffineTransform getDrawMatrix() {
+        return drawMatrix;
+    }
+
+    /**
+     * Returns the x position of this GameObject in the scene. For a root GameObject, that is {@link #getX()},
+     * for an attached one, it is the cached position computed from the transform hierarchy.
+     *
+     * @return the x position of this GameObject in the scene
+     */
+    public float getWorldX() {
+        return parentObject == null ? getX() : worldX;
+    }
+
+    /**
+     * Returns the y position of this GameObject in the scene. For a root GameObject, that is {@link #getY()},
+     * for an attached one, it is the cached position computed from the transform hierarchy.
+     *
+     * @return the y position of this GameObject in the scene
+     */
+    public float getWorldY() {
+        return parentObject == null ? getY() : worldY;
+    }
+
+    /**
+     * @return the rotation of this GameObject plus the rotations of all of its ancestors in degrees
+     */
+    public float getWorldRotationDegrees() {
+        return parentObject == null ? getRotationDegrees() : worldRotationDegrees;
+    }
+
+    public GameObject getParentObject() {
+        return parentObject;
+    }
+
+    /**
+     * @return an unmodifiable view of all GameObjects attached to this one
+     */
+    public List<GameObject> getChildren() {
+        return childrenView;
+    }
+
+    /**
+     * Writes a conservative, axis-aligned bounding box of everything this GameObject draws within its own bounds
+     * into the given rectangle, in the space of the scene. If this GameObject or one of its ancestors is rotated,
+     * or if <code>cameraRotated</code> is true, the box contains the bounds of this GameObject at any rotation
+     * around its rotation centre, which is a bit larger than necessary but cheap to compute.
+     * The cached world transform has to be up to date, see {@link #updateWorldTransform(boolean)}.
+     *
+     * @param bounds        the rectangle to write the bounds into
+     * @param cameraRotated whether the camera is rotated, which rotates every GameObject around its rotation centre
+     * @return the given rectangle
+     */
+    public Rectangle2D.Float getDrawBounds(Rectangle2D.Float bounds, boolean cameraRotated) {
+        Transform transform = getTransform();
+        float width = transform.getWidth();
+        float height = transform.getHeight();
+        float x = getWorldX();
+        float y = getWorldY();
+
+        if (!cameraRotated && getWorldRotationDegrees() == 0f) {
+            bounds.setRect(x, y, width, height);
+            return bounds;
+        }
+
+        // at any rotation, everything drawn stays within the half diagonal plus the distance of the middle to it
+        // around the rotation centre, so within the half diagonal plus twice that distance around the middle;
+        // as this holds for every angle, it covers a rotated camera, too
+        Coordinates2f rotationCentre = transform.getRotation().getCentre();
+        float halfWidth = width / 2f;
+        float halfHeight = height / 2f;
+        float centreDistance = (float) Math.hypot(rotationCentre.getX() - halfWidth, rotationCentre.getY() - halfHeight);
+        float radius = (float) Math.hypot(halfWidth, halfHeight) + centreDistance * 2f;
+
+        bounds.setRect(x + halfWidth - radius, y + halfHeight - radius, radius * 2f, radius * 2f);
+        return bounds;
+    }
+
+    public boolean isCullable() {
+        return cullable;
+    }
+
+    /**
+     * Sets whether this GameObject may be skipped when drawing while it is outside of the viewport of the camera.
+     * Disable this for GameObjects that draw (e.g. through a component) far outside of their own bounds.
+     *
+     * @param cullable whether to cull this GameObject
+     */
+    public void setCullable(boolean cullable) {
+        this.cullable = cullable;
+
+        if (scene != null) {
+            scene.reindexGameObject(this);
+        }
+    }
+
+    /**
+     * @return the position of this GameObject in the draw order of its {@link Scene}
+     */
+    public long getSceneOrder() {
+        return sceneOrder;
+    }
+
+    /**
+     * Sets the position of this GameObject in the draw order of its {@link Scene}.
+     * This is maintained by the scene and shouldn't be called manually.
+     *
+     * @param sceneOrder the position of this GameObject in the draw order
+     */
+    public void setSceneOrder(long sceneOrder) {
+        this.sceneOrder = sceneOrder;
+    }
+
+    public RenderLayer getRenderLayer() {
+        return renderLayer;
+    }
+
+    /**
+     * Moves this GameObject into the given {@link RenderLayer}.
+     *
+     * @param renderLayer the layer to draw this GameObject in
+     */
+    public void setRenderLayer(RenderLayer renderLayer) {
+        if (this.renderLayer != renderLayer) {
+            this.renderLayer = renderLayer;
+
+            if (scene != null) {
+                scene.invalidateDrawOrder();
+            }
+        }
+    }
+
+    public int getZIndex() {
+        return zIndex;
+    }
+
+    /**
+     * Sets the depth of this GameObject within its {@link RenderLayer}. GameObjects with a higher z-index are drawn
+     * on top of the ones with a lower one. The draw order of the {@link Scene} is only re-sorted when this changes.
+     *
+     * @param zIndex the new z-index
+     */
+    public void setZIndex(int zIndex) {
+        if (this.zIndex != zIndex) {
+            this.zIndex = zIndex;
+
+            if (scene != null) {
+                scene.invalidateDrawOrder();
+            }
+        }
+    }
+
     public boolean isInitialized() {
         return initialized;
     }
@@ -40,7 +40,7 @@ public class SimpleHitbox implements Hitbox {
 
     public void recalculate() {
 
-        transform.setPosition(new Coordinates2f(parent.getPosition().getX() + offsetX, parent.getPosition().getY() + offsetY));
+        transform.setPosition(new Coordinates2f(parent.getWorldX() + offsetX, parent.getWorldY() + offsetY));
     }
 
     @Override
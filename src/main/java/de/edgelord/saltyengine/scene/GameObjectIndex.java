@@ -0,0 +1,279 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene;
+
+import de.edgelord.saltyengine.core.Component;
+import de.edgelord.saltyengine.gameobject.GameObject;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Incrementally maintained lookup tables for the {@link GameObject}s of a {@link Scene}.
+ * <p>
+ * Every {@link GameObject} is indexed by its tag, by its class and all superclasses up to {@link GameObject}
+ * and by the classes of all of its {@link Component}s (again including their superclasses up to {@link Component}).
+ * The lists returned by {@link #withTag(String)}, {@link #withType(Class)} and {@link #withComponent(Class)} are
+ * unmodifiable, live views that are updated whenever the index changes, so requesting them repeatedly neither
+ * allocates nor scans the scene. Looking up a key that was never indexed creates an empty bucket, so that its view
+ * reflects the {@link GameObject}s added later on.
+ * <p>
+ * A bucket holds its view strongly while it isn't empty, otherwise the view is only weakly reachable from the index.
+ * Empty buckets are dropped once nobody holds their view anymore, so lookups of arbitrary keys can't fill the maps.
+ * The order of the elements of a bucket is unspecified, because removing an element moves the last one into its place.
+ */
+final class GameObjectIndex {
+
+    private final Map<String, ViewReference> byTag = new HashMap<>();
+    private final Map<Class<?>, ViewReference> byType = new HashMap<>();
+    private final Map<Class<?>, ViewReference> byComponent = new HashMap<>();
+
+    /**
+     * The references of all views that were collected, whose buckets are dropped if they are empty.
+     */
+    private final ReferenceQueue<List<GameObject>> collectedViews = new ReferenceQueue<>();
+
+    /**
+     * The tag and component types every indexed {@link GameObject} was last indexed with,
+     * so that {@link #update(GameObject)} only touches the buckets that actually changed.
+     */
+    private final Map<GameObject, Entry> entries = new IdentityHashMap<>();
+
+    void add(GameObject gameObject) {
+        if (entries.containsKey(gameObject)) {
+            return;
+        }
+
+        Entry entry = new Entry(gameObject.getTag(), componentTypesOf(gameObject));
+        entries.put(gameObject, entry);
+
+        bucket(byTag, entry.tag).add(gameObject);
+
+        for (Class<?> type = gameObject.getClass(); type != null && GameObject.class.isAssignableFrom(type); type = type.getSuperclass()) {
+            bucket(byType, type).add(gameObject);
+        }
+
+        for (Class<?> componentType : entry.componentTypes) {
+            bucket(byComponent, componentType).add(gameObject);
+        }
+    }
+
+    void remove(GameObject gameObject) {
+        Entry entry = entries.remove(gameObject);
+
+        if (entry == null) {
+            return;
+        }
+
+        removeFrom(byTag, entry.tag, gameObject);
+
+        for (Class<?> type = gameObject.getClass(); type != null && GameObject.class.isAssignableFrom(type); type = type.getSuperclass()) {
+            removeFrom(byType, type, gameObject);
+        }
+
+        for (Class<?> componentType : entry.componentTypes) {
+            removeFrom(byComponent, componentType, gameObject);
+        }
+    }
+
+    /**
+     * Re-indexes the tag and the {@link Component}s of the given {@link GameObject}.
+     *
+     * @param gameObject the {@link GameObject} whose tag or components changed
+     */
+    void update(GameObject gameObject) {
+        Entry entry = entries.get(gameObject);
+
+        if (entry == null) {
+            return;
+        }
+
+        String tag = gameObject.getTag();
+        if (!Objects.equals(tag, entry.tag)) {
+            removeFrom(byTag, entry.tag, gameObject);
+            bucket(byTag, tag).add(gameObject);
+            entry.tag = tag;
+        }
+
+        Set<Class<?>> componentTypes = componentTypesOf(gameObject);
+        if (!componentTypes.equals(entry.componentTypes)) {
+            for (Class<?> componentType : entry.componentTypes) {
+                if (!componentTypes.contains(componentType)) {
+                    removeFrom(byComponent, componentType, gameObject);
+                }
+            }
+            for (Class<?> componentType : componentTypes) {
+                if (!entry.componentTypes.contains(componentType)) {
+                    bucket(byComponent, componentType).add(gameObject);
+                }
+            }
+            entry.componentTypes = componentTypes;
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        byTag.values().forEach(reference -> reference.bucket.clear());
+        byType.values().forEach(reference -> reference.bucket.clear());
+        byComponent.values().forEach(reference -> reference.bucket.clear());
+    }
+
+    List<GameObject> withTag(String tag) {
+        return view(byTag, tag);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends GameObject> List<T> withType(Class<T> type) {
+        return (List<T>) view(byType, type);
+    }
+
+    List<GameObject> withComponent(Class<?> componentType) {
+        return view(byComponent, componentType);
+    }
+
+    private <K> Bucket bucket(Map<K, ViewReference> map, K key) {
+        List<GameObject> view = view(map, key);
+        Bucket bucket = map.get(key).bucket;
+
+        // the bucket is about to get an element, so its view is held until the bucket is empty again
+        bucket.view = view;
+        return bucket;
+    }
+
+    /**
+     * Returns the view of the bucket with the given key, creating the bucket if there is none and a new view if
+     * the one of the bucket was collected.
+     */
+    private <K> List<GameObject> view(Map<K, ViewReference> map, K key) {
+        expungeCollectedViews();
+
+        ViewReference reference = map.get(key);
+        List<GameObject> view = reference == null ? null : reference.get();
+
+        if (view == null) {
+            Bucket bucket = reference == null ? new Bucket() : reference.bucket;
+            view = Collections.unmodifiableList(bucket.elements);
+            map.put(key, new ViewReference(map, key, bucket, view, collectedViews));
+        }
+
+        return view;
+    }
+
+    private static <K> void removeFrom(Map<K, ViewReference> map, K key, GameObject gameObject) {
+        ViewReference reference = map.get(key);
+
+        if (reference != null) {
+            reference.bucket.remove(gameObject);
+
+            if (reference.bucket.elements.isEmpty() && reference.get() == null) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private void expungeCollectedViews() {
+        ViewReference reference;
+
+        while ((reference = (ViewReference) collectedViews.poll()) != null) {
+            if (reference.map.get(reference.key) == reference && reference.bucket.elements.isEmpty()) {
+                reference.map.remove(reference.key);
+            }
+        }
+    }
+
+    private static Set<Class<?>> componentTypesOf(GameObject gameObject) {
+        Set<Class<?>> types = new HashSet<>();
+
+        for (Component<?> component : gameObject.getComponents()) {
+            for (Class<?> type = component.getClass(); type != null && Component.class.isAssignableFrom(type); type = type.getSuperclass()) {
+                types.add(type);
+            }
+        }
+
+        return types;
+    }
+
+    private static final class Entry {
+        private String tag;
+        private Set<Class<?>> componentTypes;
+
+        private Entry(String tag, Set<Class<?>> componentTypes) {
+            this.tag = tag;
+            this.componentTypes = componentTypes;
+        }
+    }
+
+    /**
+     * A weak reference to the view of a bucket, which is the value of the bucket in its map.
+     */
+    private static final class ViewReference extends WeakReference<List<GameObject>> {
+        private final Map<?, ViewReference> map;
+        private final Object key;
+        private final Bucket bucket;
+
+        private ViewReference(Map<?, ViewReference> map, Object key, Bucket bucket, List<GameObject> view, ReferenceQueue<List<GameObject>> queue) {
+            super(view, queue);
+            this.map = map;
+            this.key = key;
+            this.bucket = bucket;
+        }
+    }
+
+    /**
+     * A list of {@link GameObject}s together with the position of every element in it, so that an element can be
+     * removed in constant time by moving the last element into its place.
+     */
+    private static final class Bucket {
+        private final List<GameObject> elements = new ArrayList<>();
+        private final Map<GameObject, Integer> positions = new IdentityHashMap<>();
+
+        /**
+         * The view of this bucket while it isn't empty, so that it isn't collected in the meantime.
+         */
+        private List<GameObject> view = null;
+
+        private void add(GameObject element) {
+            positions.put(element, elements.size());
+            elements.add(element);
+        }
+
+        private void remove(GameObject element) {
+            Integer position = positions.remove(element);
+
+            if (position == null) {
+                return;
+            }
+
+            GameObject last = elements.remove(elements.size() - 1);
+            if (last != element) {
+                elements.set(position, last);
+                positions.put(last, position);
+            }
+
+            if (elements.isEmpty()) {
+                view = null;
+            }
+        }
+
+        private void clear() {
+            elements.clear();
+            positions.clear();
+            view = null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene;
+
+import de.edgelord.saltyengine.gameobject.GameObject;
+
+/**
+ * A named layer the {@link GameObject}s of a {@link Scene} are drawn in.
+ * Layers are drawn in the order of their {@link #getDepth()}, lowest first. Within a layer, {@link GameObject}s are
+ * drawn in the order of their {@link GameObject#getZIndex()} and GameObjects with the same z-index in the order they
+ * were added to the scene.
+ * <p>
+ * Every {@link GameObject} is in {@link #DEFAULT} unless {@link GameObject#setRenderLayer(RenderLayer)} is used.
+ */
+public class RenderLayer {
+
+    public static final RenderLayer BACKGROUND = new RenderLayer("background", -100);
+    public static final RenderLayer DEFAULT = new RenderLayer("default", 0);
+    public static final RenderLayer FOREGROUND = new RenderLayer("foreground", 100);
+
+    private final String name;
+    private final int depth;
+
+    /**
+     * Creates a new layer.
+     *
+     * @param name  the name of the layer
+     * @param depth the depth of the layer, layers with a lower depth are drawn first
+     */
+    public RenderLayer(String name, int depth) {
+        this.name = name;
+        this.depth = depth;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public String toString() {
+        return "RenderLayer{" +
+                "name='" + name + '\'' +
+                ", depth=" + depth +
+                '}';
+    }
+}
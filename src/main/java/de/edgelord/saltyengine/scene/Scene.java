@@ -17,7 +17,9 @@
 package de.edgelord.saltyengine.scene;
 
 import de.edgelord.saltyengine.components.SimplePhysicsComponent;
+import de.edgelord.saltyengine.core.Component;
 import de.edgelord.saltyengine.core.Game;
+import de.edgelord.saltyengine.core.graphics.CachedLayer;
 import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
 import de.edgelord.saltyengine.core.physics.Force;
 import de.edgelord.saltyengine.effect.light.LightSystem;
@@ -28,9 +30,14 @@ import de.edgelord.saltyengine.transform.Coordinates2f;
 import de.edgelord.saltyengine.ui.UISystem;
 
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents what is currently drawn and calculated.
@@ -41,6 +48,18 @@ import java.util.List;
  * and the {@link UISystem} {@link #ui}
  * as well as a {@link LightSystem} stored in {@link #lightSystem}
  * <p>
+ * All {@link GameObject}s of a scene are indexed by tag, by type and by the types of their components, so that
+ * {@link #withTag(String)}, {@link #withType(Class)} and {@link #withComponent(Class)} don't have to scan the scene.
+ * <p>
+ * Which {@link GameObject}s are ticked can be limited with a {@link SimulationPolicy}, see {@link #setSimulationPolicy(SimulationPolicy)}.
+ * <p>
+ * {@link GameObject}s are drawn by {@link RenderLayer} and z-index, see {@link GameObject#setZIndex(int)}.
+ * {@link GameObject}s outside of the viewport of the camera can be skipped when drawing, see {@link #setCullingEnabled(boolean)}.
+ * Render layers, {@link DrawingRoutine}s and the UI can be cached in off-screen images that are only re-rendered
+ * when needed, see {@link CachedLayer}.
+ * With a {@link SpatialGrid}, the visible ones are found without testing all {@link GameObject}s,
+ * see {@link #setSpatialGrid(SpatialGrid)}.
+ * <p>
  * The current scene is stored in {@link SceneManager#getCurrentScene()}.
  * For more information, please take a look at the documentation of that class.
  * <p>
@@ -61,6 +80,62 @@ public class Scene {
     private LightSystem lightSystem = null;
     private UISystem ui = new UISystem();
 
+    private final GameObjectIndex index = new GameObjectIndex();
+
+    private SimulationPolicy simulationPolicy = null;
+
+    /**
+     * The {@link GameObject}s that are simulated according to the {@link #simulationPolicy}.
+     * This is only used if there is a policy.
+     */
+    private final List<GameObject> activeGameObjects = new ArrayList<>();
+    private int ticksUntilActivationUpdate = 0;
+
+    private final TimerWheel timerWheel = new TimerWheel();
+
+    /**
+     * The order {@link GameObject}s are drawn in: by the depth of their {@link RenderLayer}, then by their z-index
+     * and then by the order they were added in.
+     */
+    private static final Comparator<GameObject> DRAW_ORDER = (a, b) -> {
+        int layer = Integer.compare(a.getRenderLayer().getDepth(), b.getRenderLayer().getDepth());
+        if (layer != 0) {
+            return layer;
+        }
+
+        int z = Integer.compare(a.getZIndex(), b.getZIndex());
+        if (z != 0) {
+            return z;
+        }
+
+        return Long.compare(a.getSceneOrder(), b.getSceneOrder());
+    };
+
+    private long nextSceneOrder = 0;
+
+    /**
+     * All {@link GameObject}s sorted by {@link #DRAW_ORDER}. When a z-index or a layer changes, this is only marked
+     * as unsorted and then sorted by an insertion sort before the next frame, which is fast on nearly sorted lists.
+     */
+    private final List<GameObject> drawOrder = new ArrayList<>();
+    private boolean drawOrderSorted = true;
+
+    private boolean cullingEnabled = false;
+    private float cullingMargin = 0f;
+    private SpatialGrid spatialGrid = null;
+
+    // reused every frame
+    private final List<GameObject> visibleGameObjects = new ArrayList<>();
+    private final Rectangle2D.Float drawBounds = new Rectangle2D.Float();
+    private final Rectangle2D.Float visibleArea = new Rectangle2D.Float();
+
+    private final Map<RenderLayer, CachedLayer> layerCaches = new IdentityHashMap<>();
+    private final Map<DrawingRoutine.DrawingPosition, CachedLayer> drawingRoutineCaches = new EnumMap<>(DrawingRoutine.DrawingPosition.class);
+    private CachedLayer uiCache = null;
+
+    private int drawnGameObjectCount = 0;
+    private int culledGameObjectCount = 0;
+
     public Scene() {
 
     }
@@ -105,6 +180,12 @@ public class Scene {
         synchronized (concurrentBlock) {
             gameObject.getPhysics().setGravityEnabled(gravityEnabled);
             gameObjects.add(gameObject);
+            gameObject.setSceneOrder(nextSceneOrder++);
+            gameObject.setScene(this);
+            index.add(gameObject);
+            activateIfSimulated(gameObject);
+            addToSpatialGrid(gameObject);
+            addToDrawOrder(gameObject);
         }
     }
 
@@ -112,18 +193,120 @@ public class Scene {
         synchronized (concurrentBlock) {
             gameObject.getPhysics().setGravityEnabled(gravityEnabled);
             gameObjects.add(index, gameObject);
+            renumberSceneOrder(index);
+            drawOrderSorted = false;
+            gameObject.setScene(this);
+            this.index.add(gameObject);
+            activateIfSimulated(gameObject);
+            addToSpatialGrid(gameObject);
+            addToDrawOrder(gameObject);
         }
     }
 
     public void removeGameObject(GameObject gameObject) {
         synchronized (concurrentBlock) {
-            gameObjects.remove(gameObject);
+            if (gameObjects.remove(gameObject)) {
+                index.remove(gameObject);
+                activeGameObjects.remove(gameObject);
+                drawOrder.remove(gameObject);
+
+                if (spatialGrid != null) {
+                    spatialGrid.remove(gameObject);
+                }
+
+                if (gameObject.getScene() == this) {
+                    gameObject.setScene(null);
+                }
+            }
         }
     }
 
     public void clearGameObjects() {
         synchronized (concurrentBlock) {
+            for (int i = 0; i < gameObjects.size(); i++) {
+                GameObject gameObject = gameObjects.get(i);
+
+                if (gameObject.getScene() == this) {
+                    gameObject.setScene(null);
+                }
+            }
             gameObjects.clear();
+            index.clear();
+            activeGameObjects.clear();
+            drawOrder.clear();
+            drawOrderSorted = true;
+
+            if (spatialGrid != null) {
+                spatialGrid.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns all {@link GameObject}s of this scene with the given tag.
+     * <p>
+     * The returned list is an unmodifiable, live view: it is the same instance on every call with the same tag and
+     * it always reflects the current content of the scene, so it can be stored and iterated every tick without
+     * any lookups or allocations. Iterating it should happen on the tick thread or within {@link #concurrentBlock}.
+     * This is also true for tags no {@link GameObject} of this scene has yet, whose view reflects the ones added later
+     * on. The order of the elements is unspecified.
+     *
+     * @param tag the tag of the requested {@link GameObject}s
+     * @return a live view of all {@link GameObject}s with the given tag
+     */
+    public List<GameObject> withTag(String tag) {
+        synchronized (concurrentBlock) {
+            return index.withTag(tag);
+        }
+    }
+
+    /**
+     * Returns all {@link GameObject}s of this scene that are instances of the given class, including subclasses.
+     * <p>
+     * Just like {@link #withTag(String)}, the returned list is an unmodifiable, live view.
+     *
+     * @param type the class of the requested {@link GameObject}s
+     * @param <T>  the type of the requested {@link GameObject}s
+     * @return a live view of all {@link GameObject}s of the given type
+     */
+    public <T extends GameObject> List<T> withType(Class<T> type) {
+        synchronized (concurrentBlock) {
+            return index.withType(type);
+        }
+    }
+
+    /**
+     * Returns all {@link GameObject}s of this scene that have at least one {@link Component} that is an instance
+     * of the given class, including subclasses.
+     * <p>
+     * Just like {@link #withTag(String)}, the returned list is an unmodifiable, live view. It is updated whenever
+     * a component is added to or removed from a {@link GameObject} of this scene using
+     * {@link GameObject#addComponent(Component)} or one of the <code>removeComponent</code> methods.
+     *
+     * @param componentType the class of the {@link Component}
+     * @return a live view of all {@link GameObject}s with a component of the given type
+     */
+    // many components extend the raw Component type, whose class literals aren't a Class<? extends Component<?>>
+    @SuppressWarnings("rawtypes")
+    public List<GameObject> withComponent(Class<? extends Component> componentType) {
+        synchronized (concurrentBlock) {
+            return index.withComponent(componentType);
+        }
+    }
+
+    /**
+     * Updates the tag and component index and the {@link SpatialGrid} of this scene for the given {@link GameObject}.
+     * This is called automatically by {@link GameObject#setTag(String)}, {@link GameObject#addComponent(Component)},
+     * {@link GameObject#setCullable(boolean)} and the <code>removeComponent</code> methods, so you only have to call
+     * this when you manipulate {@link GameObject#getComponents()} directly or move a dormant {@link GameObject}
+     * while there is a {@link SpatialGrid}.
+     *
+     * @param gameObject the {@link GameObject} whose tag or components changed
+     */
+    public void reindexGameObject(GameObject gameObject) {
+        synchronized (concurrentBlock) {
+            index.update(gameObject);
+            addToSpatialGrid(gameObject);
         }
     }
 
@@ -164,33 +347,46 @@ public class Scene {
     public void draw(SaltyGraphics saltyGraphics) {
 
         synchronized (concurrentBlock) {
-            for (DrawingRoutine drawingRoutine : drawingRoutines) {
-                if (drawingRoutine.getDrawingPosition() == DrawingRoutine.DrawingPosition.BEFORE_GAMEOBJECTS) {
-                    drawingRoutine.draw(saltyGraphics);
-                }
-            }
+            drawDrawingRoutines(DrawingRoutine.DrawingPosition.BEFORE_GAMEOBJECTS, saltyGraphics);
         }
 
         synchronized (concurrentBlock) {
-            for (GameObject gameObject : gameObjects) {
-                AffineTransform before = saltyGraphics.getGraphics2D().getTransform();
-                float rotation = gameObject.getTransform().getRotation().getRotationDegrees() + Game.getCamera().getRotation();
-                Coordinates2f rotationCentre = gameObject.getTransform().getRotation().getCentre();
-                saltyGraphics.getGraphics2D().rotate(Math.toRadians(rotation), rotationCentre.getX() + gameObject.getX(), rotationCentre.getY() + gameObject.getY());
+            float cameraRotation = Game.getCamera().getRotation();
+
+            collectVisibleGameObjects(cameraRotation != 0f);
+
+            for (int i = 0; i < visibleGameObjects.size(); i++) {
+                GameObject gameObject = visibleGameObjects.get(i);
+                CachedLayer cache = layerCaches.isEmpty() ? null : layerCaches.get(gameObject.getRenderLayer());
 
-                gameObject.draw(saltyGraphics);
-                gameObject.doComponentDrawing(saltyGraphics);
+                if (cache == null) {
+                    drawGameObject(gameObject, cameraRotation, saltyGraphics);
+                    continue;
+                }
+
+                // the visible GameObjects are sorted by layer, so the ones of this layer are next to each other
+                int layerEnd = i + 1;
+                while (layerEnd < visibleGameObjects.size() && visibleGameObjects.get(layerEnd).getRenderLayer() == gameObject.getRenderLayer()) {
+                    layerEnd++;
+                }
 
-                saltyGraphics.setTransform(before);
+                if (cache.isOutdated(saltyGraphics)) {
+                    SaltyGraphics layerGraphics = cache.startRendering(saltyGraphics);
+                    for (int j = i; j < layerEnd; j++) {
+                        drawGameObject(visibleGameObjects.get(j), cameraRotation, layerGraphics);
+                    }
+                    cache.finishRendering();
+                }
+                cache.drawTo(saltyGraphics);
+
+                i = layerEnd - 1;
             }
+
+            visibleGameObjects.clear();
         }
 
         synchronized (concurrentBlock) {
-            for (DrawingRoutine drawingRoutine : drawingRoutines) {
-                if (drawingRoutine.getDrawingPosition() == DrawingRoutine.DrawingPosition.AFTER_GAMEOBJECTS) {
-                    drawingRoutine.draw(saltyGraphics);
-                }
-            }
+            drawDrawingRoutines(DrawingRoutine.DrawingPosition.AFTER_GAMEOBJECTS, saltyGraphics);
         }
         if (lightSystem != null) {
             lightSystem.draw(saltyGraphics);
@@ -199,30 +395,195 @@ public class Scene {
         Game.getCamera().tmpResetViewToGraphics(saltyGraphics);
 
         if (ui != null) {
-            ui.drawUI(saltyGraphics);
+            if (uiCache == null) {
+                ui.drawUI(saltyGraphics);
+            } else {
+                if (uiCache.isOutdated(saltyGraphics)) {
+                    ui.drawUI(uiCache.startRendering(saltyGraphics));
+                    uiCache.finishRendering();
+                }
+                uiCache.drawTo(saltyGraphics);
+            }
         }
 
         Game.getDefaultGFXController().doGFXDrawing(saltyGraphics);
     }
 
+    private void drawDrawingRoutines(DrawingRoutine.DrawingPosition position, SaltyGraphics saltyGraphics) {
+
+        CachedLayer cache = drawingRoutineCaches.get(position);
+        SaltyGraphics graphics = saltyGraphics;
+
+        if (cache != null) {
+            if (!cache.isOutdated(saltyGraphics)) {
+                cache.drawTo(saltyGraphics);
+                return;
+            }
+
+            graphics = cache.startRendering(saltyGraphics);
+        }
+
+        for (DrawingRoutine drawingRoutine : drawingRoutines) {
+            if (drawingRoutine.getDrawingPosition() == position) {
+                drawingRoutine.draw(graphics);
+            }
+        }
+
+        if (cache != null) {
+            cache.finishRendering();
+            cache.drawTo(saltyGraphics);
+        }
+    }
+
+    /**
+     * Collects all {@link GameObject}s that have to be drawn this frame into {@link #visibleGameObjects},
+     * sorted by {@link #DRAW_ORDER}, and updates the world transforms of all roots among them.
+     * Without a {@link #spatialGrid}, this walks {@link #drawOrder}, so nothing has to be sorted unless a z-index
+     * changed. With one, only the visible {@link GameObject}s are sorted.
+     *
+     * @param cameraRotated whether the camera is rotated
+     */
+    private void collectVisibleGameObjects(boolean cameraRotated) {
+
+        if (!drawOrderSorted) {
+            insertionSort(drawOrder);
+            drawOrderSorted = true;
+        }
+
+        boolean cull = cullingEnabled && Game.getGameDimensions() != null;
+
+        if (!cull) {
+            for (int i = 0; i < drawOrder.size(); i++) {
+                GameObject gameObject = drawOrder.get(i);
+
+                if (gameObject.getParentObject() == null) {
+                    gameObject.updateWorldTransform(false);
+                }
+                visibleGameObjects.add(gameObject);
+            }
+
+            drawnGameObjectCount = visibleGameObjects.size();
+            culledGameObjectCount = 0;
+            return;
+        }
+
+        Game.getCamera().getVisibleArea(cullingMargin, visibleArea);
+        float viewportX = visibleArea.x;
+        float viewportY = visibleArea.y;
+        float viewportWidth = visibleArea.width;
+        float viewportHeight = visibleArea.height;
+
+        List<GameObject> candidates = drawOrder;
+
+        if (spatialGrid != null) {
+            candidates = spatialGrid.query(viewportX, viewportY, viewportWidth, viewportHeight, visibleGameObjects);
+        }
+
+        int visibleCount = 0;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            GameObject gameObject = candidates.get(i);
+
+            if (gameObject.getParentObject() == null) {
+                gameObject.updateWorldTransform(false);
+            }
+
+            if (gameObject.isCullable()) {
+                gameObject.getDrawBounds(drawBounds, cameraRotated);
+
+                if (drawBounds.x > viewportX + viewportWidth || drawBounds.y > viewportY + viewportHeight
+                        || drawBounds.x + drawBounds.width < viewportX || drawBounds.y + drawBounds.height < viewportY) {
+                    continue;
+                }
+            }
+
+            if (candidates == visibleGameObjects) {
+                visibleGameObjects.set(visibleCount, gameObject);
+            } else {
+                visibleGameObjects.add(gameObject);
+            }
+            visibleCount++;
+        }
+
+        if (candidates == visibleGameObjects) {
+            visibleGameObjects.subList(visibleCount, visibleGameObjects.size()).clear();
+            visibleGameObjects.sort(DRAW_ORDER);
+        }
+
+        drawnGameObjectCount = visibleCount;
+        culledGameObjectCount = gameObjects.size() - visibleCount;
+    }
+
+    private void drawGameObject(GameObject gameObject, float cameraRotation, SaltyGraphics saltyGraphics) {
+
+        AffineTransform drawMatrix = gameObject.getDrawMatrix();
+
+        if (cameraRotation == 0f && drawMatrix.isIdentity()) {
+            gameObject.draw(saltyGraphics);
+            gameObject.doComponentDrawing(saltyGraphics);
+            return;
+        }
+
+        AffineTransform before = saltyGraphics.getTransform();
+
+        if (cameraRotation != 0f) {
+            Coordinates2f rotationCentre = gameObject.getTransform().getRotation().getCentre();
+            saltyGraphics.rotate(cameraRotation, rotationCentre.getX() + gameObject.getWorldX(), rotationCentre.getY() + gameObject.getWorldY());
+        }
+        saltyGraphics.transform(drawMatrix);
+
+        gameObject.draw(saltyGraphics);
+        gameObject.doComponentDrawing(saltyGraphics);
+
+        saltyGraphics.setTransform(before);
+    }
+
     public void onFixedTick() {
 
+        synchronized (concurrentBlock) {
+            timerWheel.advance();
+        }
+
         doFixedTasks();
 
         synchronized (concurrentBlock) {
 
-            for (int i = 0; i < gameObjects.size(); i++) {
-                GameObject gameObject = gameObjects.get(i);
+            List<GameObject> simulatedGameObjects = gameObjects;
+
+            if (simulationPolicy != null) {
+                updateActivation();
+                simulatedGameObjects = activeGameObjects;
+            }
+
+            for (int i = 0; i < simulatedGameObjects.size(); i++) {
+                GameObject gameObject = simulatedGameObjects.get(i);
+
+                // the GameObject might have been removed by another one during this tick
+                if (gameObject.getScene() != this) {
+                    continue;
+                }
 
                 if (!gameObject.isInitialized()) {
                     gameObject.initialize();
                     gameObject.setInitialized(true);
                 }
 
-                gameObject.doCollisionDetection(gameObjects);
+                gameObject.doCollisionDetection(simulatedGameObjects);
                 gameObject.doComponentOnFixedTick();
                 gameObject.doFixedTick();
             }
+
+            updateTransformHierarchy();
+
+            if (spatialGrid != null) {
+                for (int i = 0; i < simulatedGameObjects.size(); i++) {
+                    GameObject gameObject = simulatedGameObjects.get(i);
+
+                    if (gameObject.getScene() == this) {
+                        updateSpatialGrid(gameObject);
+                    }
+                }
+            }
         }
 
         Game.getDefaultGFXController().doGFXFixedTick();
@@ -233,6 +594,299 @@ public class Scene {
         }
     }
 
+    /**
+     * Propagates the changes of all root {@link GameObject}s with attached children down the transform hierarchy,
+     * see {@link GameObject#attachTo(GameObject)}.
+     */
+    private void updateTransformHierarchy() {
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject gameObject = gameObjects.get(i);
+
+            if (gameObject.getParentObject() == null && !gameObject.getChildren().isEmpty()) {
+                gameObject.updateWorldTransform(false);
+            }
+        }
+    }
+
+    /**
+     * Re-evaluates which {@link GameObject}s are simulated according to the {@link #simulationPolicy}
+     * and rebuilds {@link #activeGameObjects}, but only every {@link SimulationPolicy#getEvaluationInterval()} ticks.
+     */
+    private void updateActivation() {
+
+        if (ticksUntilActivationUpdate > 0) {
+            ticksUntilActivationUpdate--;
+            return;
+        }
+
+        ticksUntilActivationUpdate = simulationPolicy.getEvaluationInterval() - 1;
+        activeGameObjects.clear();
+
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject gameObject = gameObjects.get(i);
+            boolean active = simulationPolicy.shouldBeActive(gameObject);
+
+            gameObject.setActive(active);
+
+            if (active) {
+                activeGameObjects.add(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Re-buckets the given {@link GameObject} and all of its descendants within the {@link #spatialGrid},
+     * because they move with it.
+     */
+    private void updateSpatialGrid(GameObject gameObject) {
+        spatialGrid.update(gameObject);
+
+        List<GameObject> children = gameObject.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            GameObject child = children.get(i);
+
+            if (child.getScene() == this) {
+                updateSpatialGrid(child);
+            }
+        }
+    }
+
+    private void addToSpatialGrid(GameObject gameObject) {
+        if (spatialGrid != null && gameObject.getScene() == this) {
+            gameObject.updateWorldTransform(false);
+            spatialGrid.update(gameObject);
+        }
+    }
+
+    private void addToDrawOrder(GameObject gameObject) {
+        if (drawOrderSorted) {
+            int insertionPoint = Collections.binarySearch(drawOrder, gameObject, DRAW_ORDER);
+            drawOrder.add(insertionPoint < 0 ? -insertionPoint - 1 : insertionPoint, gameObject);
+        } else {
+            drawOrder.add(gameObject);
+        }
+    }
+
+    /**
+     * Sorts the given list by {@link #DRAW_ORDER}. Every element is only moved past the ones it is out of order with,
+     * so this is linear for lists that are already nearly sorted, which is the case after a few z-indices changed.
+     */
+    private static void insertionSort(List<GameObject> list) {
+        for (int i = 1; i < list.size(); i++) {
+            GameObject gameObject = list.get(i);
+            int j = i - 1;
+
+            while (j >= 0 && DRAW_ORDER.compare(list.get(j), gameObject) > 0) {
+                list.set(j + 1, list.get(j));
+                j--;
+            }
+
+            list.set(j + 1, gameObject);
+        }
+    }
+
+    /**
+     * Marks the draw order of this scene as unsorted, so that it is re-sorted before the next frame.
+     * This is called automatically by {@link GameObject#setZIndex(int)} and {@link GameObject#setRenderLayer(RenderLayer)}.
+     */
+    public void invalidateDrawOrder() {
+        synchronized (concurrentBlock) {
+            drawOrderSorted = false;
+        }
+    }
+
+    /**
+     * Gives the {@link GameObject}s from the given index on new, ascending {@link GameObject#getSceneOrder()}s
+     * after one was inserted at that index.
+     */
+    private void renumberSceneOrder(int fromIndex) {
+        long order = fromIndex == 0 ? 0 : gameObjects.get(fromIndex - 1).getSceneOrder() + 1;
+
+        for (int i = fromIndex; i < gameObjects.size(); i++) {
+            gameObjects.get(i).setSceneOrder(order++);
+        }
+
+        nextSceneOrder = order;
+    }
+
+    private void activateIfSimulated(GameObject gameObject) {
+        if (simulationPolicy != null) {
+            boolean active = simulationPolicy.shouldBeActive(gameObject);
+
+            gameObject.setActive(active);
+
+            if (active) {
+                activeGameObjects.add(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link TimerWheel} of this scene, which is advanced once at the beginning of every fixed tick.
+     * Register callbacks here instead of counting ticks, e.g. within a {@link Component#onAddedToScene(Scene)}.
+     *
+     * @return the {@link TimerWheel} of this scene
+     */
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    public SimulationPolicy getSimulationPolicy() {
+        return simulationPolicy;
+    }
+
+    /**
+     * Sets the {@link SimulationPolicy} that decides which {@link GameObject}s are ticked and take part in the
+     * collision detection. Passing <code>null</code> simulates all {@link GameObject}s again and activates all
+     * dormant ones.
+     *
+     * @param simulationPolicy the new policy or <code>null</code>
+     */
+    public void setSimulationPolicy(SimulationPolicy simulationPolicy) {
+        synchronized (concurrentBlock) {
+            this.simulationPolicy = simulationPolicy;
+            activeGameObjects.clear();
+            ticksUntilActivationUpdate = 0;
+
+            if (simulationPolicy == null) {
+                for (int i = 0; i < gameObjects.size(); i++) {
+                    gameObjects.get(i).setActive(true);
+                }
+            }
+        }
+    }
+
+    public boolean isCullingEnabled() {
+        return cullingEnabled;
+    }
+
+    /**
+     * Sets whether {@link GameObject}s outside of the viewport of the camera are skipped when drawing.
+     * Culling is disabled by default, as only the bounds of the {@link GameObject}s themselves are tested, so anything
+     * their components draw outside of them disappears together with them. Single {@link GameObject}s can opt out
+     * using {@link GameObject#setCullable(boolean)}, which the particle emitters do for their owners.
+     *
+     * @param cullingEnabled whether to cull {@link GameObject}s outside of the viewport
+     */
+    public void setCullingEnabled(boolean cullingEnabled) {
+        this.cullingEnabled = cullingEnabled;
+    }
+
+    public float getCullingMargin() {
+        return cullingMargin;
+    }
+
+    /**
+     * Sets how far outside of the viewport {@link GameObject}s are still drawn. This is useful when components
+     * draw a bit outside of the bounds of their {@link GameObject}s, e.g. outlines or shadows.
+     *
+     * @param cullingMargin the margin around the viewport in pixels
+     */
+    public void setCullingMargin(float cullingMargin) {
+        this.cullingMargin = cullingMargin;
+    }
+
+    public SpatialGrid getSpatialGrid() {
+        return spatialGrid;
+    }
+
+    /**
+     * Sets the {@link SpatialGrid} that is used to find the visible {@link GameObject}s without testing all of them.
+     * All {@link GameObject}s of this scene are added to it and it is kept up to date after every fixed tick for all
+     * simulated {@link GameObject}s. Passing <code>null</code> removes the grid.
+     *
+     * @param spatialGrid the new grid or <code>null</code>
+     */
+    public void setSpatialGrid(SpatialGrid spatialGrid) {
+        synchronized (concurrentBlock) {
+            this.spatialGrid = spatialGrid;
+
+            if (spatialGrid != null) {
+                spatialGrid.clear();
+
+                for (int i = 0; i < gameObjects.size(); i++) {
+                    addToSpatialGrid(gameObjects.get(i));
+                }
+            }
+        }
+    }
+
+    public CachedLayer getLayerCache(RenderLayer layer) {
+        synchronized (concurrentBlock) {
+            return layerCaches.get(layer);
+        }
+    }
+
+    /**
+     * Caches the rendering of all {@link GameObject}s of the given {@link RenderLayer} in the given {@link CachedLayer}.
+     * The {@link GameObject}s of that layer are then only drawn when the cache is outdated, so it has to be
+     * {@link CachedLayer#invalidate() invalidated} whenever one of them changed. Passing <code>null</code>
+     * draws the layer directly again.
+     *
+     * @param layer the layer to cache
+     * @param cache the cache or <code>null</code>
+     */
+    public void setLayerCache(RenderLayer layer, CachedLayer cache) {
+        synchronized (concurrentBlock) {
+            if (cache == null) {
+                layerCaches.remove(layer);
+            } else {
+                layerCaches.put(layer, cache);
+            }
+        }
+    }
+
+    public CachedLayer getDrawingRoutineCache(DrawingRoutine.DrawingPosition position) {
+        synchronized (concurrentBlock) {
+            return drawingRoutineCaches.get(position);
+        }
+    }
+
+    /**
+     * Caches the rendering of all {@link DrawingRoutine}s with the given {@link DrawingRoutine.DrawingPosition},
+     * e.g. a static background, in the given {@link CachedLayer}. Passing <code>null</code> draws them directly again.
+     *
+     * @param position the drawing position of the routines to cache
+     * @param cache    the cache or <code>null</code>
+     */
+    public void setDrawingRoutineCache(DrawingRoutine.DrawingPosition position, CachedLayer cache) {
+        synchronized (concurrentBlock) {
+            if (cache == null) {
+                drawingRoutineCaches.remove(position);
+            } else {
+                drawingRoutineCaches.put(position, cache);
+            }
+        }
+    }
+
+    public CachedLayer getUICache() {
+        return uiCache;
+    }
+
+    /**
+     * Caches the rendering of the {@link UISystem} in the given {@link CachedLayer}, e.g. one with a refresh rate of
+     * 20 Hz for a HUD. Passing <code>null</code> draws the UI directly again.
+     *
+     * @param uiCache the cache or <code>null</code>
+     */
+    public void setUICache(CachedLayer uiCache) {
+        this.uiCache = uiCache;
+    }
+
+    /**
+     * @return the number of {@link GameObject}s drawn in the last frame
+     */
+    public int getDrawnGameObjectCount() {
+        return drawnGameObjectCount;
+    }
+
+    /**
+     * @return the number of {@link GameObject}s that were skipped in the last frame because they were not visible
+     */
+    public int getCulledGameObjectCount() {
+        return culledGameObjectCount;
+    }
+
     public void setUI(UISystem uiSystem) {
         this.ui = uiSystem;
     }
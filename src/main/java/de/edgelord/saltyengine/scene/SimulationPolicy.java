@@ -0,0 +1,200 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene;
+
+import de.edgelord.saltyengine.core.Game;
+import de.edgelord.saltyengine.core.interfaces.TransformedObject;
+import de.edgelord.saltyengine.gameobject.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides which {@link GameObject}s of a {@link Scene} are simulated on a fixed tick.
+ * <p>
+ * Every {@link GameObject} has an {@link Activation} that is either set directly using
+ * {@link GameObject#setActivation(Activation)} or, if that is <code>null</code>, taken from {@link #defaultActivation}.
+ * Objects that are {@link Activation#WITHIN_RADIUS} are only active while the centre of their {@link de.edgelord.saltyengine.transform.Transform}
+ * is within {@link #activationRadius} around the centre of the camera's viewport (if {@link #cameraAnchored})
+ * or around the centre of one of the {@link #anchors}.
+ * <p>
+ * Dormant {@link GameObject}s are neither ticked nor part of the collision detection, but they are still drawn.
+ * Whenever a {@link GameObject} changes its state, {@link GameObject#onActivate()} or {@link GameObject#onDeactivate()}
+ * is called.
+ * <p>
+ * Set a policy to a scene using {@link Scene#setSimulationPolicy(SimulationPolicy)}. Without a policy, every
+ * {@link GameObject} is always active.
+ */
+public class SimulationPolicy {
+
+    public enum Activation {
+
+        /**
+         * The {@link GameObject} is always simulated.
+         */
+        ALWAYS_ACTIVE,
+
+        /**
+         * The {@link GameObject} is simulated while it is within the activation radius of the camera or one of the anchors.
+         */
+        WITHIN_RADIUS,
+
+        /**
+         * The {@link GameObject} is never simulated until its activation changes.
+         */
+        FROZEN
+    }
+
+    private float activationRadius;
+    private Activation defaultActivation = Activation.WITHIN_RADIUS;
+    private boolean cameraAnchored = true;
+    private final List<TransformedObject> anchors = new ArrayList<>();
+
+    /**
+     * The number of fixed ticks between two re-evaluations of the activation state.
+     * Higher values make the evaluation cheaper but transitions happen a bit later.
+     */
+    private int evaluationInterval = 1;
+
+    public SimulationPolicy(float activationRadius) {
+        this.activationRadius = activationRadius;
+    }
+
+    /**
+     * Returns whether the given {@link GameObject} should currently be simulated.
+     *
+     * @param gameObject the {@link GameObject} to test
+     * @return whether the given {@link GameObject} should be active
+     */
+    public boolean shouldBeActive(GameObject gameObject) {
+
+        Activation activation = gameObject.getActivation() == null ? defaultActivation : gameObject.getActivation();
+
+        switch (activation) {
+            case ALWAYS_ACTIVE:
+                return true;
+            case FROZEN:
+                return false;
+            default:
+                return isWithinRadius(gameObject);
+        }
+    }
+
+    private boolean isWithinRadius(GameObject gameObject) {
+
+        float centreX = gameObject.getWorldX() + gameObject.getWidth() / 2f;
+        float centreY = gameObject.getWorldY() + gameObject.getHeight() / 2f;
+        float radiusSquared = activationRadius * activationRadius;
+
+        if (cameraAnchored && distanceSquared(centreX, centreY, Game.getCamera().getViewportCentreX(), Game.getCamera().getViewportCentreY()) <= radiusSquared) {
+            return true;
+        }
+
+        for (int i = 0; i < anchors.size(); i++) {
+            TransformedObject anchor = anchors.get(i);
+
+            if (anchor == gameObject) {
+                return true;
+            }
+
+            float anchorX = worldX(anchor) + anchor.getWidth() / 2f;
+            float anchorY = worldY(anchor) + anchor.getHeight() / 2f;
+
+            if (distanceSquared(centreX, centreY, anchorX, anchorY) <= radiusSquared) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the x position of the given object in the scene, which for an attached {@link GameObject}
+     * is {@link GameObject#getWorldX()} rather than its position relative to the parent.
+     *
+     * @param object the object
+     * @return the x position of the given object in the scene
+     */
+    private static float worldX(TransformedObject object) {
+        return object instanceof GameObject ? ((GameObject) object).getWorldX() : object.getX();
+    }
+
+    /**
+     * Returns the y position of the given object in the scene, see {@link #worldX(TransformedObject)}.
+     *
+     * @param object the object
+     * @return the y position of the given object in the scene
+     */
+    private static float worldY(TransformedObject object) {
+        return object instanceof GameObject ? ((GameObject) object).getWorldY() : object.getY();
+    }
+
+    private static float distanceSquared(float x1, float y1, float x2, float y2) {
+        float deltaX = x1 - x2;
+        float deltaY = y1 - y2;
+
+        return deltaX * deltaX + deltaY * deltaY;
+    }
+
+    public void addAnchor(TransformedObject anchor) {
+        anchors.add(anchor);
+    }
+
+    public void removeAnchor(TransformedObject anchor) {
+        anchors.remove(anchor);
+    }
+
+    public void clearAnchors() {
+        anchors.clear();
+    }
+
+    public List<TransformedObject> getAnchors() {
+        return anchors;
+    }
+
+    public float getActivationRadius() {
+        return activationRadius;
+    }
+
+    public void setActivationRadius(float activationRadius) {
+        this.activationRadius = activationRadius;
+    }
+
+    public Activation getDefaultActivation() {
+        return defaultActivation;
+    }
+
+    public void setDefaultActivation(Activation defaultActivation) {
+        this.defaultActivation = defaultActivation;
+    }
+
+    public boolean isCameraAnchored() {
+        return cameraAnchored;
+    }
+
+    public void setCameraAnchored(boolean cameraAnchored) {
+        this.cameraAnchored = cameraAnchored;
+    }
+
+    public int getEvaluationInterval() {
+        return evaluationInterval;
+    }
+
+    public void setEvaluationInterval(int evaluationInterval) {
+        this.evaluationInterval = Math.max(1, evaluationInterval);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene;
+
+import de.edgelord.saltyengine.gameobject.GameObject;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid that buckets {@link GameObject}s by the cells their
+ * {@link GameObject#getDrawBounds(Rectangle2D.Float, boolean) bounds} overlap, so that all GameObjects within
+ * an area can be found without testing every GameObject of a {@link Scene}.
+ * <p>
+ * The bounds a GameObject is bucketed with are only updated by {@link #update(GameObject)}. A {@link Scene} with a
+ * grid (see {@link Scene#setSpatialGrid(SpatialGrid)}) does that for all simulated GameObjects after every fixed tick.
+ * <p>
+ * GameObjects that aren't {@link GameObject#isCullable() cullable} or that would cover more than
+ * {@link #MAX_CELLS_PER_OBJECT} cells are not bucketed but returned by every query.
+ * <p>
+ * A grid is not thread-safe, a {@link Scene} only accesses it within {@link Scene#concurrentBlock}.
+ */
+public class SpatialGrid {
+
+    /**
+     * The maximum number of cells a single GameObject is bucketed into.
+     * Larger GameObjects are treated like GameObjects that are not cullable.
+     */
+    public static final int MAX_CELLS_PER_OBJECT = 64;
+
+    private final float cellSize;
+
+    private final Map<Long, List<GameObject>> cells = new HashMap<>();
+    private final Map<GameObject, Entry> entries = new IdentityHashMap<>();
+    private final List<GameObject> unbounded = new ArrayList<>();
+
+    private final Rectangle2D.Float bounds = new Rectangle2D.Float();
+    private int queryStamp = 0;
+
+    /**
+     * Creates a new grid with the given cell size. A good cell size is about the size of a typical GameObject
+     * up to a few times that.
+     *
+     * @param cellSize the width and height of a cell
+     */
+    public SpatialGrid(float cellSize) {
+        if (cellSize <= 0f) {
+            throw new IllegalArgumentException("The cell size of a SpatialGrid has to be greater than zero!");
+        }
+
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds the given GameObject to this grid or re-buckets it if its bounds moved to other cells since the last
+     * call. If the cells didn't change, this is only a few comparisons.
+     *
+     * @param gameObject the GameObject to add or update
+     */
+    public void update(GameObject gameObject) {
+        Entry entry = entries.get(gameObject);
+
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(gameObject, entry);
+        }
+
+        if (!gameObject.isCullable()) {
+            moveTo(gameObject, entry, true, 0, 0, -1, -1);
+            return;
+        }
+
+        // rotated bounds, so that the camera rotation doesn't invalidate the buckets
+        gameObject.getDrawBounds(bounds, true);
+        int minCellX = cell(bounds.x);
+        int minCellY = cell(bounds.y);
+        int maxCellX = cell(bounds.x + bounds.width);
+        int maxCellY = cell(bounds.y + bounds.height);
+
+        long cellCount = ((long) maxCellX - minCellX + 1) * ((long) maxCellY - minCellY + 1);
+
+        if (cellCount > MAX_CELLS_PER_OBJECT) {
+            moveTo(gameObject, entry, true, 0, 0, -1, -1);
+        } else {
+            moveTo(gameObject, entry, false, minCellX, minCellY, maxCellX, maxCellY);
+        }
+    }
+
+    /**
+     * Removes the given GameObject from this grid.
+     *
+     * @param gameObject the GameObject to remove
+     */
+    public void remove(GameObject gameObject) {
+        Entry entry = entries.remove(gameObject);
+
+        if (entry != null) {
+            unbucket(gameObject, entry);
+        }
+    }
+
+    /**
+     * Removes all GameObjects from this grid.
+     */
+    public void clear() {
+        cells.clear();
+        entries.clear();
+        unbounded.clear();
+    }
+
+    /**
+     * Adds all GameObjects whose bucketed bounds might intersect the given area to the given collection, each of them
+     * only once. That includes all GameObjects that are not bucketed, see {@link SpatialGrid}.
+     * The result is a superset of the GameObjects actually intersecting the area in no particular order,
+     * so callers should test the exact bounds.
+     *
+     * @param x      the x position of the area
+     * @param y      the y position of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @param result the collection to add the GameObjects to
+     * @param <C>    the type of the collection
+     * @return the given collection
+     */
+    public <C extends Collection<? super GameObject>> C query(float x, float y, float width, float height, C result) {
+        queryStamp++;
+
+        result.addAll(unbounded);
+
+        int minCellX = cell(x);
+        int minCellY = cell(y);
+        int maxCellX = cell(x + width);
+        int maxCellY = cell(y + height);
+
+        long cellCount = ((long) maxCellX - minCellX + 1) * ((long) maxCellY - minCellY + 1);
+
+        if (cellCount > cells.size()) {
+            // the area covers more cells than there are occupied ones
+            for (Map.Entry<Long, List<GameObject>> cell : cells.entrySet()) {
+                long key = cell.getKey();
+                int cellX = (int) (key >> 32);
+                int cellY = (int) key;
+
+                if (cellX >= minCellX && cellX <= maxCellX && cellY >= minCellY && cellY <= maxCellY) {
+                    collect(cell.getValue(), result);
+                }
+            }
+        } else {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                    List<GameObject> cell = cells.get(key(cellX, cellY));
+
+                    if (cell != null) {
+                        collect(cell, result);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the number of GameObjects in this grid
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    private void collect(List<GameObject> cell, Collection<? super GameObject> result) {
+        for (int i = 0; i < cell.size(); i++) {
+            GameObject gameObject = cell.get(i);
+            Entry entry = entries.get(gameObject);
+
+            if (entry.queryStamp != queryStamp) {
+                entry.queryStamp = queryStamp;
+                result.add(gameObject);
+            }
+        }
+    }
+
+    private void moveTo(GameObject gameObject, Entry entry, boolean toUnbounded, int minCellX, int minCellY, int maxCellX, int maxCellY) {
+        if (entry.bucketed && entry.unbounded == toUnbounded && entry.minCellX == minCellX && entry.minCellY == minCellY
+                && entry.maxCellX == maxCellX && entry.maxCellY == maxCellY) {
+            return;
+        }
+
+        unbucket(gameObject, entry);
+
+        entry.bucketed = true;
+        entry.unbounded = toUnbounded;
+        entry.minCellX = minCellX;
+        entry.minCellY = minCellY;
+        entry.maxCellX = maxCellX;
+        entry.maxCellY = maxCellY;
+
+        if (toUnbounded) {
+            unbounded.add(gameObject);
+            return;
+        }
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                cells.computeIfAbsent(key(cellX, cellY), key -> new ArrayList<>(4)).add(gameObject);
+            }
+        }
+    }
+
+    private void unbucket(GameObject gameObject, Entry entry) {
+        if (!entry.bucketed) {
+            return;
+        }
+
+        entry.bucketed = false;
+
+        if (entry.unbounded) {
+            unbounded.remove(gameObject);
+            return;
+        }
+
+        for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+            for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+                Long key = key(cellX, cellY);
+                List<GameObject> cell = cells.get(key);
+
+                if (cell != null) {
+                    cell.remove(gameObject);
+
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static Long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    private static class Entry {
+        private boolean bucketed = false;
+        private boolean unbounded;
+        private int minCellX, minCellY, maxCellX, maxCellY;
+        private int queryStamp;
+    }
+}
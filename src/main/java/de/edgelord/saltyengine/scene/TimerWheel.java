@@ -0,0 +1,320 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene;
+
+/**
+ * A hierarchical timing wheel that calls {@link Runnable}s after a given number of fixed ticks, once or periodically.
+ * <p>
+ * Instead of every component counting its own ticks on every fixed tick, components register a callback here and
+ * only the callbacks that are due are executed when the wheel {@link #advance()}s. Scheduling and cancelling are O(1),
+ * advancing is O(1) plus the number of due callbacks, and once in a while a slot of a higher level is redistributed
+ * into the lower ones.
+ * <p>
+ * The wheel has {@link #LEVELS} levels of {@link #SLOTS} slots each. Level 0 holds all timers that are due within
+ * the next {@link #SLOTS} ticks, level 1 the ones due within the next {@code SLOTS^2} ticks and so on. Timers that are
+ * due even later are parked in the last level and redistributed until they fit.
+ * <p>
+ * Every {@link Scene} has its own wheel, see {@link Scene#getTimerWheel()}, which is advanced at the very beginning
+ * of every {@link Scene#onFixedTick()}. It is not thread-safe and meant to be used on the tick thread only.
+ */
+public class TimerWheel {
+
+    public static final int LEVELS = 4;
+    public static final int SLOT_BITS = 6;
+    public static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_DELAY = (1L << (LEVELS * SLOT_BITS)) - 1;
+
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+
+    /**
+     * The timers that are currently being fired, so that they can still be cancelled by other callbacks.
+     */
+    private final Timer firing = new Timer(null, 0);
+
+    private long currentTick = 0;
+    private int scheduledCount = 0;
+
+    public TimerWheel() {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[level][slot] = new Timer(null, 0);
+            }
+        }
+    }
+
+    /**
+     * Calls the given {@link Runnable} once in the given number of ticks.
+     *
+     * @param delayTicks the number of calls to {@link #advance()} after which the callback is called, at least 1
+     * @param callback   the callback
+     * @return the scheduled {@link Timer}, which can be used to cancel it
+     */
+    public Timer schedule(int delayTicks, Runnable callback) {
+        return schedule(new Timer(callback, 0), delayTicks);
+    }
+
+    /**
+     * Calls the given {@link Runnable} every <code>periodTicks</code> ticks, the first time in <code>initialDelayTicks</code>.
+     *
+     * @param initialDelayTicks the number of ticks until the first call, at least 1
+     * @param periodTicks       the number of ticks between two calls, at least 1
+     * @param callback          the callback
+     * @return the scheduled {@link Timer}, which can be used to cancel it
+     */
+    public Timer scheduleAtFixedRate(int initialDelayTicks, int periodTicks, Runnable callback) {
+        if (periodTicks < 1) {
+            throw new IllegalArgumentException("The period of a timer has to be at least one tick!");
+        }
+
+        return schedule(new Timer(callback, periodTicks), initialDelayTicks);
+    }
+
+    /**
+     * Calls the given {@link Runnable} every <code>periodTicks</code> ticks, the first time in <code>periodTicks</code>.
+     *
+     * @param periodTicks the number of ticks between two calls, at least 1
+     * @param callback    the callback
+     * @return the scheduled {@link Timer}, which can be used to cancel it
+     */
+    public Timer scheduleAtFixedRate(int periodTicks, Runnable callback) {
+        return scheduleAtFixedRate(periodTicks, periodTicks, callback);
+    }
+
+    private Timer schedule(Timer timer, int delayTicks) {
+        timer.wheel = this;
+        timer.expiration = currentTick + Math.max(1, delayTicks);
+        insert(timer);
+        scheduledCount++;
+
+        return timer;
+    }
+
+    /**
+     * Advances the wheel by one tick and calls all callbacks that are due.
+     */
+    public void advance() {
+        currentTick++;
+
+        // whenever a level wrapped around, the current slot of the next higher level is redistributed;
+        // that has to happen from the top down so that timers can fall through several levels at once
+        int wrappedLevels = 0;
+        while (wrappedLevels < LEVELS - 1 && ((currentTick >> (wrappedLevels * SLOT_BITS)) & SLOT_MASK) == 0) {
+            wrappedLevels++;
+        }
+
+        for (int level = wrappedLevels; level > 0; level--) {
+            cascade(level, (int) ((currentTick >> (level * SLOT_BITS)) & SLOT_MASK));
+        }
+
+        Timer slot = slots[0][(int) (currentTick & SLOT_MASK)];
+        if (slot.next == slot) {
+            return;
+        }
+
+        spliceInto(slot, firing);
+
+        while (firing.next != firing) {
+            Timer timer = firing.next;
+            timer.unlink();
+
+            if (timer.period > 0) {
+                timer.expiration += timer.period;
+                insert(timer);
+            } else {
+                timer.wheel = null;
+                scheduledCount--;
+            }
+
+            timer.callback.run();
+        }
+    }
+
+    private void cascade(int level, int index) {
+        Timer slot = slots[level][index];
+
+        while (slot.next != slot) {
+            Timer timer = slot.next;
+            timer.unlink();
+            insert(timer);
+        }
+    }
+
+    private void insert(Timer timer) {
+        long delta = timer.expiration - currentTick;
+        long placement = timer.expiration;
+
+        if (delta < 0) {
+            placement = currentTick;
+        } else if (delta > MAX_DELAY) {
+            placement = currentTick + MAX_DELAY;
+        }
+
+        delta = placement - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << ((level + 1) * SLOT_BITS))) {
+            level++;
+        }
+
+        timer.linkBefore(slots[level][(int) ((placement >> (level * SLOT_BITS)) & SLOT_MASK)]);
+    }
+
+    private static void spliceInto(Timer from, Timer to) {
+        Timer first = from.next;
+        Timer last = from.prev;
+        Timer toLast = to.prev;
+
+        toLast.next = first;
+        first.prev = toLast;
+        last.next = to;
+        to.prev = last;
+
+        from.next = from;
+        from.prev = from;
+    }
+
+    /**
+     * @return the number of times {@link #advance()} was called
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return the number of timers that are currently scheduled
+     */
+    public int getScheduledCount() {
+        return scheduledCount;
+    }
+
+    /**
+     * A callback scheduled within a {@link TimerWheel}. The timers of a slot form an intrusive doubly linked list,
+     * so that they can be moved and cancelled without any allocations.
+     */
+    public static final class Timer {
+
+        private final Runnable callback;
+        private final int period;
+
+        private TimerWheel wheel = null;
+        private TimerWheel pausedWheel = null;
+        private long expiration;
+        private long remainingTicks;
+        private Timer prev = this;
+        private Timer next = this;
+
+        private Timer(Runnable callback, int period) {
+            this.callback = callback;
+            this.period = period;
+        }
+
+        /**
+         * Cancels this timer. Its callback won't be called anymore, not even if it is due within the current tick.
+         * A paused timer can't be resumed after it was cancelled.
+         */
+        public void cancel() {
+            if (wheel != null) {
+                unlink();
+                wheel.scheduledCount--;
+                wheel = null;
+            }
+            pausedWheel = null;
+        }
+
+        /**
+         * Takes this timer out of its {@link TimerWheel} without forgetting how many ticks it had left, so that
+         * {@link #resume()} can schedule it again, e.g. while the {@link de.edgelord.saltyengine.gameobject.GameObject}
+         * it belongs to is dormant. Pausing a timer that isn't scheduled does nothing.
+         */
+        public void pause() {
+            if (wheel != null) {
+                remainingTicks = expiration - wheel.currentTick;
+                unlink();
+                wheel.scheduledCount--;
+                pausedWheel = wheel;
+                wheel = null;
+            }
+        }
+
+        /**
+         * Schedules this timer again after it was {@link #pause() paused}, with the number of ticks it had left
+         * back then. Resuming a timer that isn't paused does nothing.
+         */
+        public void resume() {
+            if (pausedWheel != null) {
+                TimerWheel target = pausedWheel;
+                pausedWheel = null;
+                target.schedule(this, (int) Math.min(Integer.MAX_VALUE, remainingTicks));
+            }
+        }
+
+        /**
+         * @return whether this timer is still going to call its callback
+         */
+        public boolean isScheduled() {
+            return wheel != null;
+        }
+
+        /**
+         * @return whether this timer is {@link #pause() paused}
+         */
+        public boolean isPaused() {
+            return pausedWheel != null;
+        }
+
+        /**
+         * @return the number of ticks until this timer is called next, also while it is {@link #pause() paused},
+         * or 0 if it isn't scheduled at all
+         */
+        public long getRemainingTicks() {
+            if (wheel != null) {
+                return expiration - wheel.currentTick;
+            }
+
+            return pausedWheel != null ? remainingTicks : 0;
+        }
+
+        /**
+         * @return the number of ticks between two calls or 0 if this timer is only called once
+         */
+        public int getPeriod() {
+            return period;
+        }
+
+        /**
+         * @return the tick of the {@link TimerWheel} this timer is going to be called at next
+         */
+        public long getExpiration() {
+            return expiration;
+        }
+
+        private void linkBefore(Timer sentinel) {
+            prev = sentinel.prev;
+            next = sentinel;
+            sentinel.prev.next = this;
+            sentinel.prev = this;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+    }
+}
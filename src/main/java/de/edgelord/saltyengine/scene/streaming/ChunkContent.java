@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene.streaming;
+
+import de.edgelord.saltyengine.effect.light.Light;
+import de.edgelord.saltyengine.effect.light.LightSystem;
+import de.edgelord.saltyengine.gameobject.DrawingRoutine;
+import de.edgelord.saltyengine.gameobject.GameObject;
+import de.edgelord.saltyengine.scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything that belongs to one chunk of a streamed world: its {@link GameObject}s, its {@link DrawingRoutine}s
+ * (e.g. a {@link de.edgelord.saltyengine.effect.StaticTileGrid}) and its {@link Light}s.
+ * <p>
+ * The {@link WorldStreamer} adds and removes these one element at a time, so that it can spread the work
+ * of a chunk over several ticks. The elements are indexed in the order {@link GameObject}s, {@link DrawingRoutine}s,
+ * {@link Light}s.
+ */
+public class ChunkContent {
+
+    private final List<GameObject> gameObjects = new ArrayList<>();
+    private final List<DrawingRoutine> drawingRoutines = new ArrayList<>();
+    private final List<Light> lights = new ArrayList<>();
+
+    public ChunkContent addGameObject(GameObject gameObject) {
+        gameObjects.add(gameObject);
+        return this;
+    }
+
+    public ChunkContent addDrawingRoutine(DrawingRoutine drawingRoutine) {
+        drawingRoutines.add(drawingRoutine);
+        return this;
+    }
+
+    public ChunkContent addLight(Light light) {
+        lights.add(light);
+        return this;
+    }
+
+    /**
+     * Returns the number of elements of this chunk, which is the number of {@link GameObject}s,
+     * {@link DrawingRoutine}s and {@link Light}s combined.
+     *
+     * @return the number of elements of this chunk
+     */
+    public int size() {
+        return gameObjects.size() + drawingRoutines.size() + lights.size();
+    }
+
+    /**
+     * Adds the element with the given index to the given {@link Scene}.
+     * {@link Light}s are only added if the scene has a {@link LightSystem}.
+     *
+     * @param index the index of the element
+     * @param scene the scene to add the element to
+     */
+    void addToScene(int index, Scene scene) {
+        if (index < gameObjects.size()) {
+            scene.addGameObject(gameObjects.get(index));
+            return;
+        }
+
+        index -= gameObjects.size();
+        if (index < drawingRoutines.size()) {
+            scene.addDrawingRoutine(drawingRoutines.get(index));
+            return;
+        }
+
+        index -= drawingRoutines.size();
+        LightSystem lightSystem = scene.getLightSystem();
+        if (lightSystem != null) {
+            lightSystem.addLight(lights.get(index));
+        }
+    }
+
+    /**
+     * Removes the element with the given index from the given {@link Scene}.
+     *
+     * @param index the index of the element
+     * @param scene the scene to remove the element from
+     */
+    void removeFromScene(int index, Scene scene) {
+        if (index < gameObjects.size()) {
+            scene.removeGameObject(gameObjects.get(index));
+            return;
+        }
+
+        index -= gameObjects.size();
+        if (index < drawingRoutines.size()) {
+            scene.removeDrawingRoutine(drawingRoutines.get(index));
+            return;
+        }
+
+        index -= drawingRoutines.size();
+        LightSystem lightSystem = scene.getLightSystem();
+        if (lightSystem != null) {
+            lightSystem.removeLight(lights.get(index));
+        }
+    }
+
+    public List<GameObject> getGameObjects() {
+        return gameObjects;
+    }
+
+    public List<DrawingRoutine> getDrawingRoutines() {
+        return drawingRoutines;
+    }
+
+    public List<Light> getLights() {
+        return lights;
+    }
+}
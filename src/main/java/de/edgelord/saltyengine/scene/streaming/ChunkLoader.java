@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene.streaming;
+
+import de.edgelord.saltyengine.transform.Coordinates;
+import de.edgelord.saltyengine.transform.Transform;
+
+/**
+ * Creates the content of one chunk of a world streamed by a {@link WorldStreamer}.
+ * <p>
+ * {@link #loadChunk(Coordinates, Transform)} is called on a background thread, so it can construct all
+ * {@link de.edgelord.saltyengine.gameobject.GameObject}s, tile grids and lights of the chunk and load all of their
+ * images and other assets without stalling the game. It must not touch the {@link de.edgelord.saltyengine.scene.Scene}
+ * itself; adding the content to the scene is done by the {@link WorldStreamer} on the tick thread.
+ */
+@FunctionalInterface
+public interface ChunkLoader {
+
+    /**
+     * Creates the content of the chunk with the given coordinates.
+     *
+     * @param chunk  the coordinates of the chunk, measured in chunks
+     * @param bounds the area of the chunk in user-space
+     * @return the content of the chunk, which may be empty but never <code>null</code>
+     */
+    ChunkContent loadChunk(Coordinates chunk, Transform bounds);
+}
@@ -0,0 +1,450 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene.streaming;
+
+import de.edgelord.saltyengine.core.Game;
+import de.edgelord.saltyengine.core.interfaces.TransformedObject;
+import de.edgelord.saltyengine.gameobject.FixedTask;
+import de.edgelord.saltyengine.gameobject.GameObject;
+import de.edgelord.saltyengine.io.serialization.Serializable;
+import de.edgelord.saltyengine.scene.Scene;
+import de.edgelord.saltyengine.transform.Coordinates;
+import de.edgelord.saltyengine.transform.Transform;
+import de.edgelord.stdf.Species;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams the content of a large world into a {@link Scene} chunk by chunk.
+ * <p>
+ * The world is partitioned into a grid of chunks with the size {@link #chunkWidth} x {@link #chunkHeight}.
+ * All chunks within {@link #loadRadius} (measured in chunks) around the focus - the centre of the camera's viewport
+ * or a {@link TransformedObject} set with {@link #setFocus(TransformedObject)} - are loaded, all chunks further away
+ * than {@link #unloadRadius} are unloaded. The gap between the two radii prevents chunks from being loaded and unloaded
+ * over and over again when the focus moves along the border of a chunk.
+ * <p>
+ * Loading a chunk happens in two steps:
+ * <ol>
+ * <li>The {@link ChunkLoader} creates the {@link ChunkContent} on a background thread, including all assets</li>
+ * <li>The content is added to the scene on the tick thread, but at most {@link #instantiationBudget} elements per tick,
+ * so that streaming never causes a spike</li>
+ * </ol>
+ * Unloading removes the elements of a chunk within the same budget. Before a chunk is dropped, every {@link GameObject}
+ * of it that implements {@link Serializable} is serialized into a {@link Species} that is kept in memory, and the next
+ * time the chunk is loaded, the {@link GameObject} with the same {@link Serializable#getDataSetName()} is deserialized
+ * from it before it is added to the scene.
+ * <p>
+ * A WorldStreamer is a {@link FixedTask}, add it to its scene using {@link Scene#addFixedTask(FixedTask)}:
+ * <pre>
+ *     {@code
+ *     WorldStreamer streamer = new WorldStreamer(this, 512, 512, (chunk, bounds) -> {
+ *         ChunkContent content = new ChunkContent();
+ *         content.addDrawingRoutine(new MyTileGrid(bounds.getPosition()));
+ *         content.addGameObject(new Tree(bounds.getX() + 100, bounds.getY() + 50));
+ *         return content;
+ *     });
+ *     addFixedTask(streamer);
+ *     }
+ * </pre>
+ */
+public class WorldStreamer extends FixedTask {
+
+    private enum State {LOADING, INSTANTIATING, LOADED, UNLOADING, CANCELLED}
+
+    private final Scene scene;
+    private final ChunkLoader loader;
+    private final float chunkWidth;
+    private final float chunkHeight;
+
+    private int loadRadius = 1;
+    private int unloadRadius = 2;
+
+    /**
+     * The maximum number of elements that are added to or removed from the scene per tick.
+     */
+    private int instantiationBudget = 16;
+
+    /**
+     * The object the loaded area is centred around, or <code>null</code> to use the centre of the camera's viewport.
+     */
+    private TransformedObject focus = null;
+
+    private final ExecutorService loadingExecutor;
+
+    private final Map<Coordinates, StreamedChunk> chunks = new HashMap<>();
+    private final List<StreamedChunk> workingChunks = new ArrayList<>();
+    private final Queue<StreamedChunk> finishedLoads = new ConcurrentLinkedQueue<>();
+    private final Map<Coordinates, Map<String, Species>> savedStates = new ConcurrentHashMap<>();
+
+    private boolean focusChanged = true;
+    private int focusChunkX;
+    private int focusChunkY;
+
+    public WorldStreamer(Scene scene, float chunkWidth, float chunkHeight, ChunkLoader loader, int loadingThreads) {
+        this.scene = scene;
+        this.chunkWidth = chunkWidth;
+        this.chunkHeight = chunkHeight;
+        this.loader = loader;
+
+        loadingExecutor = Executors.newFixedThreadPool(loadingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "salty-engine-world-streaming");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public WorldStreamer(Scene scene, float chunkWidth, float chunkHeight, ChunkLoader loader) {
+        this(scene, chunkWidth, chunkHeight, loader, 1);
+    }
+
+    @Override
+    public void onFixedTick() {
+
+        acceptFinishedLoads();
+        updateFocus();
+
+        if (focusChanged) {
+            focusChanged = false;
+            unloadDistantChunks();
+            loadNearChunks();
+        }
+
+        processWorkingChunks();
+    }
+
+    private void acceptFinishedLoads() {
+        StreamedChunk chunk;
+
+        while ((chunk = finishedLoads.poll()) != null) {
+            if (chunk.state == State.CANCELLED) {
+                continue;
+            }
+
+            if (chunk.content == null) {
+                // loading failed, the chunk is requested again when the focus moves
+                chunks.remove(chunk.coordinates);
+                continue;
+            }
+
+            chunk.state = State.INSTANTIATING;
+            workingChunks.add(chunk);
+        }
+    }
+
+    private void updateFocus() {
+        float x;
+        float y;
+
+        if (focus == null) {
+            x = Game.getCamera().getViewportCentreX();
+            y = Game.getCamera().getViewportCentreY();
+        } else {
+            // an attached GameObject has to be tracked by its position in the scene, not the one relative to its parent
+            if (focus instanceof GameObject) {
+                x = ((GameObject) focus).getWorldX() + focus.getWidth() / 2f;
+                y = ((GameObject) focus).getWorldY() + focus.getHeight() / 2f;
+            } else {
+                x = focus.getX() + focus.getWidth() / 2f;
+                y = focus.getY() + focus.getHeight() / 2f;
+            }
+        }
+
+        int chunkX = (int) Math.floor(x / chunkWidth);
+        int chunkY = (int) Math.floor(y / chunkHeight);
+
+        if (chunkX != focusChunkX || chunkY != focusChunkY) {
+            focusChunkX = chunkX;
+            focusChunkY = chunkY;
+            focusChanged = true;
+        }
+    }
+
+    private void unloadDistantChunks() {
+        Iterator<StreamedChunk> iterator = chunks.values().iterator();
+
+        while (iterator.hasNext()) {
+            StreamedChunk chunk = iterator.next();
+
+            if (distanceToFocus(chunk.coordinates) <= unloadRadius) {
+                continue;
+            }
+
+            switch (chunk.state) {
+                case LOADING:
+                    chunk.state = State.CANCELLED;
+                    iterator.remove();
+                    break;
+                case INSTANTIATING:
+                    chunk.state = State.UNLOADING;
+                    break;
+                case LOADED:
+                    chunk.state = State.UNLOADING;
+                    workingChunks.add(chunk);
+                    break;
+            }
+        }
+    }
+
+    private void loadNearChunks() {
+
+        // request the chunks ring by ring so that the nearest ones are loaded first
+        for (int ring = 0; ring <= loadRadius; ring++) {
+            for (int x = focusChunkX - ring; x <= focusChunkX + ring; x++) {
+                for (int y = focusChunkY - ring; y <= focusChunkY + ring; y++) {
+                    if (Math.max(Math.abs(x - focusChunkX), Math.abs(y - focusChunkY)) == ring) {
+                        requestChunk(new Coordinates(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    private void requestChunk(Coordinates coordinates) {
+        StreamedChunk chunk = chunks.get(coordinates);
+
+        if (chunk != null) {
+            if (chunk.state == State.UNLOADING) {
+                chunk.state = State.INSTANTIATING;
+            }
+            return;
+        }
+
+        StreamedChunk newChunk = new StreamedChunk(coordinates);
+        chunks.put(coordinates, newChunk);
+
+        Transform bounds = new Transform(coordinates.getX() * chunkWidth, coordinates.getY() * chunkHeight, chunkWidth, chunkHeight);
+
+        loadingExecutor.execute(() -> {
+            try {
+                ChunkContent content = loader.loadChunk(coordinates, bounds);
+                restoreState(coordinates, content);
+                newChunk.content = content;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+
+            finishedLoads.add(newChunk);
+        });
+    }
+
+    private void processWorkingChunks() {
+        int budget = instantiationBudget;
+        Iterator<StreamedChunk> iterator = workingChunks.iterator();
+
+        while (iterator.hasNext() && budget > 0) {
+            StreamedChunk chunk = iterator.next();
+
+            if (chunk.state == State.INSTANTIATING) {
+                while (budget > 0 && chunk.instantiated < chunk.content.size()) {
+                    chunk.content.addToScene(chunk.instantiated++, scene);
+                    budget--;
+                }
+
+                if (chunk.instantiated == chunk.content.size()) {
+                    chunk.state = State.LOADED;
+                    iterator.remove();
+                }
+            } else if (chunk.state == State.UNLOADING) {
+                while (budget > 0 && chunk.instantiated > 0) {
+                    chunk.content.removeFromScene(--chunk.instantiated, scene);
+                    budget--;
+                }
+
+                if (chunk.instantiated == 0) {
+                    saveState(chunk);
+                    chunks.remove(chunk.coordinates);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void saveState(StreamedChunk chunk) {
+        Map<String, Species> states = null;
+
+        for (GameObject gameObject : chunk.content.getGameObjects()) {
+            if (gameObject instanceof Serializable) {
+                Serializable serializable = (Serializable) gameObject;
+                Species species = new Species(serializable.getDataSetName(), "");
+
+                serializable.serialize(species);
+
+                if (states == null) {
+                    states = new HashMap<>();
+                }
+                states.put(serializable.getDataSetName(), species);
+            }
+        }
+
+        if (states != null) {
+            savedStates.put(chunk.coordinates, states);
+        }
+    }
+
+    private void restoreState(Coordinates coordinates, ChunkContent content) {
+        Map<String, Species> states = savedStates.get(coordinates);
+
+        if (states == null) {
+            return;
+        }
+
+        for (GameObject gameObject : content.getGameObjects()) {
+            if (gameObject instanceof Serializable) {
+                Serializable serializable = (Serializable) gameObject;
+                Species species = states.get(serializable.getDataSetName());
+
+                if (species != null) {
+                    serializable.deserialize(species);
+                }
+            }
+        }
+    }
+
+    private int distanceToFocus(Coordinates chunk) {
+        return Math.max(Math.abs(chunk.getX() - focusChunkX), Math.abs(chunk.getY() - focusChunkY));
+    }
+
+    /**
+     * Removes the content of all chunks from the scene immediately, ignoring {@link #instantiationBudget},
+     * and cancels all pending loads. The state of all {@link Serializable} {@link GameObject}s is kept.
+     */
+    public void unloadAll() {
+        for (StreamedChunk chunk : chunks.values()) {
+            if (chunk.state == State.LOADING) {
+                chunk.state = State.CANCELLED;
+                continue;
+            }
+
+            while (chunk.instantiated > 0) {
+                chunk.content.removeFromScene(--chunk.instantiated, scene);
+            }
+            saveState(chunk);
+        }
+
+        chunks.clear();
+        workingChunks.clear();
+        focusChanged = true;
+    }
+
+    /**
+     * Unloads all chunks and stops the background threads. This WorldStreamer can't be used afterwards.
+     */
+    public void shutdown() {
+        unloadAll();
+        loadingExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns whether the chunk with the given coordinates is completely added to the scene.
+     *
+     * @param chunk the coordinates of the chunk, measured in chunks
+     * @return whether the chunk is completely loaded
+     */
+    public boolean isLoaded(Coordinates chunk) {
+        StreamedChunk streamedChunk = chunks.get(chunk);
+
+        return streamedChunk != null && streamedChunk.state == State.LOADED;
+    }
+
+    /**
+     * @return the number of chunks that are currently loading, loaded or unloading
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    public float getChunkWidth() {
+        return chunkWidth;
+    }
+
+    public float getChunkHeight() {
+        return chunkHeight;
+    }
+
+    public int getLoadRadius() {
+        return loadRadius;
+    }
+
+    /**
+     * Sets the radius around the focus, measured in chunks, in which chunks are loaded.
+     * If the {@link #unloadRadius} is not greater than the new radius, it is set to <code>loadRadius + 1</code>.
+     *
+     * @param loadRadius the new load radius
+     */
+    public void setLoadRadius(int loadRadius) {
+        this.loadRadius = loadRadius;
+
+        if (unloadRadius <= loadRadius) {
+            unloadRadius = loadRadius + 1;
+        }
+        focusChanged = true;
+    }
+
+    public int getUnloadRadius() {
+        return unloadRadius;
+    }
+
+    /**
+     * Sets the radius around the focus, measured in chunks, beyond which chunks are unloaded.
+     *
+     * @param unloadRadius the new unload radius
+     * @throws IllegalArgumentException if the given radius is smaller than the {@link #loadRadius}
+     */
+    public void setUnloadRadius(int unloadRadius) {
+        if (unloadRadius < loadRadius) {
+            throw new IllegalArgumentException("The unload radius of a WorldStreamer can't be smaller than its load radius!");
+        }
+
+        this.unloadRadius = unloadRadius;
+        focusChanged = true;
+    }
+
+    public int getInstantiationBudget() {
+        return instantiationBudget;
+    }
+
+    public void setInstantiationBudget(int instantiationBudget) {
+        this.instantiationBudget = Math.max(1, instantiationBudget);
+    }
+
+    public TransformedObject getFocus() {
+        return focus;
+    }
+
+    public void setFocus(TransformedObject focus) {
+        this.focus = focus;
+    }
+
+    private static class StreamedChunk {
+        private final Coordinates coordinates;
+        private volatile State state = State.LOADING;
+        private ChunkContent content = null;
+
+        /**
+         * The number of elements of {@link #content} that are currently added to the scene.
+         */
+        private int instantiated = 0;
+
+        private StreamedChunk(Coordinates coordinates) {
+            this.coordinates = coordinates;
+        }
+    }
+}
@@ -16,6 +16,13 @@
 
 package de.edgelord.saltyengine.transform;
 
+/**
+ * A mutable pair of integer coordinates.
+ * <p>
+ * {@link #equals(Object)} and {@link #hashCode()} depend on the coordinates, so an instance that is used as a key of a
+ * hash-based collection, e.g. within {@link de.edgelord.saltyengine.effect.StaticTileGrid#buildTileGrid(java.util.HashMap)},
+ * must not be changed while it is in there, or it can't be found anymore.
+ */
 public class Coordinates {
 
     private int x, y;
@@ -95,4 +102,9 @@ public class Coordinates {
         return x == that.x &&
                 y == that.y;
     }
+
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
 }
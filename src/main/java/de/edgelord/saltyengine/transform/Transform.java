@@ -68,12 +68,17 @@ public class Transform {
     }
 
     /**
-     * Returns whether this transform is on screen or not, considering the position of the {@link Game#getCamera()}
+     * Returns whether this transform is on screen or not, considering the position of the {@link Game#getCamera()}.
+     * The rotation of the camera is not considered.
      *
      * @return whether the rectangle described by this transform is visible or not.
      */
     public boolean isVisible() {
-        return intersects(new Transform(Game.getCamera().getPosition(), Game.getGameDimensions()));
+        float viewportX = Game.getCamera().getViewportX();
+        float viewportY = Game.getCamera().getViewportY();
+
+        return getX() < viewportX + Game.getGameWidth() && getMaxX() > viewportX
+                && getY() < viewportY + Game.getGameHeight() && getMaxY() > viewportY;
     }
 
     /**
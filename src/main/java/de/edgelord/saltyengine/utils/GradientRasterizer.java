@@ -0,0 +1,256 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.utils;
+
+import de.edgelord.saltyengine.effect.geom.EnumShape;
+import de.edgelord.saltyengine.effect.geom.RoundRectShape;
+import de.edgelord.saltyengine.effect.geom.SaltyShape;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the images of {@link ImageUtils#createPrimitiveGradient(SaltyShape, de.edgelord.saltyengine.core.interfaces.Drawable, RenderingHints, float, double)}
+ * directly into the pixels instead of filling one shape per ring of the gradient.
+ * <p>
+ * The gradient is made of rings <code>i = 0, 1, ... radius - 1</code>, every one a filled square, circle or round
+ * rectangle with a side length of <code>2i</code> around the same centre, drawn from the inside out with a falling alpha.
+ * A pixel is covered by all rings from the smallest one that contains it, so its alpha only depends on the index of that
+ * ring. That index is computed from the position of the pixel, and the alpha that results from blending all rings
+ * outside of it is taken from a table that is computed once per image, with the same 8-bit rounding as Java2D.
+ * With antialiasing, the innermost ring that touches a pixel is blended with the part of the pixel it covers.
+ * Without it, a pixel belongs to a ring if its centre is inside of it, so pixels right at the edge of an oval ring
+ * might belong to the next ring compared to what Java2D draws, as it approximates the outline with curves.
+ * <p>
+ * Large images are computed in bands of rows in parallel using the common {@link ForkJoinPool}.
+ */
+final class GradientRasterizer {
+
+    /**
+     * Images with more pixels than this are computed in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 128 * 128;
+
+    /**
+     * The number of rows that are computed by one task.
+     */
+    private static final int BAND_HEIGHT = 32;
+
+    private final EnumShape shapeType;
+    private final int width;
+    private final int height;
+    private final int rgb;
+    private final boolean antialiasing;
+
+    /**
+     * The position of the centre of all rings.
+     */
+    private final float centre;
+
+    /**
+     * Half of the arc of a round rectangle, which is the radius of its corners.
+     */
+    private final float cornerRadius;
+
+    private final int ringCount;
+    private final int[] ringAlphas;
+
+    /**
+     * The alpha that results from blending the rings <code>k</code> to <code>ringCount - 1</code> over the alpha
+     * <code>a</code> is stored at <code>k * 256 + a</code>.
+     */
+    private final byte[] blendedAlphas;
+
+    private final int[] pixels;
+
+    private GradientRasterizer(SaltyShape shape, Color color, boolean antialiasing, float intensity, double startAlpha) {
+        this.shapeType = shape.getShapeType();
+        this.width = Math.round(shape.getWidth());
+        this.height = Math.round(shape.getHeight());
+        this.rgb = color.getRGB() & 0xffffff;
+        this.antialiasing = antialiasing;
+
+        float radius = shape.getWidth() / 2f;
+        this.centre = Math.round(radius);
+        this.cornerRadius = shape instanceof RoundRectShape ? Math.round(((RoundRectShape) shape).getArc()) / 2f : 0f;
+
+        ringCount = (int) Math.ceil(radius);
+        ringAlphas = new int[ringCount];
+
+        for (int i = 0; i < ringCount; i++) {
+            double luma = 1.0D - ((i + 0.001D) / radius);
+            ringAlphas[i] = Math.max(0, Math.min((int) (startAlpha * luma * intensity), 255));
+        }
+
+        blendedAlphas = new byte[(ringCount + 1) * 256];
+        for (int alpha = 0; alpha < 256; alpha++) {
+            blendedAlphas[ringCount * 256 + alpha] = (byte) alpha;
+        }
+        for (int ring = ringCount - 1; ring >= 0; ring--) {
+            int ringAlpha = ringAlphas[ring];
+
+            for (int alpha = 0; alpha < 256; alpha++) {
+                int blended = ringAlpha + multiply(255 - ringAlpha, alpha);
+                blendedAlphas[ring * 256 + alpha] = blendedAlphas[(ring + 1) * 256 + blended];
+            }
+        }
+
+        pixels = new int[width * height];
+    }
+
+    /**
+     * @param shape the shape of a gradient
+     * @return whether the gradient of the given shape can be computed by this class
+     */
+    static boolean supports(SaltyShape shape) {
+        EnumShape type = shape.getShapeType();
+
+        return shape.isFilled() && (type == EnumShape.OVAL || type == EnumShape.RECTANGLE
+                || (type == EnumShape.ROUND_RECTANGLE && shape instanceof RoundRectShape));
+    }
+
+    /**
+     * Computes the image of a gradient, see {@link ImageUtils#createPrimitiveGradient(SaltyShape, de.edgelord.saltyengine.core.interfaces.Drawable, RenderingHints, float, double)}.
+     *
+     * @param shape        the shape of the gradient, one that is {@link #supports(SaltyShape) supported}
+     * @param color        the color of the gradient
+     * @param antialiasing whether the edges of the rings are antialiased
+     * @param intensity    the intensity of the gradient
+     * @param startAlpha   the alpha value of the centre
+     * @return a new image of the gradient
+     */
+    static BufferedImage createGradient(SaltyShape shape, Color color, boolean antialiasing, float intensity, double startAlpha) {
+        GradientRasterizer rasterizer = new GradientRasterizer(shape, color, antialiasing, intensity, startAlpha);
+        BufferedImage image = new BufferedImage(rasterizer.width, rasterizer.height, BufferedImage.TYPE_INT_ARGB);
+
+        if ((long) rasterizer.width * rasterizer.height >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(rasterizer.new Band(0, rasterizer.height));
+        } else {
+            rasterizer.computeRows(0, rasterizer.height);
+        }
+
+        image.getRaster().setDataElements(0, 0, rasterizer.width, rasterizer.height, rasterizer.pixels);
+
+        return image;
+    }
+
+    private void computeRows(int minY, int maxY) {
+        for (int y = minY; y < maxY; y++) {
+            float distanceY = Math.abs(y + .5f - centre);
+            int row = y * width;
+
+            for (int x = 0; x < width; x++) {
+                int alpha = alpha(ring(Math.abs(x + .5f - centre), distanceY));
+
+                pixels[row + x] = alpha == 0 ? 0 : alpha << 24 | rgb;
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the smallest ring that contains the given point, as a fraction.
+     *
+     * @param distanceX the horizontal distance of the point to the centre
+     * @param distanceY the vertical distance of the point to the centre
+     * @return the size of the smallest ring containing the point
+     */
+    private float ring(float distanceX, float distanceY) {
+        switch (shapeType) {
+            case RECTANGLE:
+                return Math.max(distanceX, distanceY);
+            case ROUND_RECTANGLE:
+                float distance = (float) Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+
+                // rings smaller than the arc are circles
+                if (distance < cornerRadius) {
+                    return distance;
+                }
+
+                float ring = Math.max(distanceX, distanceY);
+                float difference = Math.abs(distanceX - distanceY);
+
+                // the point might be next to a corner, which is a quarter circle around ring - cornerRadius
+                if (difference * difference < 2 * cornerRadius * cornerRadius) {
+                    float cornerCentre = (distanceX + distanceY - (float) Math.sqrt(2 * cornerRadius * cornerRadius - difference * difference)) / 2f;
+
+                    if (distanceX > cornerCentre && distanceY > cornerCentre) {
+                        ring = Math.max(ring, cornerCentre + cornerRadius);
+                    }
+                }
+
+                return ring;
+            default:
+                return (float) Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+        }
+    }
+
+    private int alpha(float ring) {
+        if (!antialiasing) {
+            int innermostRing = Math.max(1, (int) Math.ceil(ring));
+
+            return innermostRing >= ringCount ? 0 : blendedAlphas[innermostRing * 256] & 0xff;
+        }
+
+        // the ring whose edge crosses the pixel only covers a part of it
+        int partialRing = (int) Math.floor(ring + .5f);
+
+        if (partialRing >= ringCount) {
+            return 0;
+        }
+
+        int coveredAlpha = 0;
+        if (partialRing > 0) {
+            int coverage = Math.round((partialRing + .5f - ring) * 255f);
+            coveredAlpha = multiply(coverage, ringAlphas[partialRing]);
+        }
+
+        return blendedAlphas[(partialRing + 1) * 256 + coveredAlpha] & 0xff;
+    }
+
+    /**
+     * @return <code>a * b / 255</code>, rounded
+     */
+    private static int multiply(int a, int b) {
+        int product = a * b + 128;
+        return (product + (product >> 8)) >> 8;
+    }
+
+    private final class Band extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int minY;
+        private final int maxY;
+
+        private Band(int minY, int maxY) {
+            this.minY = minY;
+            this.maxY = maxY;
+        }
+
+        @Override
+        protected void compute() {
+            if (maxY - minY <= BAND_HEIGHT) {
+                computeRows(minY, maxY);
+            } else {
+                int middle = (minY + maxY) >>> 1;
+                invokeAll(new Band(minY, middle), new Band(middle, maxY));
+            }
+        }
+    }
+}
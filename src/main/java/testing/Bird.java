@@ -45,7 +45,7 @@ public class Bird extends GameObject implements Serializable {
         spritesheetAnimation = new SpritesheetAnimation(this);
         spritesheet = new Spritesheet(image, getWidthAsInt(), getHeightAsInt());
 
-        spritesheetAnimation.setFrames(spritesheet.getManualFrames(new Coordinates(1, 1), new Coordinates(2, 2), new Coordinates(3, 2), new Coordinates(4, 1)));
+        spritesheetAnimation.setClip(spritesheet.getClip(new Coordinates(1, 1), new Coordinates(2, 2), new Coordinates(3, 2), new Coordinates(4, 1)));
 
         addComponent(new AnimationRender(this, "de.edgelord.saltyengine.testing.bird.animationRender", spritesheetAnimation, 90));
 
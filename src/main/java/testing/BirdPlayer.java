@@ -71,7 +71,7 @@ public class BirdPlayer extends GameObject implements Serializable {
         spritesheetAnimation = new SpritesheetAnimation(this);
         spritesheet = new Spritesheet(spriteSheetImage, 150, 101);
 
-        spritesheetAnimation.setFrames(spritesheet.getManualFrames(new Coordinates(1, 1), new Coordinates(2, 2), new Coordinates(3, 2), new Coordinates(4, 1)));
+        spritesheetAnimation.setClip(spritesheet.getClip(new Coordinates(1, 1), new Coordinates(2, 2), new Coordinates(3, 2), new Coordinates(4, 1)));
 
         keyFrameAnimationX.addKeyframe(3000, 0);
         keyFrameAnimationX.addKeyframe(9000, 700);
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package testing;
+
+import de.edgelord.saltyengine.core.Game;
+import de.edgelord.saltyengine.core.GameConfig;
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+import de.edgelord.saltyengine.effect.light.Light;
+import de.edgelord.saltyengine.effect.light.LightSystem;
+import de.edgelord.saltyengine.effect.light.PointLight;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the time it takes to update and to draw a {@link LightSystem} with different light map scales, and how much
+ * the result differs from the one at full resolution. Drawing the light map onto the frame costs the same for every
+ * scale, so it is measured separately.
+ */
+public class LightMapBenchmark {
+
+    private static final int LIGHT_COUNT = 100;
+    private static final int WARMUP_FRAMES = 30;
+    private static final int FRAMES = 200;
+    private static final float[] SCALES = {1f, .5f, .25f};
+
+    public static void main(String[] args) {
+        Game.init(GameConfig.config(2560f, 1440f, "light map benchmark", 5L));
+
+        BufferedImage reference = null;
+
+        System.out.println("scale    update ms/frame    draw ms/frame    mean error    max error");
+
+        for (float scale : SCALES) {
+            List<Light> lights = createLights();
+            TimedLightSystem lightSystem = new TimedLightSystem(new Color(0, 0, 0, 230));
+            lightSystem.setLightMapScale(scale);
+            // every light moves every frame, so the whole light map is redrawn anyway
+            lightSystem.setIncremental(false);
+            lights.forEach(lightSystem::addLight);
+
+            BufferedImage frame = new BufferedImage(Math.round(Game.getGameWidth()), Math.round(Game.getGameHeight()), BufferedImage.TYPE_INT_ARGB);
+
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                renderFrame(lightSystem, lights, frame);
+            }
+
+            lightSystem.updateNanos = 0;
+            lightSystem.drawNanos = 0;
+            for (int i = 0; i < FRAMES; i++) {
+                renderFrame(lightSystem, lights, frame);
+            }
+
+            if (reference == null) {
+                reference = frame;
+            }
+
+            long errorSum = 0;
+            int maxError = 0;
+            for (int y = 0; y < frame.getHeight(); y++) {
+                for (int x = 0; x < frame.getWidth(); x++) {
+                    int expected = reference.getRGB(x, y);
+                    int actual = frame.getRGB(x, y);
+
+                    for (int shift = 0; shift < 32; shift += 8) {
+                        int error = Math.abs(((expected >> shift) & 0xff) - ((actual >> shift) & 0xff));
+                        errorSum += error;
+                        maxError = Math.max(maxError, error);
+                    }
+                }
+            }
+
+            System.out.printf("%-8s %-18.2f %-16.2f %-13.3f %d%n", scale, lightSystem.updateNanos / 1_000_000d / FRAMES,
+                    lightSystem.drawNanos / 1_000_000d / FRAMES, errorSum / (frame.getWidth() * frame.getHeight() * 4d), maxError);
+        }
+
+        System.exit(0);
+    }
+
+    private static List<Light> createLights() {
+        Random random = new Random(42);
+        List<Light> lights = new ArrayList<>();
+
+        for (int i = 0; i < LIGHT_COUNT; i++) {
+            PointLight light = new PointLight(random.nextInt(Math.round(Game.getGameWidth())), random.nextInt(Math.round(Game.getGameHeight())), 150 + random.nextInt(4) * 50);
+            light.setColor(new Color(255, 150 + random.nextInt(100), 50));
+            lights.add(light);
+        }
+
+        return lights;
+    }
+
+    private static void renderFrame(LightSystem lightSystem, List<Light> lights, BufferedImage frame) {
+        // every scale renders the same number of frames with new lights, so the lights end at the same positions
+        for (int i = 0; i < lights.size(); i++) {
+            Light light = lights.get(i);
+            light.setX(light.getX() + (i % 2 == 0 ? 1 : -1));
+        }
+
+        Graphics2D graphics = frame.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        lightSystem.draw(new SaltyGraphics(graphics));
+        graphics.dispose();
+    }
+
+    private static class TimedLightSystem extends LightSystem {
+
+        private long updateNanos = 0;
+        private long drawNanos = 0;
+
+        private TimedLightSystem(Color lightMapColor) {
+            super(lightMapColor);
+        }
+
+        @Override
+        public void draw(SaltyGraphics saltyGraphics) {
+            long start = System.nanoTime();
+            updateDirtyRegions();
+            long updated = System.nanoTime();
+            drawLightMap(saltyGraphics, 0, 0);
+
+            updateNanos += updated - start;
+            drawNanos += System.nanoTime() - updated;
+        }
+    }
+}
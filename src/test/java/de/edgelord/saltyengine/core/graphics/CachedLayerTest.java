@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.core.graphics;
+
+import de.edgelord.saltyengine.core.camera.Camera;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class CachedLayerTest {
+
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 100;
+
+    @Test
+    public void followsTheCameraOfARecordedFrame() {
+        CachedLayer layer = new CachedLayer(WIDTH, HEIGHT, 0f);
+        Camera camera = new Camera();
+
+        RenderCommandBuffer first = record(layer, camera);
+        camera.setPosition(-250f, 0f);
+        RenderCommandBuffer second = record(layer, camera);
+
+        assertEquals(2, layer.getRenderCount());
+
+        // the oval is only visible after the camera moved
+        BufferedImage expected = drawDirectly(camera);
+        assertEquals(Color.BLUE.getRGB(), expected.getRGB(50, 60));
+        assertSameImage(expected, replay(second));
+
+        // re-rendering the layer must not change the frame recorded before
+        assertSameImage(drawDirectly(new Camera()), replay(first));
+    }
+
+    @Test
+    public void isOnlyRenderedAgainWhenTheCameraMoved() {
+        CachedLayer layer = new CachedLayer(WIDTH, HEIGHT, 0f);
+        Camera camera = new Camera();
+        camera.setPosition(-250f, 0f);
+
+        record(layer, camera);
+        RenderCommandBuffer buffer = record(layer, camera);
+
+        assertEquals(1, layer.getRenderCount());
+        assertSameImage(drawDirectly(camera), replay(buffer));
+    }
+
+    private static RenderCommandBuffer record(CachedLayer layer, Camera camera) {
+        RenderCommandBuffer buffer = new RenderCommandBuffer();
+        camera.setViewToGraphics(buffer.getGraphics2D());
+
+        if (layer.isOutdated(buffer)) {
+            drawContent(layer.startRendering(buffer));
+            layer.finishRendering();
+        }
+        layer.drawTo(buffer);
+
+        return buffer;
+    }
+
+    private static BufferedImage replay(RenderCommandBuffer buffer) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        buffer.replay(graphics);
+        graphics.dispose();
+
+        return image;
+    }
+
+    private static BufferedImage drawDirectly(Camera camera) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        camera.setViewToGraphics(graphics);
+        drawContent(new SaltyGraphics(graphics));
+        graphics.dispose();
+
+        return image;
+    }
+
+    private static void drawContent(SaltyGraphics graphics) {
+        graphics.setColor(Color.RED);
+        graphics.drawRect(20, 10, 30, 30);
+        graphics.setColor(Color.BLUE);
+        graphics.drawOval(280, 40, 40, 40);
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals("pixel " + x + "|" + y, expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+}
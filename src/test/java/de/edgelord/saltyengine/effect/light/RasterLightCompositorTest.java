@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.effect.light;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class RasterLightCompositorTest {
+
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 200;
+    private static final Color BACKGROUND = new Color(10, 0, 20, 230);
+
+    /**
+     * The maximum difference of the premultiplied colors to the ones of Java2D, as both round differently.
+     * The alpha has to be exactly the same.
+     */
+    private static final int COLOR_TOLERANCE = 4;
+
+    private static final int[][] LIGHTS = {
+            // x, y, size, red, green, blue, color alpha, brightness in percent
+            {40, 30, 160, 255, 160, 50, 200, 80},
+            {120, 60, 150, 80, 120, 255, 120, 50},
+            {-30, 100, 120, 255, 255, 255, 255, 100},
+            {230, 150, 100, 255, 40, 40, 60, 30}
+    };
+
+    @Test
+    public void compositesOverlappingLightsLikeJava2D() {
+        BufferedImage expected = drawWithJava2D(new Rectangle(0, 0, WIDTH, HEIGHT));
+        BufferedImage actual = composite(new Rectangle(0, 0, WIDTH, HEIGHT));
+
+        assertEquals(0, maxDifference(expected, actual, 24));
+        assertTrue("the colors differ by up to " + maxColorDifference(expected, actual), maxColorDifference(expected, actual) <= COLOR_TOLERANCE);
+    }
+
+    @Test
+    public void compositesOnlyTheGivenRegion() {
+        Rectangle region = new Rectangle(100, 50, 90, 70);
+        BufferedImage expected = drawWithJava2D(region);
+        BufferedImage actual = composite(region);
+
+        assertEquals(0, maxDifference(expected, actual, 24));
+        assertTrue(maxColorDifference(expected, actual) <= COLOR_TOLERANCE);
+        assertEquals(0, actual.getRGB(region.x - 1, region.y));
+        assertEquals(0, actual.getRGB(region.x, region.y + region.height));
+    }
+
+    private static BufferedImage drawWithJava2D(Rectangle region) {
+        BufferedImage lightMap = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = lightMap.createGraphics();
+        graphics.clipRect(region.x, region.y, region.width, region.height);
+        graphics.setColor(BACKGROUND);
+        graphics.fillRect(0, 0, WIDTH, HEIGHT);
+
+        for (int[] light : LIGHTS) {
+            graphics.setComposite(AlphaComposite.SrcOver);
+            graphics.drawImage(createColorImage(light), light[0], light[1], null);
+            graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.DST_OUT, light[7] / 100f));
+            graphics.drawImage(createLightImage(light), light[0], light[1], null);
+        }
+        graphics.dispose();
+
+        return lightMap;
+    }
+
+    private static BufferedImage composite(Rectangle region) {
+        BufferedImage lightMap = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        RasterLightCompositor compositor = new RasterLightCompositor();
+
+        for (int[] light : LIGHTS) {
+            compositor.addLight(RasterLightCompositor.getPixels(createColorImage(light)), RasterLightCompositor.getPixels(createLightImage(light)),
+                    light[0], light[1], light[2], light[2], light[7] / 100f);
+        }
+        compositor.composite(RasterLightCompositor.getPixels(lightMap), WIDTH, region, BACKGROUND.getRGB());
+
+        assertEquals(0, compositor.getLightCount());
+
+        return lightMap;
+    }
+
+    private static BufferedImage createColorImage(int[] light) {
+        return createGradient(light[2], light[3] << 16 | light[4] << 8 | light[5], light[6]);
+    }
+
+    private static BufferedImage createLightImage(int[] light) {
+        return createGradient(light[2], 0xffffff, 255);
+    }
+
+    /**
+     * Creates a round gradient of the given color, whose alpha fades out from the given value at the centre.
+     */
+    private static BufferedImage createGradient(int size, int rgb, int alpha) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        float radius = size / 2f;
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                float distance = (float) Math.hypot(x + .5f - radius, y + .5f - radius);
+                int pixelAlpha = Math.round(alpha * Math.max(0f, 1f - distance / radius));
+
+                image.setRGB(x, y, pixelAlpha << 24 | rgb);
+            }
+        }
+
+        return image;
+    }
+
+    private static int maxColorDifference(BufferedImage expected, BufferedImage actual) {
+        return Math.max(maxDifference(expected, actual, 0), Math.max(maxDifference(expected, actual, 8), maxDifference(expected, actual, 16)));
+    }
+
+    /**
+     * @return the maximum difference of the channel at the given bit shift, premultiplied unless it is the alpha
+     */
+    private static int maxDifference(BufferedImage expected, BufferedImage actual, int shift) {
+        int max = 0;
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int expectedPixel = expected.getRGB(x, y);
+                int actualPixel = actual.getRGB(x, y);
+                int expectedChannel = (expectedPixel >>> shift) & 0xff;
+                int actualChannel = (actualPixel >>> shift) & 0xff;
+
+                if (shift != 24) {
+                    expectedChannel = expectedChannel * (expectedPixel >>> 24) / 255;
+                    actualChannel = actualChannel * (actualPixel >>> 24) / 255;
+                }
+
+                max = Math.max(max, Math.abs(expectedChannel - actualChannel));
+            }
+        }
+
+        return max;
+    }
+}
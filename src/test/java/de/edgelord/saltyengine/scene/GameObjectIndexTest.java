@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene;
+
+import de.edgelord.saltyengine.core.event.CollisionEvent;
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+import de.edgelord.saltyengine.gameobject.GameObject;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameObjectIndexTest {
+
+    @Test
+    public void viewsOfKeysLookedUpBeforeTheFirstAddAreLive() {
+        GameObjectIndex index = new GameObjectIndex();
+        List<GameObject> enemies = index.withTag("enemy");
+        List<Enemy> enemyTypes = index.withType(Enemy.class);
+
+        Enemy enemy = new Enemy();
+        index.add(enemy);
+
+        assertEquals(1, enemies.size());
+        assertSame(enemy, enemies.get(0));
+        assertEquals(1, enemyTypes.size());
+        assertSame(enemies, index.withTag("enemy"));
+    }
+
+    @Test
+    public void viewsStayLiveWhenTheirBucketWasEmpty() {
+        GameObjectIndex index = new GameObjectIndex();
+        Enemy first = new Enemy();
+        index.add(first);
+
+        List<GameObject> enemies = index.withTag("enemy");
+        index.remove(first);
+        assertTrue(enemies.isEmpty());
+
+        Enemy second = new Enemy();
+        index.add(second);
+
+        assertEquals(1, enemies.size());
+        assertSame(second, enemies.get(0));
+    }
+
+    @Test
+    public void viewsFollowTagChanges() {
+        GameObjectIndex index = new GameObjectIndex();
+        List<GameObject> bosses = index.withTag("boss");
+        Enemy enemy = new Enemy();
+        index.add(enemy);
+
+        enemy.setTag("boss");
+        index.update(enemy);
+
+        assertEquals(1, bosses.size());
+        assertTrue(index.withTag("enemy").isEmpty());
+    }
+
+    private static class Enemy extends GameObject {
+
+        private Enemy() {
+            super(0f, 0f, 10f, 10f, "enemy");
+        }
+
+        @Override
+        public void initialize() {
+        }
+
+        @Override
+        public void onCollision(CollisionEvent event) {
+        }
+
+        @Override
+        public void onFixedTick() {
+        }
+
+        @Override
+        public void draw(SaltyGraphics saltyGraphics) {
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.scene;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TimerWheelTest {
+
+    private static final int ONE_LEVEL = TimerWheel.SLOTS;
+    private static final int TWO_LEVELS = TimerWheel.SLOTS * TimerWheel.SLOTS;
+    private static final int THREE_LEVELS = TimerWheel.SLOTS * TimerWheel.SLOTS * TimerWheel.SLOTS;
+
+    @Test
+    public void firesOnTheScheduledTick() {
+        TimerWheel wheel = new TimerWheel();
+        List<Long> fired = new ArrayList<>();
+
+        wheel.schedule(1, () -> fired.add(wheel.getCurrentTick()));
+        wheel.schedule(5, () -> fired.add(wheel.getCurrentTick()));
+
+        advance(wheel, 10);
+
+        assertEquals(2, fired.size());
+        assertEquals(1L, (long) fired.get(0));
+        assertEquals(5L, (long) fired.get(1));
+        assertEquals(0, wheel.getScheduledCount());
+    }
+
+    @Test
+    public void cascadesAcrossLevels() {
+        int[] delays = {ONE_LEVEL - 1, ONE_LEVEL, ONE_LEVEL + 1, TWO_LEVELS - 1, TWO_LEVELS, TWO_LEVELS + 37,
+                THREE_LEVELS, THREE_LEVELS + ONE_LEVEL + 3};
+
+        // start at an odd tick, so that the timers aren't aligned to the slots of the higher levels
+        TimerWheel wheel = new TimerWheel();
+        advance(wheel, 13);
+
+        long[] firedAt = new long[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            final int index = i;
+            wheel.schedule(delays[i], () -> firedAt[index] = wheel.getCurrentTick());
+        }
+
+        assertEquals(delays.length, wheel.getScheduledCount());
+        advance(wheel, THREE_LEVELS + 2 * ONE_LEVEL);
+
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals("timer with a delay of " + delays[i], 13L + delays[i], firedAt[i]);
+        }
+        assertEquals(0, wheel.getScheduledCount());
+    }
+
+    @Test
+    public void firesPeriodicallyAcrossLevels() {
+        TimerWheel wheel = new TimerWheel();
+        List<Long> fired = new ArrayList<>();
+
+        wheel.scheduleAtFixedRate(3, ONE_LEVEL + 7, () -> fired.add(wheel.getCurrentTick()));
+        advance(wheel, 10 * ONE_LEVEL);
+
+        for (int i = 0; i < fired.size(); i++) {
+            assertEquals(3L + i * (ONE_LEVEL + 7), (long) fired.get(i));
+        }
+        assertEquals(9, fired.size());
+        assertEquals(1, wheel.getScheduledCount());
+    }
+
+    @Test
+    public void cancelledTimersDontFire() {
+        TimerWheel wheel = new TimerWheel();
+        int[] calls = new int[3];
+
+        TimerWheel.Timer low = wheel.schedule(10, () -> calls[0]++);
+        TimerWheel.Timer high = wheel.schedule(TWO_LEVELS + 5, () -> calls[1]++);
+        TimerWheel.Timer periodic = wheel.scheduleAtFixedRate(4, () -> calls[2]++);
+
+        low.cancel();
+        advance(wheel, ONE_LEVEL + 1);
+
+        // the timer of the higher level was cascaded into a lower one by now
+        high.cancel();
+        periodic.cancel();
+        advance(wheel, TWO_LEVELS + 10);
+
+        assertEquals(0, calls[0]);
+        assertEquals(0, calls[1]);
+        assertEquals((ONE_LEVEL + 1) / 4, calls[2]);
+        assertFalse(low.isScheduled());
+        assertFalse(high.isScheduled());
+        assertFalse(periodic.isScheduled());
+        assertEquals(0, wheel.getScheduledCount());
+    }
+
+    @Test
+    public void callbacksCanCancelTimersDueOnTheSameTick() {
+        TimerWheel wheel = new TimerWheel();
+        int[] calls = new int[1];
+
+        TimerWheel.Timer[] second = new TimerWheel.Timer[1];
+        wheel.schedule(ONE_LEVEL + 2, () -> second[0].cancel());
+        second[0] = wheel.schedule(ONE_LEVEL + 2, () -> calls[0]++);
+
+        advance(wheel, ONE_LEVEL + 5);
+
+        assertEquals(0, calls[0]);
+        assertEquals(0, wheel.getScheduledCount());
+    }
+
+    @Test
+    public void pausedTimersKeepTheirRemainingTicks() {
+        TimerWheel wheel = new TimerWheel();
+        List<Long> fired = new ArrayList<>();
+
+        TimerWheel.Timer timer = wheel.schedule(ONE_LEVEL + 10, () -> fired.add(wheel.getCurrentTick()));
+        advance(wheel, 4);
+
+        timer.pause();
+        assertTrue(timer.isPaused());
+        assertFalse(timer.isScheduled());
+        assertEquals(ONE_LEVEL + 6L, timer.getRemainingTicks());
+        assertEquals(0, wheel.getScheduledCount());
+
+        advance(wheel, 2 * ONE_LEVEL);
+        assertTrue(fired.isEmpty());
+
+        timer.resume();
+        assertFalse(timer.isPaused());
+        assertEquals(1, wheel.getScheduledCount());
+
+        advance(wheel, 2 * ONE_LEVEL);
+        assertEquals(1, fired.size());
+        assertEquals(4L + 2 * ONE_LEVEL + ONE_LEVEL + 6L, (long) fired.get(0));
+    }
+
+    @Test
+    public void cancelledTimersCantBeResumed() {
+        TimerWheel wheel = new TimerWheel();
+        int[] calls = new int[1];
+
+        TimerWheel.Timer timer = wheel.schedule(5, () -> calls[0]++);
+        timer.pause();
+        timer.cancel();
+        timer.resume();
+
+        advance(wheel, 10);
+
+        assertEquals(0, calls[0]);
+        assertFalse(timer.isPaused());
+        assertEquals(0, wheel.getScheduledCount());
+    }
+
+    private static void advance(TimerWheel wheel, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            wheel.advance();
+        }
+    }
+}
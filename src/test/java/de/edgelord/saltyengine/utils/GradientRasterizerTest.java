@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 Malte Dostal
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.edgelord.saltyengine.utils;
+
+import de.edgelord.saltyengine.core.graphics.SaltyGraphics;
+import de.edgelord.saltyengine.effect.geom.EnumShape;
+import de.edgelord.saltyengine.effect.geom.SaltyShape;
+import de.edgelord.saltyengine.transform.Coordinates2f;
+import de.edgelord.saltyengine.transform.Dimensions;
+import de.edgelord.saltyengine.transform.Transform;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class GradientRasterizerTest {
+
+    /**
+     * The maximum difference of the alpha to the one of the old ring loop with antialiasing.
+     */
+    private static final int ANTIALIASED_TOLERANCE = 4;
+
+    private static final EnumShape[] SHAPES = {EnumShape.OVAL, EnumShape.RECTANGLE, EnumShape.ROUND_RECTANGLE};
+
+    // 200 is big enough to be computed in parallel
+    private static final int[] SIZES = {31, 64, 200};
+    private static final float[] INTENSITIES = {.1f, 1f};
+    private static final float ARC = 20f;
+    private static final Color COLOR = new Color(255, 200, 40);
+
+    @Test
+    public void matchesRingLoopWithAntialiasing() {
+        for (EnumShape shape : SHAPES) {
+            for (int size : SIZES) {
+                for (float intensity : INTENSITIES) {
+                    BufferedImage expected = drawRings(shape, size, true, intensity);
+                    BufferedImage actual = GradientRasterizer.createGradient(createShape(shape, size), COLOR, true, intensity, 255);
+
+                    int difference = maxAlphaDifference(expected, actual);
+                    assertTrue(shape + " " + size + " " + intensity + " differs by " + difference, difference <= ANTIALIASED_TOLERANCE);
+                    assertColor(actual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Without antialiasing, the edges of oval rings might be one pixel off, as Java2D approximates them with curves,
+     * so every pixel has to have the alpha of the same pixel or of one next to it in the image of the ring loop.
+     */
+    @Test
+    public void matchesRingLoopWithoutAntialiasing() {
+        for (EnumShape shape : SHAPES) {
+            for (int size : SIZES) {
+                for (float intensity : INTENSITIES) {
+                    BufferedImage expected = drawRings(shape, size, false, intensity);
+                    BufferedImage actual = GradientRasterizer.createGradient(createShape(shape, size), COLOR, false, intensity, 255);
+
+                    for (int y = 0; y < size; y++) {
+                        for (int x = 0; x < size; x++) {
+                            assertTrue(shape + " " + size + " " + intensity + " at " + x + "|" + y, hasAlphaAround(expected, x, y, actual.getRGB(x, y) >>> 24));
+                        }
+                    }
+                    assertColor(actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matchesRingLoopExactlyForRectangles() {
+        for (int size : SIZES) {
+            assertEquals(0, maxAlphaDifference(drawRings(EnumShape.RECTANGLE, size, true, 1f),
+                    GradientRasterizer.createGradient(createShape(EnumShape.RECTANGLE, size), COLOR, true, 1f, 255)));
+            assertEquals(0, maxAlphaDifference(drawRings(EnumShape.RECTANGLE, size, false, 1f),
+                    GradientRasterizer.createGradient(createShape(EnumShape.RECTANGLE, size), COLOR, false, 1f, 255)));
+        }
+    }
+
+    private static SaltyShape createShape(EnumShape shape, int size) {
+        return SaltyShape.createShape(shape, new Transform(0, 0, size, size), ARC);
+    }
+
+    /**
+     * Draws the gradient the way {@link ImageUtils#createPrimitiveGradient(SaltyShape, de.edgelord.saltyengine.core.interfaces.Drawable, RenderingHints, float, double)}
+     * did before it used the {@link GradientRasterizer}, by filling one shape per ring.
+     */
+    private static BufferedImage drawRings(EnumShape shapeType, int size, boolean antialiasing, float intensity) {
+        SaltyShape shape = createShape(shapeType, size);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+
+        float radius = size / 2f;
+        for (int i = 0; i < radius; i++) {
+            double luma = 1.0D - ((i + 0.001D) / radius);
+            int alpha = Math.min((int) (255 * luma * intensity), 255);
+            graphics.setColor(new Color(COLOR.getRed(), COLOR.getGreen(), COLOR.getBlue(), alpha));
+
+            int currentPos = Math.round(radius - i);
+            int currentSize = i * 2;
+            shape.setDimensions(new Dimensions(currentSize, currentSize));
+            shape.setPosition(new Coordinates2f(currentPos, currentPos));
+            shape.draw(new SaltyGraphics(graphics));
+        }
+        graphics.dispose();
+
+        return image;
+    }
+
+    private static boolean hasAlphaAround(BufferedImage image, int x, int y, int alpha) {
+        for (int aroundY = Math.max(0, y - 1); aroundY <= Math.min(image.getHeight() - 1, y + 1); aroundY++) {
+            for (int aroundX = Math.max(0, x - 1); aroundX <= Math.min(image.getWidth() - 1, x + 1); aroundX++) {
+                if (image.getRGB(aroundX, aroundY) >>> 24 == alpha) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static int maxAlphaDifference(BufferedImage expected, BufferedImage actual) {
+        int max = 0;
+
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                max = Math.max(max, Math.abs((expected.getRGB(x, y) >>> 24) - (actual.getRGB(x, y) >>> 24)));
+            }
+        }
+
+        return max;
+    }
+
+    private static void assertColor(BufferedImage image) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int pixel = image.getRGB(x, y);
+
+                if (pixel >>> 24 != 0) {
+                    assertEquals(COLOR.getRGB() & 0xffffff, pixel & 0xffffff);
+                }
+            }
+        }
+    }
+}